@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionBuilder;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Generates synthetic trivia question banks for the benchmarks.
+ * 
+ * @author DJ Spiess
+ */
+final class SyntheticQuestionBank {
+    
+    static final String[] CATEGORIES = {
+        "Art", "Books", "Film", "Food", "Games", "Geography", "History", "Music",
+        "Nature", "People", "Politics", "Religion", "Science", "Sports", "Television", "Words"
+    };
+    
+    private SyntheticQuestionBank() {
+        // static helpers only
+    }
+    
+    /**
+     * Creates a bank of questions with identifiers 0 to size - 1, spread 
+     * evenly over the categories and difficulties.
+     * 
+     * @param size the number of questions
+     * @return the questions
+     */
+    static List<TriviaQuestion> create(int size) {
+        Date lastUpdated = new Date();
+        List<TriviaQuestion> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add((new TriviaQuestionBuilder())
+                .id(i)
+                .question("Synthetic question number " + i + "?")
+                .answerA("Answer A" + i)
+                .answerB("Answer B" + i)
+                .answerC("Answer C" + i)
+                .answerD("Answer D" + i)
+                .correctAnswer("ABCD".substring(i % 4, i % 4 + 1))
+                .hint("Hint " + i)
+                .category(CATEGORIES[(i / TriviaQuestion.MAX_DIFFICULTY) % CATEGORIES.length])
+                .difficulty(i % TriviaQuestion.MAX_DIFFICULTY + 1)
+                .lastUpdated(lastUpdated)
+                .build()
+            );
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.metrics.LatencyHistogram;
+import com.deegeu.trivia.metrics.RouteMetrics;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionTimedAccess;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures what the metrics cost on the request path: recording a request, 
+ * and looking up a question with and without the store timer. Run with -t to
+ * see the cost when many threads record into the same histogram.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaMetricsBenchmark {
+    
+    private static final int LOOKUP_COUNT = 1024;
+    private static final int SIZE = 100000;
+    
+    private TriviaQuestionAccessible store;
+    private TriviaQuestionAccessible timedStore;
+    private RouteMetrics route;
+    private LatencyHistogram histogram;
+    private long[] lookupIds;
+    
+    @Setup
+    public void setup() {
+        store = new TriviaQuestionArrayAccess(SyntheticQuestionBank.create(SIZE));
+        timedStore = new TriviaQuestionTimedAccess(store);
+        route = TriviaMetrics.route("TriviaMetricsBenchmark.record");
+        histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        lookupIds = new long[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            lookupIds[i] = random.nextInt(SIZE);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+    
+    @Benchmark
+    public TriviaQuestion plainLookup(Cursor cursor) {
+        return store.getQuestionById(nextId(cursor));
+    }
+    
+    @Benchmark
+    public TriviaQuestion timedLookup(Cursor cursor) {
+        return timedStore.getQuestionById(nextId(cursor));
+    }
+    
+    @Benchmark
+    public void recordHistogram(Cursor cursor) {
+        histogram.record(nextId(cursor) * 1000);
+    }
+    
+    @Benchmark
+    public void recordRequest() {
+        route.record(200, System.nanoTime());
+    }
+    
+    private long nextId(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (LOOKUP_COUNT - 1);
+        return lookupIds[cursor.next];
+    }
+}
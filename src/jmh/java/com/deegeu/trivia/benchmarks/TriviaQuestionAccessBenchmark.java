@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionBankWriter;
+import com.deegeu.trivia.model.TriviaQuestionCursor;
+import com.deegeu.trivia.model.TriviaQuestionMappedAccess;
+import com.deegeu.trivia.model.TriviaQuestionPage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the read paths of the question stores against synthetic banks. The
+ * bank size and store are parameters, so a run can be narrowed with 
+ * <code>-p size=5000000 -p store=mapped</code>.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionAccessBenchmark {
+    
+    private static final int LOOKUP_COUNT = 1024;
+    private static final int IDS_PER_REQUEST = 10;
+    
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+    
+    @Param({"array", "mapped"})
+    private String store;
+    
+    private TriviaQuestionAccessible dataAccess;
+    private Path bankFile;
+    private long[] lookupIds;
+    private long[] offsets;
+    private long[][] idLists;
+    private TriviaQuestionCursor[] cursors;
+    private int next;
+    
+    @Setup
+    public void setup() throws IOException {
+        List<TriviaQuestion> questions = SyntheticQuestionBank.create(size);
+        if ("mapped".equals(store)) {
+            bankFile = Files.createTempFile("benchmark", ".bank");
+            TriviaQuestionBankWriter.write(questions, bankFile);
+            dataAccess = new TriviaQuestionMappedAccess(bankFile);
+        } else {
+            dataAccess = new TriviaQuestionArrayAccess(questions);
+        }
+        
+        Random random = new Random(42);
+        lookupIds = new long[LOOKUP_COUNT];
+        offsets = new long[LOOKUP_COUNT];
+        idLists = new long[LOOKUP_COUNT][IDS_PER_REQUEST];
+        cursors = new TriviaQuestionCursor[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            lookupIds[i] = random.nextInt(size);
+            offsets[i] = random.nextInt(size);
+            cursors[i] = new TriviaQuestionCursor(random.nextInt(size), dataAccess.getVersion());
+            for (int j = 0; j < IDS_PER_REQUEST; j++) {
+                idLists[i][j] = random.nextInt(size);
+            }
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        if (bankFile != null) {
+            Files.deleteIfExists(bankFile);
+        }
+    }
+    
+    @Benchmark
+    public TriviaQuestion getQuestionById() {
+        return dataAccess.getQuestionById(lookupIds[nextIndex()]);
+    }
+    
+    @Benchmark
+    public TriviaQuestion getRandomQuestion() {
+        return dataAccess.getRandomQuestion();
+    }
+    
+    @Benchmark
+    public void getQuestionListPage(Blackhole blackhole) {
+        // Pages may be lazy views, so read every question.
+        for (TriviaQuestion question : dataAccess.getQuestionList(offsets[nextIndex()])) {
+            blackhole.consume(question);
+        }
+    }
+    
+    @Benchmark
+    public TriviaQuestionPage getQuestionPageByCursor() {
+        return dataAccess.getQuestionPage(cursors[nextIndex()]);
+    }
+    
+    @Benchmark
+    public void getSpecifiedQuestionList(Blackhole blackhole) {
+        for (TriviaQuestion question : dataAccess.getSpecifiedQuestionList(idLists[nextIndex()])) {
+            blackhole.consume(question);
+        }
+    }
+    
+    private int nextIndex() {
+        next = (next + 1) & (LOOKUP_COUNT - 1);
+        return next;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.endpoints.TriviaQuestionEndpoint;
+import com.deegeu.trivia.endpoints.TriviaRequestExecutor;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Load test for the question routes when the store is slow. Every store call 
+ * sleeps for delayMillis, like a store on disk or a remote shard. Each JMH 
+ * thread is a client sending one request at a time.
+ * 
+ * <p>The sync handler runs the route on a fixed pool of container threads 
+ * with an unbounded queue, the way a container does when a handler blocks.
+ * Latency grows with the number of clients, since requests wait behind 
+ * blocked threads. The async handler goes through the endpoint's bounded 
+ * {@link TriviaRequestExecutor}. Requests over its queue are answered with 
+ * 503 at once, so latency stays flat as clients are added. A client that 
+ * gets 503 backs off for 10 ms, standing in for Retry-After, and the back off
+ * is part of its sample. The served and unavailable counters show how many
+ * requests got each answer. Compare runs with <code>-t 16</code>, 
+ * <code>-t 64</code> and <code>-t 256</code>.</p>
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(64)
+public class TriviaQuestionAsyncLoadBenchmark {
+    
+    private static final int SIZE = 10000;
+    private static final int WORKER_THREADS = 16;
+    private static final int QUEUE_SIZE = 32;
+    private static final long TIMEOUT_MILLIS = 1000L;
+    private static final long RETRY_BACKOFF_MILLIS = 10L;
+    
+    @Param({"0", "5"})
+    private long delayMillis;
+    
+    @Param({"sync", "async"})
+    private String handler;
+    
+    private TriviaRequestExecutor executor;
+    private ExecutorService containerThreads;
+    private ScheduledExecutorService timeouts;
+    private TriviaQuestionEndpoint endpoint;
+    private UriInfo uri;
+    private HttpHeaders headers;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        TriviaQuestionAccessible store = delayed(new TriviaQuestionArrayAccess(SyntheticQuestionBank.create(SIZE)), 
+                delayMillis);
+        executor = new TriviaRequestExecutor(WORKER_THREADS, QUEUE_SIZE, TIMEOUT_MILLIS);
+        containerThreads = Executors.newFixedThreadPool(WORKER_THREADS);
+        timeouts = Executors.newSingleThreadScheduledExecutor();
+        endpoint = new TriviaQuestionEndpoint(store, executor);
+        uri = (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(), 
+                new Class<?>[] {UriInfo.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBaseUri": return URI.create("http://localhost:8080/");
+                        case "getRequestUri": return URI.create("http://localhost:8080/questions");
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        headers = (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), 
+                new Class<?>[] {HttpHeaders.class}, (proxy, method, args) -> null);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        containerThreads.shutdown();
+        timeouts.shutdown();
+    }
+    
+    @Benchmark
+    public int getQuestion(Counters counters) throws InterruptedException, ExecutionException {
+        String id = Integer.toString(ThreadLocalRandom.current().nextInt(SIZE));
+        Response response;
+        if ("async".equals(handler)) {
+            SuspendedResponse suspended = new SuspendedResponse(timeouts);
+            endpoint.getQuestion(suspended, uri, null, headers, id);
+            response = suspended.get();
+        } else {
+            response = containerThreads.submit(() -> endpoint.getQuestion(uri, null, headers, id)).get();
+        }
+        if (response.getStatus() == Response.Status.SERVICE_UNAVAILABLE.getStatusCode()) {
+            counters.unavailable++;
+            Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } else {
+            counters.served++;
+        }
+        return response.getStatus();
+    }
+    
+    /**
+     * Responses per client, by outcome.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long served;
+        public long unavailable;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            unavailable = 0;
+        }
+    }
+    
+    /*
+        Wraps a store so every call sleeps first. getSnapshot returns the 
+        wrapper, so the endpoint keeps reading through it.
+    */
+    private static TriviaQuestionAccessible delayed(TriviaQuestionAccessible store, long delayMillis) {
+        return (TriviaQuestionAccessible) Proxy.newProxyInstance(TriviaQuestionAccessible.class.getClassLoader(),
+                new Class<?>[] {TriviaQuestionAccessible.class}, (proxy, method, args) -> {
+                    if ("getSnapshot".equals(method.getName())) {
+                        return proxy;
+                    }
+                    if (delayMillis > 0) {
+                        Thread.sleep(delayMillis);
+                    }
+                    try {
+                        return method.invoke(store, args);
+                    } catch (InvocationTargetException ie) {
+                        throw ie.getCause();
+                    }
+                });
+    }
+    
+    /*
+        The part of a container's suspended response the endpoint uses. The 
+        first resume wins, like in a container.
+    */
+    private static final class SuspendedResponse implements AsyncResponse {
+        final private CompletableFuture<Object> result = new CompletableFuture<>();
+        final private ScheduledExecutorService timeouts;
+        private volatile TimeoutHandler timeoutHandler;
+        
+        SuspendedResponse(ScheduledExecutorService timeouts) {
+            this.timeouts = timeouts;
+        }
+        
+        Response get() throws InterruptedException, ExecutionException {
+            Object value = result.get();
+            if (value instanceof Throwable) {
+                throw new ExecutionException((Throwable) value);
+            }
+            return (Response) value;
+        }
+        
+        @Override
+        public boolean resume(Object response) {
+            return result.complete(response);
+        }
+        
+        @Override
+        public boolean resume(Throwable response) {
+            return result.complete(response);
+        }
+        
+        @Override
+        public boolean cancel() {
+            return resume(Response.status(Response.Status.SERVICE_UNAVAILABLE).build());
+        }
+        
+        @Override
+        public boolean cancel(int retryAfter) {
+            return cancel();
+        }
+        
+        @Override
+        public boolean cancel(Date retryAfter) {
+            return cancel();
+        }
+        
+        @Override
+        public boolean isSuspended() {
+            return !result.isDone();
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+        
+        @Override
+        public boolean isDone() {
+            return result.isDone();
+        }
+        
+        @Override
+        public boolean setTimeout(long time, TimeUnit unit) {
+            timeouts.schedule(() -> {
+                if (!result.isDone() && timeoutHandler != null) {
+                    timeoutHandler.handleTimeout(this);
+                }
+            }, time, unit);
+            return true;
+        }
+        
+        @Override
+        public void setTimeoutHandler(TimeoutHandler handler) {
+            this.timeoutHandler = handler;
+        }
+        
+        @Override
+        public Collection<Class<?>> register(Class<?> callback) {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+            return Collections.emptyMap();
+        }
+        
+        @Override
+        public Collection<Class<?>> register(Object callback) {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+            return Collections.emptyMap();
+        }
+    }
+}
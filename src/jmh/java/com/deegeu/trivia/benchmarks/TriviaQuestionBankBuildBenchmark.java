@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionBuilder;
+import com.deegeu.trivia.model.TriviaStringPool;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures building a synthetic bank of a million questions, with and 
+ * without a shared {@link TriviaStringPool}. The answers and hints come from
+ * a small vocabulary and are copied for every question, as they would be when
+ * parsed from a dump. The score is questions built per second. The pooled 
+ * bank keeps one copy of each answer and hint, which 
+ * <code>TriviaQuestionFootprintTest</code> measures.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(jvmArgsAppend = "-Xmx4g")
+public class TriviaQuestionBankBuildBenchmark {
+    
+    private static final int SIZE = 1000000;
+    private static final String[] ANSWERS = {"True", "False", "1990", "1991", "1992", "Paris", 
+        "London", "Madrid", "Berlin", "Rome", "Canada", "Mexico", "Brazil", "Japan", "Egypt", "None of these"};
+    private static final String[] HINTS = {"Think about Europe", "It's older than you think", 
+        "Look at a map", "Not what it seems"};
+    
+    @Param({"false", "true"})
+    private boolean pooled;
+    
+    private String[] questionText;
+    private Date lastUpdated;
+    
+    @Setup
+    public void setup() {
+        questionText = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            questionText[i] = "Synthetic question number " + i + "?";
+        }
+        lastUpdated = new Date();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public TriviaQuestion[] buildBank() {
+        TriviaStringPool strings = pooled ? new TriviaStringPool() : null;
+        TriviaQuestion[] bank = new TriviaQuestion[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            bank[i] = (new TriviaQuestionBuilder(strings))
+                .id(i)
+                .question(questionText[i])
+                .answerA(new String(ANSWERS[i % ANSWERS.length]))
+                .answerB(new String(ANSWERS[(i + 3) % ANSWERS.length]))
+                .answerC(new String(ANSWERS[(i + 7) % ANSWERS.length]))
+                .answerD(new String(ANSWERS[(i + 11) % ANSWERS.length]))
+                .correctAnswer("ABCD".substring(i % 4, i % 4 + 1))
+                .hint(new String(HINTS[i % HINTS.length]))
+                .lastUpdated(lastUpdated)
+                .build();
+        }
+        return bank;
+    }
+}
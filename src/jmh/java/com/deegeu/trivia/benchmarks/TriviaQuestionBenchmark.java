@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionBuilder;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures building a question and the value methods of 
+ * {@link TriviaQuestion}.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionBenchmark {
+    
+    private Date lastUpdated;
+    private TriviaQuestion question;
+    private TriviaQuestion equalQuestion;
+    private TriviaQuestion otherQuestion;
+    
+    @Setup
+    public void setup() {
+        lastUpdated = new Date();
+        question = build(1, "Hint");
+        equalQuestion = copyOf(question);
+        otherQuestion = build(1, "Other hint");
+    }
+    
+    @Benchmark
+    public TriviaQuestion build() {
+        return build(1, "Hint");
+    }
+    
+    @Benchmark
+    public int hashCodeQuestion() {
+        return question.hashCode();
+    }
+    
+    @Benchmark
+    public boolean equalsEqual() {
+        return question.equals(equalQuestion);
+    }
+    
+    @Benchmark
+    public boolean equalsDifferent() {
+        return question.equals(otherQuestion);
+    }
+    
+    /*
+        Copies the strings too, so equals can't shortcut on identical 
+        references.
+    */
+    private static TriviaQuestion copyOf(TriviaQuestion original) {
+        return (new TriviaQuestionBuilder())
+                .id(original.getId())
+                .question(new String(original.getQuestion()))
+                .answerA(new String(original.getAnswerA()))
+                .answerB(new String(original.getAnswerB()))
+                .answerC(new String(original.getAnswerC()))
+                .answerD(new String(original.getAnswerD()))
+                .correctAnswer(new String(original.getCorrectAnswer()))
+                .hint(new String(original.getHint()))
+                .lastUpdated(new Date(original.getLastUpdated().getTime()))
+                .build();
+    }
+    
+    private TriviaQuestion build(long id, String hint) {
+        return (new TriviaQuestionBuilder())
+                .id(id)
+                .question("What is the capital of Texas?")
+                .answerA("Dallas")
+                .answerB("Austin")
+                .answerC("Houston")
+                .answerD("San Antonio")
+                .correctAnswer("B")
+                .hint(hint)
+                .lastUpdated(lastUpdated)
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.endpoints.TriviaQuestionEndpoint;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionCursor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures building endpoint responses, including writing the entity, the way
+ * the container would for each request. Preconditions aren't evaluated, since
+ * that needs a live request. The JAX-RS runtime comes from RESTEasy on the 
+ * benchmark classpath.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionEndpointBenchmark {
+    
+    private static final int LOOKUP_COUNT = 1024;
+    private static final int ANSWERS_PER_BATCH = 1000;
+    
+    @Param({"1000", "100000"})
+    private int size;
+    
+    private TriviaQuestionEndpoint endpoint;
+    private UriInfo uri;
+    private HttpHeaders plainHeaders;
+    private HttpHeaders gzipHeaders;
+    private String[] ids;
+    private long[] offsets;
+    private String[] idLists;
+    private String[] cursors;
+    private byte[][] answers;
+    private byte[] answerBatch;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess(SyntheticQuestionBank.create(size));
+        endpoint = new TriviaQuestionEndpoint(store);
+        uri = uriInfo(URI.create("http://localhost:8080/"), URI.create("http://localhost:8080/questions"));
+        plainHeaders = httpHeaders(null);
+        gzipHeaders = httpHeaders("gzip, deflate");
+        
+        Random random = new Random(42);
+        ids = new String[LOOKUP_COUNT];
+        offsets = new long[LOOKUP_COUNT];
+        idLists = new String[LOOKUP_COUNT];
+        cursors = new String[LOOKUP_COUNT];
+        answers = new byte[LOOKUP_COUNT][];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            ids[i] = Integer.toString(random.nextInt(size));
+            offsets[i] = random.nextInt(size);
+            StringBuilder list = new StringBuilder();
+            for (int j = 0; j < 10; j++) {
+                list.append(j == 0 ? "" : ",").append(random.nextInt(size));
+            }
+            idLists[i] = list.toString();
+            cursors[i] = new TriviaQuestionCursor(random.nextInt(size), store.getVersion()).toToken();
+            answers[i] = new byte[] {(byte) ('A' + random.nextInt(4))};
+        }
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < ANSWERS_PER_BATCH; i++) {
+            batch.append(random.nextInt(size)).append('=').append((char) ('A' + random.nextInt(4))).append(',');
+        }
+        answerBatch = batch.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    @Benchmark
+    public void getQuestion(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestion(uri, null, plainHeaders, ids[nextIndex()]), blackhole);
+    }
+    
+    @Benchmark
+    public void getQuestionGzip(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestion(uri, null, gzipHeaders, ids[nextIndex()]), blackhole);
+    }
+    
+    @Benchmark
+    public void getQuestionPage(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestions(uri, null, plainHeaders, offsets[nextIndex()], null, null, 10, null, 0), blackhole);
+    }
+    
+    @Benchmark
+    public void getLargeQuestionPage(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestions(uri, null, plainHeaders, offsets[nextIndex()], null, null, 500, null, 0), blackhole);
+    }
+    
+    @Benchmark
+    public void getQuestionsByIds(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestions(uri, null, plainHeaders, 0, idLists[nextIndex()], null, 10, null, 0), blackhole);
+    }
+    
+    @Benchmark
+    public void getQuestionPageByCursor(Blackhole blackhole) throws IOException {
+        write(endpoint.getQuestions(uri, null, plainHeaders, 0, null, cursors[nextIndex()], 10, null, 0), blackhole);
+    }
+    
+    @Benchmark
+    public void getRandomQuestion(Blackhole blackhole) throws IOException {
+        write(endpoint.getRandomQuestion(uri, plainHeaders), blackhole);
+    }
+    
+    @Benchmark
+    public void answerQuestion(Blackhole blackhole) throws IOException {
+        int index = nextIndex();
+        write(endpoint.answerQuestion(ids[index], answers[index]), blackhole);
+    }
+    
+    /*
+        Grades a batch of 1000 answers. With -prof gc, the bytes allocated
+        per batch should stay the same if ANSWERS_PER_BATCH grows.
+    */
+    @Benchmark
+    public void gradeAnswers(Blackhole blackhole) throws IOException {
+        write(endpoint.gradeAnswers(answerBatch), blackhole);
+    }
+    
+    private int nextIndex() {
+        next = (next + 1) & (LOOKUP_COUNT - 1);
+        return next;
+    }
+    
+    private static void write(Response response, Blackhole blackhole) throws IOException {
+        blackhole.consume(response.getMetadata());
+        Object entity = response.getEntity();
+        if (entity instanceof StreamingOutput) {
+            ((StreamingOutput) entity).write(new BlackholeOutputStream(blackhole));
+        } else {
+            blackhole.consume(entity);
+        }
+    }
+    
+    private static UriInfo uriInfo(URI baseUri, URI requestUri) {
+        return (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(), 
+                new Class<?>[] {UriInfo.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBaseUri": return baseUri;
+                        case "getRequestUri": return requestUri;
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+    
+    private static HttpHeaders httpHeaders(String acceptEncoding) {
+        return (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), 
+                new Class<?>[] {HttpHeaders.class}, (proxy, method, args) -> {
+                    if ("getHeaderString".equals(method.getName())) {
+                        return HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase((String) args[0]) 
+                                ? acceptEncoding : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+    
+    /*
+        Hands the written bytes to the blackhole instead of a socket.
+    */
+    private static final class BlackholeOutputStream extends OutputStream {
+        final private Blackhole blackhole;
+        
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+        
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionColumnarAccess;
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures drawing 20 random questions of one category and difficulty. The
+ * first benchmark scans every question and shuffles the matches, the second 
+ * draws from the category and difficulty bitmaps.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TriviaQuestionFilterBenchmark {
+    
+    private static final int QUIZ_SIZE = 20;
+    
+    @Param({"1000000"})
+    private int size;
+    
+    private TriviaQuestionColumnarAccess store;
+    private TriviaQuestionFilter filter;
+    
+    @Setup
+    public void setup() {
+        store = TriviaQuestionColumnarAccess.of(SyntheticQuestionBank.create(size));
+        filter = new TriviaQuestionFilter("History", 2);
+        store.getRandomQuestions(filter, QUIZ_SIZE);
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> scanAndShuffle() {
+        List<TriviaQuestion> matching = new ArrayList<>();
+        for (long index = 0; index < store.getQuestionListSize(); index++) {
+            TriviaQuestion question = store.getQuestionByIndex(index);
+            if (filter.getCategory().equalsIgnoreCase(question.getCategory()) 
+                    && question.getDifficulty() == filter.getDifficulty()) {
+                matching.add(question);
+            }
+        }
+        Collections.shuffle(matching);
+        return matching.subList(0, Math.min(QUIZ_SIZE, matching.size()));
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> bitmapDraw() {
+        return store.getRandomQuestions(filter, QUIZ_SIZE);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares looking up a question by id through the id index against the linear
+ * scan the array store used to do.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionIdLookupBenchmark {
+    
+    private static final int LOOKUP_COUNT = 1024;
+    
+    @Param({"10", "10000", "1000000"})
+    private int size;
+    
+    private List<TriviaQuestion> questions;
+    private TriviaQuestionArrayAccess store;
+    private long[] lookupIds;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        questions = SyntheticQuestionBank.create(size);
+        store = new TriviaQuestionArrayAccess(questions);
+        Random random = new Random(42);
+        lookupIds = new long[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            lookupIds[i] = random.nextInt(size);
+        }
+    }
+    
+    @Benchmark
+    public TriviaQuestion indexLookup() {
+        return store.getQuestionById(nextId());
+    }
+    
+    @Benchmark
+    public TriviaQuestion linearScan() {
+        long id = nextId();
+        for (TriviaQuestion question: questions) {
+            if (question.getId() == id) {
+                return question;
+            }
+        }
+        return null;
+    }
+    
+    private long nextId() {
+        next = (next + 1) & (LOOKUP_COUNT - 1);
+        return lookupIds[next];
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures finding the questions that mention a word. The first benchmark 
+ * scans every question, answer and hint with <code>String.contains</code>, 
+ * the second looks the word up in the search index.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TriviaQuestionSearchBenchmark {
+    
+    private static final String WORD = "B123456";
+    
+    @Param({"1000000"})
+    private int size;
+    
+    private TriviaQuestionArrayAccess store;
+    
+    @Setup
+    public void setup() {
+        store = new TriviaQuestionArrayAccess(SyntheticQuestionBank.create(size));
+        store.searchQuestions(WORD, 10);
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> scanContains() {
+        String word = WORD.toLowerCase(Locale.ROOT);
+        List<TriviaQuestion> found = new ArrayList<>();
+        for (long index = 0; index < store.getQuestionListSize() && found.size() < 10; index++) {
+            TriviaQuestion question = store.getQuestionByIndex(index);
+            String text = question.getQuestion() + ' ' + question.getAnswerA() + ' ' + question.getAnswerB() 
+                    + ' ' + question.getAnswerC() + ' ' + question.getAnswerD() + ' ' + question.getHint();
+            if (text.toLowerCase(Locale.ROOT).contains(word)) {
+                found.add(question);
+            }
+        }
+        return found;
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> indexLookup() {
+        return store.searchQuestions(WORD, 10);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.endpoints.TriviaQuestionEndpoint;
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per-request cost of getting a question store. The first benchmark
+ * is what every request did when the endpoint built its own store, the second 
+ * is the shared store loaded at startup. Run with <code>-prof gc</code> and
+ * compare <code>gc.alloc.rate.norm</code> to see the bytes allocated per request.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionStoreBenchmark {
+    
+    private TriviaQuestionAccessible sharedStore;
+    
+    @Setup
+    public void setup() {
+        sharedStore = new TriviaQuestionArrayAccess();
+    }
+    
+    @Benchmark
+    public TriviaQuestion storePerRequest(Blackhole blackhole) {
+        TriviaQuestionAccessible store = new TriviaQuestionArrayAccess();
+        blackhole.consume(new TriviaQuestionEndpoint(store));
+        return store.getQuestionById(5);
+    }
+    
+    @Benchmark
+    public TriviaQuestion sharedStore(Blackhole blackhole) {
+        blackhole.consume(new TriviaQuestionEndpoint(sharedStore));
+        return sharedStore.getQuestionById(5);
+    }
+}
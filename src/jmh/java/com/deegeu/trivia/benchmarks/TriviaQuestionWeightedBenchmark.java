@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.benchmarks;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import com.deegeu.trivia.model.TriviaQuestionWeightedAccess;
+import com.deegeu.trivia.model.TriviaQuestionWeighting;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares drawing random questions uniformly with drawing them by weight 
+ * from alias tables, one at a time and 20 distinct questions at once.
+ * 
+ * @author DJ Spiess
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TriviaQuestionWeightedBenchmark {
+    
+    private static final int QUIZ_SIZE = 20;
+    
+    @Param({"1000000"})
+    private int size;
+    
+    private TriviaQuestionArrayAccess uniform;
+    private TriviaQuestionWeightedAccess weighted;
+    
+    @Setup
+    public void setup() {
+        uniform = new TriviaQuestionArrayAccess(SyntheticQuestionBank.create(size));
+        weighted = new TriviaQuestionWeightedAccess(uniform, TriviaQuestionWeighting.byDifficulty(1, 2, 4, 2, 1));
+        weighted.getRandomQuestion();
+    }
+    
+    @Benchmark
+    public TriviaQuestion uniformQuestion() {
+        return uniform.getRandomQuestion();
+    }
+    
+    @Benchmark
+    public TriviaQuestion weightedQuestion() {
+        return weighted.getRandomQuestion();
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> uniformQuiz() {
+        return uniform.getRandomQuestions(TriviaQuestionFilter.ALL, QUIZ_SIZE);
+    }
+    
+    @Benchmark
+    public List<TriviaQuestion> weightedQuiz() {
+        return weighted.getRandomQuestions(TriviaQuestionFilter.ALL, QUIZ_SIZE);
+    }
+}
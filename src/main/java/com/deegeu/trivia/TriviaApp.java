@@ -30,11 +30,12 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
-import javax.ws.rs.core.Link;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
-import com.deegeu.utilities.git.RepositoryUtils;
 
 /**
  * JAX-RS application. Root path is /trivia
@@ -43,22 +44,31 @@ import com.deegeu.utilities.git.RepositoryUtils;
 @ApplicationPath("/trivia")
 @Path("")
 public class TriviaApp extends Application {
+    
+    /*
+        Resolved when the application is deployed. Load balancer health checks
+        hit the root constantly, so it shouldn't read git.properties each time.
+    */
+    private static final TriviaDirectory DIRECTORY = TriviaDirectory.load();
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getDirectory(@Context UriInfo uri) {
-        Link selfLink = Link.fromUri(uri.getBaseUri())
-                .rel("self").type(MediaType.APPLICATION_JSON)
-                .build();
-        Link questionsLink = Link.fromUri(uri.getBaseUri() + "questions")
-                .rel("questions").type(MediaType.APPLICATION_JSON)
-                .build();
-
-        return Response.ok()
-                .lastModified(new Date())
-                .header("trivia-version", RepositoryUtils.getGitRepositoryState().getBuildVersion())
+    public Response getDirectory(@Context UriInfo uri, @Context Request request) {
+        TriviaDirectory.Links links = DIRECTORY.forBaseUri(uri.getBaseUri());
+        EntityTag tag = new EntityTag(links.getEntityTag());
+        Date modified = DIRECTORY.getLastModified();
+        
+        Response.ResponseBuilder response = (request != null) 
+                ? request.evaluatePreconditions(modified, tag) : null;
+        if (response == null) {
+            response = Response.ok();
+        }
+        return response.tag(tag)
+                .lastModified(modified)
+                .header("trivia-version", DIRECTORY.getBuildVersion())
+                .header(HttpHeaders.LINK, links.getSelf())
+                .header(HttpHeaders.LINK, links.getQuestions())
                 .location(uri.getRequestUri())
-                .links(selfLink, questionsLink)
                 .build();
     }
 
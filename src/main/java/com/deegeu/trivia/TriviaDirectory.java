@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia;
+
+import com.deegeu.utilities.git.RepositoryUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The directory the root of the service answers with. The build version and
+ * build time are read once from git.properties, and the directory is last 
+ * modified when it was built, so it only changes when a new build is 
+ * deployed. The Link headers and entity tag are rendered once per base URI.
+ * The entity tag is a SHA-1 of the build and base URI, like the tags of the
+ * question bodies, so every node running the same build behind a load 
+ * balancer sends the same validators. This class is thread safe.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaDirectory {
+    private static final int MAX_CACHED_LINKS = 64;
+    private static final String TYPE = "; type=\"application/json\"";
+    private static final String GIT_PROPERTIES = "git.properties";
+    private static final String BUILD_TIME = "git.build.time";
+    /* The dateFormat of git-commit-id-plugin in the pom. */
+    private static final String BUILD_TIME_FORMAT = "dd.MM.yyyy '@' HH:mm:ss z";
+    
+    private static final Logger LOGGER = Logger.getLogger(TriviaDirectory.class.getName());
+    
+    final private String buildVersion;
+    final private Date lastModified;
+    final private ConcurrentMap<URI, Links> links = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructor.
+     * 
+     * @param buildVersion the build version sent in the trivia-version header
+     * @param builtAt when the application was built
+     */
+    TriviaDirectory(String buildVersion, Date builtAt) {
+        this.buildVersion = buildVersion;
+        // HTTP dates have whole seconds.
+        this.lastModified = new Date(builtAt.getTime() / 1000L * 1000L);
+    }
+    
+    /**
+     * Reads the build version and build time of the running application. If
+     * the build time can't be read, the time the application started is 
+     * used instead.
+     * 
+     * @return the directory of this build
+     */
+    static TriviaDirectory load() {
+        Date builtAt = null;
+        try (InputStream in = TriviaDirectory.class.getClassLoader().getResourceAsStream(GIT_PROPERTIES)) {
+            if (in != null) {
+                Properties git = new Properties();
+                git.load(in);
+                builtAt = parseBuildTime(git.getProperty(BUILD_TIME));
+            }
+        } catch (IOException ie) {
+            LOGGER.log(Level.FINE, "Unable to read " + GIT_PROPERTIES, ie);
+        }
+        if (builtAt == null) {
+            LOGGER.warning("No build time in " + GIT_PROPERTIES + ". Using the start time as the directory's Last-Modified.");
+            builtAt = new Date();
+        }
+        return new TriviaDirectory(RepositoryUtils.getGitRepositoryState().getBuildVersion(), builtAt);
+    }
+    
+    /**
+     * Parses a git.build.time value.
+     * 
+     * @param value the value, or null
+     * @return the build time, or null if the value isn't a build time
+     */
+    static Date parseBuildTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new SimpleDateFormat(BUILD_TIME_FORMAT, Locale.ROOT).parse(value.trim());
+        } catch (ParseException pe) {
+            return null;
+        }
+    }
+    
+    /**
+     * @return the build version
+     */
+    String getBuildVersion() {
+        return buildVersion;
+    }
+    
+    /**
+     * @return when the directory last changed, in whole seconds
+     */
+    Date getLastModified() {
+        return new Date(lastModified.getTime());
+    }
+    
+    /**
+     * Returns the links for a base URI, rendering them the first time.
+     * 
+     * @param baseUri the base URI of the application
+     * @return the links
+     */
+    Links forBaseUri(URI baseUri) {
+        Links found = links.get(baseUri);
+        if (found == null) {
+            found = new Links(baseUri, buildVersion);
+            if (links.size() >= MAX_CACHED_LINKS) {
+                // The Host header comes from the client, so don't let it grow without bound.
+                links.clear();
+            }
+            links.put(baseUri, found);
+        }
+        return found;
+    }
+    
+    /**
+     * The Link headers and entity tag of the directory for one base URI. This 
+     * class is immutable.
+     */
+    static final class Links {
+        final private String self;
+        final private String questions;
+        final private String entityTag;
+        
+        private Links(URI baseUri, String buildVersion) {
+            this.self = "<" + baseUri + ">; rel=\"self\"" + TYPE;
+            this.questions = "<" + baseUri + "questions>; rel=\"questions\"" + TYPE;
+            this.entityTag = entityTag(buildVersion + " " + baseUri);
+        }
+        
+        private static String entityTag(String value) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+            } catch (NoSuchAlgorithmException ne) {
+                // Every Java platform has to support SHA-1.
+                throw new IllegalStateException(ne);
+            }
+        }
+        
+        /**
+         * @return the self link header value
+         */
+        String getSelf() {
+            return self;
+        }
+        
+        /**
+         * @return the questions link header value
+         */
+        String getQuestions() {
+            return questions;
+        }
+        
+        /**
+         * @return the entity tag, without quotes
+         */
+        String getEntityTag() {
+            return entityTag;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches a question file and runs a reload when it changes. The file's 
+ * directory is watched, since the writer moves a new file over the old one 
+ * instead of changing it in place. Changes are collected until the directory
+ * has been quiet for a moment, so a file written in several steps is only 
+ * reloaded once. The reload runs on the watcher's own daemon thread.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionFileWatcher implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(TriviaQuestionFileWatcher.class.getName());
+    
+    final private Path file;
+    final private Runnable reload;
+    final private long quietMillis;
+    final private WatchService watchService;
+    final private Thread thread;
+    
+    /**
+     * Constructor. Starts watching.
+     * 
+     * @param file the question file to watch
+     * @param reload what to run when the file changes
+     * @param quietMillis how long the directory has to be quiet before the reload runs
+     * @throws IOException if the directory can't be watched
+     */
+    public TriviaQuestionFileWatcher(Path file, Runnable reload, long quietMillis) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.reload = reload;
+        this.quietMillis = quietMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService, 
+                StandardWatchEventKinds.ENTRY_CREATE, 
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "trivia-question-file-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Stops watching. A reload that is running is allowed to finish.
+     * 
+     * @throws IOException if the watch service can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+    
+    private void watch() {
+        try {
+            while (true) {
+                if (!takeChange()) {
+                    continue;
+                }
+                // Let the writer finish before reading the file.
+                WatchKey key;
+                while ((key = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+                    readEvents(key);
+                }
+                try {
+                    reload.run();
+                } catch (RuntimeException re) {
+                    LOGGER.log(Level.WARNING, "Unable to reload " + file + ". Keeping the current questions.", re);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ex) {
+            // closed
+        }
+    }
+    
+    /*
+        Waits for directory events, and returns true if one was for the file.
+    */
+    private boolean takeChange() throws InterruptedException {
+        return readEvents(watchService.take());
+    }
+    
+    private boolean readEvents(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW 
+                    || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia;
+
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionColumnarAccess;
+import com.deegeu.trivia.model.TriviaQuestionImportReport;
+import com.deegeu.trivia.model.TriviaQuestionImporter;
+import com.deegeu.trivia.model.TriviaQuestionJdbcAccess;
+import com.deegeu.trivia.model.TriviaQuestionMappedAccess;
+import com.deegeu.trivia.model.TriviaQuestionReloadableAccess;
+import com.deegeu.trivia.model.TriviaQuestionTimedAccess;
+import com.deegeu.trivia.model.TriviaQuestionWeightedAccess;
+import com.deegeu.trivia.model.TriviaQuestionWeighting;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Produces;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+/**
+ * Owns the trivia question store for the application. The questions are loaded
+ * once when the application starts, and the same store is handed to every 
+ * request through CDI. The questions can be reloaded without stopping reads, 
+ * and are reloaded when the bank file changes. If the trivia.bank system property names a question
+ * bank file, the bank is memory mapped. A JSON lines or CSV dump named by 
+ * the property is imported into memory instead. Otherwise the built in sample 
+ * questions are used. If trivia.datasource names a JDBC data source, the
+ * questions are read from its database instead, and reloading reads the ids 
+ * again. The database is checked for changes every 
+ * trivia.datasource.refreshSeconds seconds, and reloaded when it changed. Random questions can be weighted with 
+ * trivia.random.weighting. Requests read the store through a timer, which 
+ * feeds the store timings in /trivia/metrics.
+ * 
+ * @author DJ Spiess
+ */
+@ApplicationScoped
+public class TriviaQuestionStore {
+
+    /** System property with the path of a question bank file to serve. */
+    public static final String BANK_PROPERTY = "trivia.bank";
+    
+    /** System property that turns off reloading the bank when the file changes. */
+    public static final String WATCH_PROPERTY = "trivia.bank.watch";
+    
+    /** 
+     * System property that picks how an imported dump is held in memory. 
+     * "columnar" packs the questions into columns, which takes much less heap
+     * for large dumps. Anything else keeps a question object per question, 
+     * which lets reloads reuse unchanged questions.
+     */
+    public static final String LAYOUT_PROPERTY = "trivia.layout";
+    
+    /** 
+     * System property that weighs random questions. See 
+     * {@link TriviaQuestionWeighting#parse(java.lang.String)} for the names.
+     * Random questions are drawn uniformly if it isn't set.
+     */
+    public static final String WEIGHTING_PROPERTY = "trivia.random.weighting";
+    
+    /** 
+     * System property with the JNDI name of a data source to read the 
+     * questions from. See {@link TriviaQuestionJdbcAccess} for the table.
+     */
+    public static final String DATASOURCE_PROPERTY = "trivia.datasource";
+    
+    /** 
+     * System property with how often, in seconds, the database is checked for
+     * changed questions. Defaults to 60, and 0 turns the checks off.
+     */
+    public static final String REFRESH_PROPERTY = "trivia.datasource.refreshSeconds";
+    
+    private static final String COLUMNAR_LAYOUT = "columnar";
+    private static final long WATCH_QUIET_MILLIS = 500L;
+    private static final long DEFAULT_REFRESH_SECONDS = 60L;
+    
+    private static final Logger LOGGER = Logger.getLogger(TriviaQuestionStore.class.getName());
+    
+    private TriviaQuestionReloadableAccess dataAccess;
+    private TriviaQuestionAccessible timedAccess;
+    private TriviaQuestionFileWatcher watcher;
+    private volatile TriviaQuestionJdbcAccess database;
+    private ScheduledExecutorService refresher;
+    
+    /**
+     * Loads the trivia questions, and starts watching the bank file unless 
+     * trivia.bank.watch is false, or starts checking the database for 
+     * changes. Called once by the container.
+     */
+    @PostConstruct
+    void load() {
+        String dataSourceName = System.getProperty(DATASOURCE_PROPERTY);
+        if (dataSourceName != null) {
+            database = openDatabase(dataSourceName);
+            dataAccess = new TriviaQuestionReloadableAccess(database);
+            startRefresher();
+        } else {
+            dataAccess = new TriviaQuestionReloadableAccess(readQuestions());
+        }
+        timedAccess = new TriviaQuestionTimedAccess(weigh(dataAccess));
+        String bankFile = System.getProperty(BANK_PROPERTY);
+        if (bankFile != null && !"false".equalsIgnoreCase(System.getProperty(WATCH_PROPERTY))) {
+            try {
+                watcher = new TriviaQuestionFileWatcher(Paths.get(bankFile), this::reload, WATCH_QUIET_MILLIS);
+            } catch (IOException ie) {
+                LOGGER.log(Level.WARNING, "Unable to watch " + bankFile + " for changes.", ie);
+            }
+        }
+    }
+    
+    /**
+     * Stops watching the bank file, and closes the database connections. 
+     * Called by the container.
+     */
+    @PreDestroy
+    void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (database != null) {
+            database.close();
+        }
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ie) {
+                LOGGER.log(Level.FINE, "Unable to stop watching the question bank.", ie);
+            }
+        }
+    }
+    
+    /**
+     * Reads the questions again and swaps them in. Requests keep being served
+     * from the old questions until the new ones are ready. A mapped bank is
+     * mapped again, which costs the same however many questions changed, and
+     * columnar questions are rebuilt. A database store reads the ids again
+     * and starts with an empty cache. Other questions are compared with the 
+     * current ones by id and last updated date, and only the added, changed 
+     * and removed questions are applied. A dump is compared while it is 
+     * read, so only its added and changed records are built into questions.
+     * 
+     * @throws IllegalStateException if the questions can't be read, in which case the old questions stay
+     */
+    public void reload() {
+        if (database != null) {
+            try {
+                database = database.reload();
+            } catch (SQLException se) {
+                throw new IllegalStateException("Unable to read the question ids from the database", se);
+            }
+            dataAccess.replace(database);
+            LOGGER.info("Reloaded " + database.getQuestionListSize() + " questions.");
+            return;
+        }
+        String bankFile = System.getProperty(BANK_PROPERTY);
+        if (bankFile != null && !bankFile.endsWith(".bank") 
+                && !COLUMNAR_LAYOUT.equalsIgnoreCase(System.getProperty(LAYOUT_PROPERTY))) {
+            List<TriviaQuestion> questions;
+            try {
+                questions = importQuestions(Paths.get(bankFile), dataAccess.getSnapshot());
+            } catch (IOException ie) {
+                throw new IllegalStateException("Unable to load question bank " + bankFile, ie);
+            }
+            TriviaQuestionReloadableAccess.Changes changes = dataAccess.applyChanges(questions);
+            LOGGER.info("Reloaded questions: " + changes);
+            return;
+        }
+        TriviaQuestionAccessible questions = readQuestions();
+        if (questions instanceof TriviaQuestionMappedAccess || questions instanceof TriviaQuestionColumnarAccess) {
+            dataAccess.replace(questions);
+            LOGGER.info("Reloaded " + questions.getQuestionListSize() + " questions.");
+        } else {
+            TriviaQuestionReloadableAccess.Changes changes = dataAccess.applyChanges(questions);
+            LOGGER.info("Reloaded questions: " + changes);
+        }
+    }
+    
+    private void startRefresher() {
+        long seconds = Long.getLong(REFRESH_PROPERTY, DEFAULT_REFRESH_SECONDS);
+        if (seconds <= 0) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "trivia-question-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, seconds, seconds, TimeUnit.SECONDS);
+    }
+    
+    /*
+        Runs on the refresher thread. Reloading throws the cache away, so the
+        database is only reloaded when its rows changed.
+    */
+    private void refresh() {
+        try {
+            if (database.isChanged()) {
+                reload();
+            }
+        } catch (SQLException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to refresh the questions. Keeping the current questions.", ex);
+        }
+    }
+    
+    private static TriviaQuestionAccessible weigh(TriviaQuestionAccessible questions) {
+        String weighting = System.getProperty(WEIGHTING_PROPERTY);
+        if (weighting == null) {
+            return questions;
+        }
+        try {
+            return new TriviaQuestionWeightedAccess(questions, TriviaQuestionWeighting.parse(weighting));
+        } catch (IllegalArgumentException ie) {
+            LOGGER.log(Level.WARNING, "Drawing random questions uniformly.", ie);
+            return questions;
+        }
+    }
+    
+    private static TriviaQuestionJdbcAccess openDatabase(String dataSourceName) {
+        try {
+            DataSource dataSource = (DataSource) new InitialContext().lookup(dataSourceName);
+            return new TriviaQuestionJdbcAccess(dataSource);
+        } catch (NamingException | SQLException ex) {
+            throw new IllegalStateException("Unable to read questions from " + dataSourceName, ex);
+        }
+    }
+    
+    private static TriviaQuestionAccessible readQuestions() {
+        String bankFile = System.getProperty(BANK_PROPERTY);
+        if (bankFile == null) {
+            return new TriviaQuestionArrayAccess();
+        }
+        try {
+            Path path = Paths.get(bankFile);
+            return bankFile.endsWith(".bank") 
+                    ? new TriviaQuestionMappedAccess(path) : importQuestions(path);
+        } catch (IOException ie) {
+            throw new IllegalStateException("Unable to load question bank " + bankFile, ie);
+        }
+    }
+    
+    private static TriviaQuestionAccessible importQuestions(Path dump) throws IOException {
+        if (COLUMNAR_LAYOUT.equalsIgnoreCase(System.getProperty(LAYOUT_PROPERTY))) {
+            TriviaQuestionColumnarAccess.Builder builder = new TriviaQuestionColumnarAccess.Builder();
+            logReport(dump, new TriviaQuestionImporter().importQuestions(dump, builder::add));
+            return builder.build();
+        }
+        return new TriviaQuestionArrayAccess(importQuestions(dump, null));
+    }
+    
+    /*
+        Imports a dump into a list. Records that match a current question by
+        id and last updated date come back as the current question.
+    */
+    private static List<TriviaQuestion> importQuestions(Path dump, TriviaQuestionAccessible current) 
+            throws IOException {
+        List<TriviaQuestion> list = new ArrayList<>();
+        logReport(dump, new TriviaQuestionImporter().importQuestions(dump, current, list::add));
+        return list;
+    }
+    
+    private static void logReport(Path dump, TriviaQuestionImportReport report) {
+        LOGGER.info("Imported " + dump + ": " + report);
+        for (TriviaQuestionImportReport.Rejection rejection : report.getRejections()) {
+            LOGGER.warning(rejection.toString());
+        }
+    }
+    
+    /**
+     * Observing the application scope start forces the container to create 
+     * this bean at deployment, so the first request doesn't pay for the load.
+     * 
+     * @param init the application scope initialization event
+     */
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        // the questions are loaded in load()
+    }
+    
+    /**
+     * Returns the shared trivia question store.
+     * 
+     * @return the question store loaded at startup, timed
+     */
+    @Produces
+    public TriviaQuestionAccessible getDataAccess() {
+        return timedAccess;
+    }
+}
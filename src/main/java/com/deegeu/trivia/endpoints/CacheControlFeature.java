@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Adds the Cache-Control header to responses from resource methods marked with
+ * {@link CacheControlPolicy}. The header value is rendered once per method when
+ * the application starts.
+ * 
+ * @author DJ Spiess
+ */
+@Provider
+public class CacheControlFeature implements DynamicFeature {
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        CacheControlPolicy policy = resourceInfo.getResourceMethod().getAnnotation(CacheControlPolicy.class);
+        if (policy != null) {
+            context.register(new CacheControlFilter(toHeaderValue(policy)));
+        }
+    }
+    
+    /**
+     * Renders a policy as a Cache-Control header value.
+     * 
+     * @param policy the cache policy
+     * @return the header value
+     */
+    static String toHeaderValue(CacheControlPolicy policy) {
+        List<String> directives = new ArrayList<>();
+        if (policy.isPrivate()) {
+            directives.add("private");
+        }
+        if (policy.noCache()) {
+            directives.add("no-cache");
+        }
+        if (policy.noStore()) {
+            directives.add("no-store");
+        }
+        if (policy.mustRevalidate()) {
+            directives.add("must-revalidate");
+        }
+        if (policy.maxAge() >= 0) {
+            directives.add("max-age=" + policy.maxAge());
+        }
+        return String.join(", ", directives);
+    }
+    
+    /*
+        Sets the rendered header on successful and not modified responses.
+    */
+    private static final class CacheControlFilter implements ContainerResponseFilter {
+        final private String headerValue;
+        
+        CacheControlFilter(String headerValue) {
+            this.headerValue = headerValue;
+        }
+        
+        @Override
+        public void filter(ContainerRequestContext requestContext, 
+                ContainerResponseContext responseContext) throws IOException {
+            int status = responseContext.getStatus();
+            if ((status == 200 || status == 304) 
+                    && !responseContext.getHeaders().containsKey(HttpHeaders.CACHE_CONTROL)) {
+                responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, headerValue);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+/**
+ * Serves the latency, throughput and cache metrics of the trivia service in 
+ * the Prometheus text format. The root path is /trivia/metrics.
+ * 
+ * @author DJ Spiess
+ */
+@Path("/metrics")
+public class MetricsEndpoint {
+    
+    /**
+     * Returns every metric. Request latencies are p50, p99 and p999 over 
+     * about the last minute, in seconds.
+     * 
+     * @return the metrics in the Prometheus text format
+     */
+    @GET
+    @Produces(TriviaMetrics.CONTENT_TYPE)
+    @CacheControlPolicy(noStore = true)
+    public Response getMetrics() {
+        return Response.ok(TriviaMetrics.toPrometheus(), TriviaMetrics.CONTENT_TYPE).build();
+    }
+}
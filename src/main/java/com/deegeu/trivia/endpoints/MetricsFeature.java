@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.metrics.RouteMetrics;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import java.io.IOException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Times every resource method and counts its responses by status class. The 
+ * route metrics are looked up once per method when the application starts, 
+ * so a request only reads the clock twice and updates a few counters. 
+ * Suspended requests are timed until their response is sent.
+ * 
+ * @author DJ Spiess
+ */
+@Provider
+public class MetricsFeature implements DynamicFeature {
+    /*
+        The lowest priority runs first on the way in and last on the way out,
+        so the other filters are part of the time.
+    */
+    private static final int PRIORITY = 1;
+    private static final String START_PROPERTY = MetricsFeature.class.getName() + ".start";
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        context.register(new MetricsFilter(TriviaMetrics.route(routeName(resourceInfo))), PRIORITY);
+    }
+    
+    /**
+     * Names the route of a resource method.
+     * 
+     * @param resourceInfo the resource method
+     * @return the resource class and method name, such as TriviaQuestionEndpoint.getQuestion
+     */
+    static String routeName(ResourceInfo resourceInfo) {
+        return resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+    }
+    
+    /*
+        Notes the time a request arrives, and records it with the status when 
+        the response goes out.
+    */
+    private static final class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+        final private RouteMetrics metrics;
+        
+        MetricsFilter(RouteMetrics metrics) {
+            this.metrics = metrics;
+        }
+        
+        @Override
+        public void filter(ContainerRequestContext requestContext) throws IOException {
+            requestContext.setProperty(START_PROPERTY, System.nanoTime());
+        }
+        
+        @Override
+        public void filter(ContainerRequestContext requestContext, 
+                ContainerResponseContext responseContext) throws IOException {
+            Object start = requestContext.getProperty(START_PROPERTY);
+            if (start instanceof Long) {
+                metrics.record(responseContext.getStatus(), (Long) start);
+            }
+        }
+    }
+}
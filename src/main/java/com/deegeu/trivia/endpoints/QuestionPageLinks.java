@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.metrics.CacheCounter;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionCursor;
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+/**
+ * Pre-rendered Link headers for the question list. The links that don't depend
+ * on the offset are rendered once per base URI, page size and question version.
+ * Links for pages of other than the default size carry the limit. A page 
+ * request only formats its self, next and prev links, which is plain string 
+ * concatenation instead of going through the UriBuilder. Pages read with a 
+ * cursor link to the next page by cursor instead of by offset. Links for a 
+ * filtered list carry the filter, and the random link draws from it.
+ * 
+ * @author DJ Spiess
+ */
+final class QuestionPageLinks {
+    private static final int MAX_CACHED_LINKS = 64;
+    private static final String TYPE = "; type=\"application/json\"";
+    private static final ConcurrentMap<String, QuestionPageLinks> CACHE = new ConcurrentHashMap<>();
+    private static final CacheCounter COUNTER = TriviaMetrics.cache("page_links");
+    
+    final private long version;
+    final private long datasetSize;
+    final private int pageSize;
+    final private String limitParameter;
+    final private String offsetLinkPrefix;
+    final private String cursorLinkPrefix;
+    final private String firstCursorLink;
+    final private String firstLink;
+    final private String lastLink;
+    final private String countLink;
+    final private String randomLink;
+    
+    private QuestionPageLinks(URI baseUri, long version, long datasetSize, int pageSize, String filterParameters) {
+        this.version = version;
+        this.datasetSize = datasetSize;
+        this.pageSize = pageSize;
+        this.limitParameter = ((pageSize == TriviaQuestionAccessible.DEFAULT_PAGE_SIZE) ? "" : "&limit=" + pageSize)
+                + filterParameters;
+        this.offsetLinkPrefix = "<" + baseUri + "questions?offset=";
+        this.cursorLinkPrefix = "<" + baseUri + "questions?cursor=";
+        this.firstCursorLink = cursorLink("", "first");
+        this.firstLink = offsetLink(0, "first");
+        this.lastLink = offsetLink(pageSize * (datasetSize / pageSize), "last");
+        this.countLink = "<" + baseUri + "questions/count>; rel=\"count\"" + TYPE;
+        this.randomLink = "<" + baseUri + "questions/random" 
+                + (filterParameters.isEmpty() ? "" : "?" + filterParameters.substring(1)) 
+                + ">; rel=\"random\"" + TYPE;
+    }
+    
+    /**
+     * Returns the links for a base URI and page size, rendering them if they 
+     * haven't been seen or the questions have changed since.
+     * 
+     * @param baseUri the application base URI
+     * @param version the version of the questions
+     * @param datasetSize the number of questions
+     * @param pageSize the number of questions on a page
+     * @return the links for the base URI
+     */
+    static QuestionPageLinks forBaseUri(URI baseUri, long version, long datasetSize, int pageSize) {
+        return forBaseUri(baseUri, version, datasetSize, pageSize, TriviaQuestionFilter.ALL);
+    }
+    
+    /**
+     * Returns the links for a filtered list. See 
+     * {@link #forBaseUri(java.net.URI, long, long, int)}.
+     * 
+     * @param baseUri the application base URI
+     * @param version the version of the questions
+     * @param datasetSize the number of questions that match the filter
+     * @param pageSize the number of questions on a page
+     * @param filter the filter
+     * @return the links for the base URI and filter
+     */
+    static QuestionPageLinks forBaseUri(URI baseUri, long version, long datasetSize, int pageSize, 
+            TriviaQuestionFilter filter) {
+        String filterParameters = toParameters(filter);
+        String key = pageSize + filterParameters + " " + baseUri;
+        QuestionPageLinks links = CACHE.get(key);
+        if (links == null || links.version != version || links.datasetSize != datasetSize) {
+            COUNTER.miss();
+            links = new QuestionPageLinks(baseUri, version, datasetSize, pageSize, filterParameters);
+            if (CACHE.size() >= MAX_CACHED_LINKS) {
+                // The Host header, limit and filter come from the client, so don't let it grow without bound.
+                CACHE.clear();
+            }
+            CACHE.put(key, links);
+        } else {
+            COUNTER.hit();
+        }
+        return links;
+    }
+    
+    /**
+     * Adds the self, next, prev, first, last, count and random links for the
+     * page at the offset.
+     * 
+     * @param response the response to add the links to
+     * @param offset the offset the page was requested with
+     * @return the response
+     */
+    Response.ResponseBuilder addLinks(Response.ResponseBuilder response, long offset) {
+        long nextOffset = (offset + pageSize < datasetSize) 
+                ? offset + pageSize : pageSize * (datasetSize / pageSize);
+        long prevOffset = (offset - pageSize > 0) ? offset - pageSize : 0;
+        return response.header(HttpHeaders.LINK, offsetLink(offset, "self"))
+                       .header(HttpHeaders.LINK, offsetLink(nextOffset, "next"))
+                       .header(HttpHeaders.LINK, offsetLink(prevOffset, "prev"))
+                       .header(HttpHeaders.LINK, firstLink)
+                       .header(HttpHeaders.LINK, lastLink)
+                       .header(HttpHeaders.LINK, countLink)
+                       .header(HttpHeaders.LINK, randomLink);
+    }
+    
+    /**
+     * Adds the self, next, first, count and random links for a page read with
+     * a cursor. There is no next link on the last page.
+     * 
+     * @param response the response to add the links to
+     * @param cursor the cursor token the page was requested with, empty for the first page
+     * @param next the cursor of the next page, or null on the last page
+     * @return the response
+     */
+    Response.ResponseBuilder addCursorLinks(Response.ResponseBuilder response, String cursor, 
+            TriviaQuestionCursor next) {
+        response.header(HttpHeaders.LINK, cursorLink(cursor, "self"));
+        if (next != null) {
+            response.header(HttpHeaders.LINK, cursorLink(next.toToken(), "next"));
+        }
+        return response.header(HttpHeaders.LINK, firstCursorLink)
+                       .header(HttpHeaders.LINK, countLink)
+                       .header(HttpHeaders.LINK, randomLink);
+    }
+    
+    /**
+     * Renders a link to the page after a cursor.
+     * 
+     * @param cursor the cursor token, empty for the first page
+     * @param rel the link relation
+     * @return the Link header value
+     */
+    String cursorLink(String cursor, String rel) {
+        return cursorLinkPrefix + cursor + limitParameter + ">; rel=\"" + rel + "\"" + TYPE;
+    }
+    
+    /*
+        Renders a filter as query parameters, each starting with an ampersand.
+    */
+    private static String toParameters(TriviaQuestionFilter filter) {
+        if (filter.isAll()) {
+            return "";
+        }
+        StringBuilder parameters = new StringBuilder();
+        if (filter.getCategory() != null) {
+            try {
+                parameters.append("&category=").append(URLEncoder.encode(filter.getCategory(), "UTF-8"));
+            } catch (UnsupportedEncodingException ue) {
+                throw new IllegalStateException("UTF-8 is always supported.", ue);
+            }
+        }
+        if (filter.getDifficulty() != TriviaQuestion.UNRATED) {
+            parameters.append("&difficulty=").append(filter.getDifficulty());
+        }
+        return parameters.toString();
+    }
+    
+    /**
+     * Renders a link to the page at the offset.
+     * 
+     * @param offset the page offset
+     * @param rel the link relation
+     * @return the Link header value
+     */
+    String offsetLink(long offset, String rel) {
+        return offsetLinkPrefix + offset + limitParameter + ">; rel=\"" + rel + "\"" + TYPE;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * An encoded response body. The JSON bytes are kept, and the gzip bytes are 
+ * made the first time a client asks for them. The entity tag is a hash of the
+ * JSON, so it is the same on every server holding the same questions. This 
+ * class is thread safe.
+ * 
+ * @author DJ Spiess
+ */
+final class SerializedEntity implements JsonEntity {
+    static final String GZIP_TAG_SUFFIX = "-gzip";
+    
+    final private byte[] json;
+    final private String entityTag;
+    private volatile byte[] gzip;
+    
+    /**
+     * Constructor.
+     * 
+     * @param json the encoded JSON, which must not be changed afterwards
+     */
+    SerializedEntity(byte[] json) {
+        this.json = json;
+        this.entityTag = toEntityTag(newDigest().digest(json));
+    }
+    
+    /**
+     * Returns the strong entity tag value. The gzip bytes are a different 
+     * representation, so they get a different tag.
+     * 
+     * @param compressed true for the tag of the gzip bytes
+     * @return the entity tag value, without quotes
+     */
+    @Override
+    public String getEntityTag(boolean compressed) {
+        return compressed ? entityTag + GZIP_TAG_SUFFIX : entityTag;
+    }
+    
+    /**
+     * @return the JSON bytes, which must not be changed
+     */
+    byte[] getBytes() {
+        return json;
+    }
+    
+    /**
+     * @return the gzip compressed JSON bytes, which must not be changed
+     */
+    byte[] getGzipBytes() {
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            // Racing threads compress the same bytes, so either result is fine.
+            compressed = compress(json);
+            gzip = compressed;
+        }
+        return compressed;
+    }
+    
+    /**
+     * @param compressed true for the gzip bytes
+     * @return a response entity that writes the bytes as they are
+     */
+    @Override
+    public StreamingOutput toStreamingOutput(boolean compressed) {
+        final byte[] bytes = compressed ? getGzipBytes() : json;
+        return output -> output.write(bytes);
+    }
+    
+    /**
+     * @return a new digest for entity tags
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ne) {
+            // Every Java platform has to support SHA-1.
+            throw new IllegalStateException(ne);
+        }
+    }
+    
+    /**
+     * @param digest the digest of a body
+     * @return the entity tag value for the digest
+     */
+    static String toEntityTag(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+    
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(bytes);
+        } catch (IOException ie) {
+            throw new UncheckedIOException(ie);
+        }
+        return compressed.toByteArray();
+    }
+}
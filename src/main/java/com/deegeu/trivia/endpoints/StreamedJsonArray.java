@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * A JSON array of questions that is written one question at a time, for lists
+ * too big to hold as a single buffer. Each question's JSON comes from the 
+ * {@link TriviaQuestionJsonCache}. The entity tag is the same hash 
+ * {@link SerializedEntity} would give the whole array, worked out question by
+ * question before the body is written.
+ * 
+ * @author DJ Spiess
+ */
+final class StreamedJsonArray implements JsonEntity {
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    
+    final private TriviaQuestionJsonCache cache;
+    final private List<TriviaQuestion> questions;
+    final private String entityTag;
+    
+    /**
+     * Constructor. Reads the list once to make the entity tag.
+     * 
+     * @param cache the cache for the store version the questions came from
+     * @param questions the questions, which must not change afterwards
+     */
+    StreamedJsonArray(TriviaQuestionJsonCache cache, List<TriviaQuestion> questions) {
+        this.cache = cache;
+        this.questions = questions;
+        
+        MessageDigest digest = SerializedEntity.newDigest();
+        digest.update((byte) '[');
+        for (int i = 0; i < questions.size(); i++) {
+            if (i > 0) {
+                digest.update((byte) ',');
+            }
+            digest.update(cache.getQuestion(questions.get(i)).getBytes());
+        }
+        digest.update((byte) ']');
+        this.entityTag = SerializedEntity.toEntityTag(digest.digest());
+    }
+    
+    @Override
+    public String getEntityTag(boolean compressed) {
+        return compressed ? entityTag + SerializedEntity.GZIP_TAG_SUFFIX : entityTag;
+    }
+    
+    @Override
+    public StreamingOutput toStreamingOutput(boolean compressed) {
+        return output -> {
+            if (compressed) {
+                GZIPOutputStream gzip = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+                writeArray(gzip);
+                // Finish, don't close. The container owns the output stream.
+                gzip.finish();
+            } else {
+                writeArray(output);
+            }
+        };
+    }
+    
+    private void writeArray(OutputStream output) throws IOException {
+        output.write('[');
+        for (int i = 0; i < questions.size(); i++) {
+            if (i > 0) {
+                output.write(',');
+            }
+            output.write(cache.getQuestion(questions.get(i)).getBytes());
+        }
+        output.write(']');
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaAnswer;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuiz;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Grades submitted answers against the correct answer codes of a question 
+ * store. A batch is plain text of <code>id=answer</code> pairs separated by 
+ * commas or white space, like <code>12=B,7=C</code>. The body is read once to
+ * check and count the pairs, then again to grade them into an output buffer 
+ * sized from the count, so grading doesn't allocate for each answer. 
+ * 
+ * <p>The answers to a {@link TriviaQuiz} are just the letters, in quiz order,
+ * like <code>B,C,A</code>.</p>
+ * 
+ * <p>The result of a batch is JSON with the number graded, the number 
+ * correct, and a result for each answer in order: true, false, or null when 
+ * there is no question with the id.</p>
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaAnswerGrader {
+    
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_RESULT_LENGTH = 6;
+    
+    final private TriviaQuestionAccessible questions;
+    final private byte[] body;
+    private byte[] results;
+    private int length;
+    private int graded;
+    private int correct;
+    
+    private TriviaAnswerGrader(TriviaQuestionAccessible questions, byte[] body) {
+        this.questions = questions;
+        this.body = body;
+    }
+    
+    /**
+     * Grades a batch of answers.
+     * 
+     * @param questions the store snapshot to grade against
+     * @param body the <code>id=answer</code> pairs
+     * @return the results as UTF-8 JSON
+     * @throws IllegalArgumentException if a pair can't be parsed
+     */
+    static byte[] gradeAll(TriviaQuestionAccessible questions, byte[] body) {
+        TriviaAnswerGrader grader = new TriviaAnswerGrader(questions, body);
+        int count = grader.read(false);
+        grader.results = new byte[count * MAX_RESULT_LENGTH];
+        grader.read(true);
+        return grader.toJson();
+    }
+    
+    /**
+     * Grades the answers to a quiz. A quiz can be answered in part, but not 
+     * with more answers than it has questions.
+     * 
+     * @param questions the store snapshot to grade against
+     * @param quiz the quiz
+     * @param body the answer letters in quiz order
+     * @return the results as UTF-8 JSON
+     * @throws IllegalArgumentException if an answer can't be parsed, or there are too many
+     */
+    static byte[] gradeQuiz(TriviaQuestionAccessible questions, TriviaQuiz quiz, byte[] body) {
+        TriviaAnswerGrader grader = new TriviaAnswerGrader(questions, body);
+        int count = grader.readLetters(null);
+        if (count > quiz.size()) {
+            throw new IllegalArgumentException("The quiz has " + quiz.size() + " questions, but got " 
+                    + count + " answers.");
+        }
+        grader.results = new byte[count * MAX_RESULT_LENGTH];
+        grader.readLetters(quiz);
+        return grader.toJson();
+    }
+    
+    /**
+     * Grades the answer to one question. 
+     * 
+     * @param questions the store snapshot to grade against
+     * @param id the identifier of the question
+     * @param body the answer letter, with optional white space around it
+     * @return the result as UTF-8 JSON, or null if there is no question with the id
+     * @throws IllegalArgumentException if the body isn't one answer letter
+     */
+    static byte[] grade(TriviaQuestionAccessible questions, long id, byte[] body) {
+        int start = 0;
+        int end = body.length;
+        while (start < end && isWhitespace(body[start])) {
+            start++;
+        }
+        while (end > start && isWhitespace(body[end - 1])) {
+            end--;
+        }
+        TriviaAnswer answer = (end - start == 1) ? TriviaAnswer.forLetter(body[start]) : null;
+        if (answer == null) {
+            throw new IllegalArgumentException("Answer must be 'A', 'B', 'C' or 'D'.");
+        }
+        TriviaAnswer correctAnswer = questions.getCorrectAnswer(id);
+        if (correctAnswer == null) {
+            return null;
+        }
+        String json = "{\"id\":" + id 
+                + ",\"answer\":\"" + answer.name() 
+                + "\",\"correct\":" + (answer == correctAnswer)
+                + ",\"correctAnswer\":\"" + correctAnswer.name() + "\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /*
+        Walks the pairs in the body. Only checks and counts them unless 
+        grading. 
+    */
+    private int read(boolean grading) {
+        int count = 0;
+        int i = skipSeparators(0);
+        while (i < body.length) {
+            int start = i;
+            long id = 0;
+            while (i < body.length && body[i] >= '0' && body[i] <= '9') {
+                int digit = body[i++] - '0';
+                if (id > (Long.MAX_VALUE - digit) / 10) {
+                    throw new IllegalArgumentException("Question id is too large at byte " + start + ".");
+                }
+                id = id * 10 + digit;
+            }
+            if (i == start || i + 1 >= body.length || body[i] != '=') {
+                throw new IllegalArgumentException("Expected id=answer at byte " + start + ".");
+            }
+            TriviaAnswer answer = TriviaAnswer.forLetter(body[i + 1]);
+            i += 2;
+            if (answer == null || (i < body.length && !isSeparator(body[i]))) {
+                throw new IllegalArgumentException("Answer must be 'A', 'B', 'C' or 'D' at byte " + start + ".");
+            }
+            if (grading) {
+                addResult(questions.getCorrectAnswer(id), answer);
+            }
+            count++;
+            i = skipSeparators(i);
+        }
+        return count;
+    }
+    
+    /*
+        Walks the answer letters in the body. Only checks and counts them 
+        unless there is a quiz to grade them against.
+    */
+    private int readLetters(TriviaQuiz quiz) {
+        int count = 0;
+        int i = skipSeparators(0);
+        while (i < body.length) {
+            TriviaAnswer answer = TriviaAnswer.forLetter(body[i]);
+            if (answer == null || (i + 1 < body.length && !isSeparator(body[i + 1]))) {
+                throw new IllegalArgumentException("Answer must be 'A', 'B', 'C' or 'D' at byte " + i + ".");
+            }
+            if (quiz != null) {
+                addResult(questions.getCorrectAnswer(quiz.getQuestionId(count)), answer);
+            }
+            count++;
+            i = skipSeparators(i + 1);
+        }
+        return count;
+    }
+    
+    private void addResult(TriviaAnswer correctAnswer, TriviaAnswer answer) {
+        if (graded > 0) {
+            results[length++] = ',';
+        }
+        byte[] result;
+        if (correctAnswer == null) {
+            result = NULL;
+        } else if (correctAnswer == answer) {
+            result = TRUE;
+            correct++;
+        } else {
+            result = FALSE;
+        }
+        System.arraycopy(result, 0, results, length, result.length);
+        length += result.length;
+        graded++;
+    }
+    
+    private byte[] toJson() {
+        byte[] head = ("{\"graded\":" + graded + ",\"correct\":" + correct + ",\"results\":[")
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] json = new byte[head.length + length + 2];
+        System.arraycopy(head, 0, json, 0, head.length);
+        System.arraycopy(results, 0, json, head.length, length);
+        json[json.length - 2] = ']';
+        json[json.length - 1] = '}';
+        return json;
+    }
+    
+    private int skipSeparators(int i) {
+        while (i < body.length && isSeparator(body[i])) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static boolean isSeparator(byte b) {
+        return b == ',' || isWhitespace(b);
+    }
+    
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -25,54 +25,311 @@ package com.deegeu.trivia.endpoints;
 
 import com.deegeu.trivia.model.TriviaQuestion;
 import com.deegeu.trivia.model.TriviaQuestionAccessible;
-import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionBatch;
+import com.deegeu.trivia.model.TriviaQuestionCursor;
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import com.deegeu.trivia.model.TriviaQuestionPage;
+import com.deegeu.trivia.model.TriviaQuestionSession;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 /**
  * REST endpoint for trivia questions. This supports random trivia questions, a list of 
- * 10 questions, a random question, and a question count.
+ * 10 questions, a random question, a question count, sessions that walk
+ * through the questions in a random order without repeats, and grading of 
+ * submitted answers. A new endpoint is created
+ * for each request, but the question store is loaded once and shared. Each 
+ * request reads from one store snapshot, so a reload in the middle of a 
+ * request can't mix two versions of the questions. Questions
+ * are written from {@link TriviaQuestionJsonCache}, so an unchanged question is 
+ * only serialized once. Every route sends an ETag and Last-Modified, and answers
+ * conditional requests with 304 when the client is up to date. 
+ * 
+ * <p>The routes run on {@link TriviaRequestExecutor}, not on the container's
+ * request threads. When its queue is full or a route takes too long, 503 is
+ * returned with Retry-After. The synchronous methods behind each route are 
+ * public so they can be called directly.</p>
  * 
  * @author DJ Spiess
  */
 @Path("/questions")
+@Dependent
 final public class TriviaQuestionEndpoint {
  
-    final private Date questionsUpdatedDate = new Date();
-    final private TriviaQuestionAccessible dataAccess = new TriviaQuestionArrayAccess();
+    final private TriviaQuestionAccessible dataAccess;
+    final private TriviaRequestExecutor executor;
     private static final int STARTING_OFFSET = 0;
-    private static final int PAGE_SIZE = 4;
+    private static final int DEFAULT_MAX_PAGE_SIZE = 500;
+    
+    /** System property with the most questions a client can ask for on one page. */
+    public static final String MAX_PAGE_SIZE_PROPERTY = "trivia.maxPageSize";
+    private static final int MAX_PAGE_SIZE = Math.max(1, 
+            Integer.getInteger(MAX_PAGE_SIZE_PROPERTY, DEFAULT_MAX_PAGE_SIZE));
+    private static final Pattern NO_QUALITY = Pattern.compile("q=0(\\.0*)?");
+    
+    /**
+     * Constructor. The routes can only be called directly, since there is no
+     * executor for the asynchronous handlers.
+     * 
+     * @param dataAccess the shared trivia question store
+     */
+    public TriviaQuestionEndpoint(TriviaQuestionAccessible dataAccess) {
+        this(dataAccess, null);
+    }
+    
+    /**
+     * Constructor. 
+     * 
+     * @param dataAccess the shared trivia question store
+     * @param executor the shared executor that runs the routes
+     */
+    @Inject
+    public TriviaQuestionEndpoint(TriviaQuestionAccessible dataAccess, TriviaRequestExecutor executor) {
+        this.dataAccess = dataAccess;
+        this.executor = executor;
+    }
+    
+    /**
+     * Handles GET /questions. See 
+     * {@link #getQuestions(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, long, java.lang.String, java.lang.String, int, java.lang.String, int)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     * @param offset the starting point to get questions in list
+     * @param ids optional comma separated list of question ids
+     * @param cursor optional cursor token from a previous page, empty for the first page
+     * @param limit the most questions to return
+     * @param category optional category to list
+     * @param difficulty optional difficulty to list, from 1 to 5
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON) 
+    @CacheControlPolicy(maxAge = 60)
+    public void getQuestions(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers,
+            @QueryParam("offset") @DefaultValue("0") long offset,
+            @QueryParam("ids") String ids,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("limit") @DefaultValue("10") int limit,
+            @QueryParam("category") String category,
+            @QueryParam("difficulty") @DefaultValue("0") int difficulty) {
+        resume(response, () -> getQuestions(uri, request, headers, offset, ids, cursor, limit, category, difficulty));
+    }
+    
+    /**
+     * Handles GET /questions/count. See 
+     * {@link #getQuestionCount(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     */
+    @GET
+    @Path("count")
+    @Produces(MediaType.APPLICATION_JSON) 
+    @CacheControlPolicy(maxAge = 60)
+    public void getQuestionCount(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers) {
+        resume(response, () -> getQuestionCount(uri, request, headers));
+    }
+    
+    /**
+     * Handles GET /questions/search. See 
+     * {@link #searchQuestions(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String, int)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     * @param query the words to look for
+     * @param limit the most questions to return
+     */
+    @GET
+    @Path("search")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CacheControlPolicy(maxAge = 60)
+    public void searchQuestions(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers,
+            @QueryParam("q") String query,
+            @QueryParam("limit") @DefaultValue("10") int limit) {
+        resume(response, () -> searchQuestions(uri, request, headers, query, limit));
+    }
+    
+    /**
+     * Handles GET /questions/random. See 
+     * {@link #getRandomQuestions(javax.ws.rs.core.UriInfo, javax.ws.rs.core.HttpHeaders, java.lang.String, int, java.lang.Integer)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param headers
+     * @param category optional category to draw from
+     * @param difficulty optional difficulty to draw from, from 1 to 5
+     * @param count optional number of questions to draw
+     */
+    @GET
+    @Path("random")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CacheControlPolicy(noStore = true)
+    public void getRandomQuestion(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context HttpHeaders headers,
+            @QueryParam("category") String category,
+            @QueryParam("difficulty") @DefaultValue("0") int difficulty,
+            @QueryParam("count") Integer count) {
+        resume(response, () -> getRandomQuestions(uri, headers, category, difficulty, count));
+    }
+    
+    /**
+     * Handles GET /questions/{id}. See 
+     * {@link #getQuestion(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     * @param idString the identifier of the question
+     */
+    @GET
+    @Path("{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CacheControlPolicy(maxAge = 300)
+    public void getQuestion(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers,
+            @PathParam("id") String idString) {
+        resume(response, () -> getQuestion(uri, request, headers, idString));
+    }
+    
+    /**
+     * Handles POST /questions/{id}/answer. See 
+     * {@link #answerQuestion(java.lang.String, byte[])}.
+     * 
+     * @param response the suspended response
+     * @param idString the identifier of the question
+     * @param answer the answer letter, A to D
+     */
+    @POST
+    @Path("{id}/answer")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void answerQuestion(@Suspended AsyncResponse response, 
+            @PathParam("id") String idString, byte[] answer) {
+        resume(response, () -> answerQuestion(idString, answer));
+    }
+    
+    /**
+     * Handles POST /questions/answers. See {@link #gradeAnswers(byte[])}.
+     * 
+     * @param response the suspended response
+     * @param answers the id=answer pairs
+     */
+    @POST
+    @Path("answers")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void gradeAnswers(@Suspended AsyncResponse response, byte[] answers) {
+        resume(response, () -> gradeAnswers(answers));
+    }
+    
+    /**
+     * Handles GET /questions/sessions/{session}. See 
+     * {@link #getSessionQuestion(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     * @param token the session token from the previous next link
+     */
+    @GET
+    @Path("sessions/{session}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CacheControlPolicy(isPrivate = true, maxAge = 300)
+    public void getSessionQuestion(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers,
+            @PathParam("session") String token) {
+        resume(response, () -> getSessionQuestion(uri, request, headers, token));
+    }
     
     /**
      * Returns a list of at most 10 questions. The optional query parameter offset
-     * tells the method where in the list to start. If there are less than 10 
+     * tells the method where in the list to start. The optional query parameter 
+     * limit asks for a different number of questions, up to the server maximum
+     * set with the trivia.maxPageSize system property. If there are fewer 
      * questions in the list from the offset point, only the remaining questions 
      * will be returned. If the offset is negative, the offset will start at 0. If 
      * the offset is greater than the list size, an empty list will be returned. The
      * header contains the list size, the number of questions returned, and the 
-     * total number of questions.
+     * total number of questions, and the limit used. If the ids query parameter is given, the 
+     * questions with those ids are returned instead. See 
+     * {@link #getQuestionsByIds(com.deegeu.trivia.model.TriviaQuestionAccessible, javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String)}.
+     * If the cursor query parameter is given, the page after the cursor is 
+     * returned. See 
+     * {@link #getQuestionsByCursor(com.deegeu.trivia.model.TriviaQuestionAccessible, javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String, int)}.
+     * If a category or difficulty is given, only the matching questions are 
+     * listed, and the offset and counts are within the matching questions. 
+     * See {@link #getQuestionsByFilter(com.deegeu.trivia.model.TriviaQuestionAccessible, javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, long, int, com.deegeu.trivia.model.TriviaQuestionFilter)}.
      * 
      * @param uri
+     * @param request
+     * @param headers
      * @param offset the starting point to get questions in list
-     * @return at most 10 questions starting at the offset as JSON in a HTTP response 
+     * @param ids optional comma separated list of question ids
+     * @param cursor optional cursor token from a previous page, empty for the first page
+     * @param limit the most questions to return
+     * @param category optional category to list, or null
+     * @param difficulty optional difficulty to list from 1 to 5, or 0
+     * @return at most limit questions starting at the offset as JSON in a HTTP response 
      */
-    @GET
-    @Produces(MediaType.APPLICATION_JSON) 
-    public Response getQuestions(@Context UriInfo uri, 
-            @QueryParam("offset") @DefaultValue("0") long offset)  {
+    public Response getQuestions(UriInfo uri, Request request, HttpHeaders headers,
+            long offset, String ids, String cursor, int limit, String category, int difficulty)  {
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        if (ids != null) {
+            return getQuestionsByIds(questions, uri, request, headers, ids);
+        }
+        TriviaQuestionFilter filter;
+        try {
+            filter = new TriviaQuestionFilter(category, difficulty);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        int pageSize = toPageSize(limit);
+        if (cursor != null) {
+            // Cursors walk the whole list, so they can't be combined with a filter.
+            return filter.isAll() 
+                    ? getQuestionsByCursor(questions, uri, request, headers, cursor, pageSize)
+                    : Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (!filter.isAll()) {
+            return getQuestionsByFilter(questions, uri, request, headers, offset, pageSize, filter);
+        }
+        
         // Calculate the effective offset
-        long datasetSize = dataAccess.getQuestionListSize();
+        long datasetSize = questions.getQuestionListSize();
         long start = offset; 
         if (start < STARTING_OFFSET) {
             start = STARTING_OFFSET;
@@ -81,101 +338,491 @@ final public class TriviaQuestionEndpoint {
             start = datasetSize;
         }
         
-        // Setup navigation links
-        Link selfLink = Link.fromUri(uri.getBaseUri() + "questions?offset={offset}")
-                .rel("self").type(MediaType.APPLICATION_JSON)
-                .build(offset);
-        long nextOffset = (offset + PAGE_SIZE < datasetSize) 
-                ? offset + PAGE_SIZE : PAGE_SIZE * (datasetSize / PAGE_SIZE);
-        Link nextLink = Link.fromUri(uri.getBaseUri() + "questions?offset={offset}")
-                .rel("next").type(MediaType.APPLICATION_JSON)
-                .build(nextOffset);
-        long prevOffset = (offset - PAGE_SIZE > STARTING_OFFSET) ? offset - PAGE_SIZE : STARTING_OFFSET;
-        Link prevLink = Link.fromUri(uri.getBaseUri() + "questions?offset={offset}")
-                .rel("prev").type(MediaType.APPLICATION_JSON)
-                .build(prevOffset);
-        Link firstLink = Link.fromUri(uri.getBaseUri() + "questions?offset={offset}")
-                .rel("first").type(MediaType.APPLICATION_JSON)
-                .build(STARTING_OFFSET);
-        Link lastLink = Link.fromUri(uri.getBaseUri() + "questions?offset={offset}")
-                .rel("last").type(MediaType.APPLICATION_JSON)
-                .build(PAGE_SIZE * (datasetSize / PAGE_SIZE));
-        Link countLink = Link.fromUri(uri.getBaseUri() + "questions/count")
-                .rel("count").type(MediaType.APPLICATION_JSON)
-                .build(); 
-        Link rndLink = Link.fromUri(uri.getBaseUri() + "questions/random")
-                .rel("random").type(MediaType.APPLICATION_JSON)
-                .build();
-        
         // Get the list of questions from starting point
-        List<TriviaQuestion> list = dataAccess.getQuestionList(start);
-        return Response.ok(list)
+        List<TriviaQuestion> list = questions.getQuestionList(start, pageSize);
+        JsonEntity page = TriviaQuestionJsonCache.forStore(questions).getPage(start, pageSize, list);
+        Response.ResponseBuilder response = respond(request, headers, page, questions.getLastUpdated())
                        .header("question-count", datasetSize)
                        .header("current-question-list-size", list.size())
                        .header("offset", start)
-                       .links(selfLink, nextLink, prevLink, firstLink, lastLink, 
-                               countLink, rndLink)
-                       .lastModified(questionsUpdatedDate)
-                       .location(uri.getRequestUri())
-                       .build();
+                       .header("limit", pageSize)
+                       .location(uri.getRequestUri());
+        
+        // Setup navigation links
+        QuestionPageLinks links = QuestionPageLinks.forBaseUri(uri.getBaseUri(), 
+                questions.getVersion(), datasetSize, pageSize);
+        return links.addLinks(response, offset).build();
+    }
+        
+    /**
+     * Returns a page of the questions that match a filter. The matches are 
+     * found by intersecting the category and difficulty indexes, so the cost 
+     * doesn't grow with the page offset or the number of questions that don't
+     * match. The question-count header is the number of matching questions.
+     * 
+     * @param questions the store snapshot for this request
+     * @param uri
+     * @param request
+     * @param headers
+     * @param offset the starting point in the matching questions
+     * @param pageSize the most questions to return
+     * @param filter the category and difficulty to match
+     * @return the questions as JSON in a HTTP response
+     */
+    private Response getQuestionsByFilter(TriviaQuestionAccessible questions, UriInfo uri, Request request, 
+            HttpHeaders headers, long offset, int pageSize, TriviaQuestionFilter filter) {
+        long matching = questions.getQuestionListSize(filter);
+        long start = Math.min(Math.max(offset, STARTING_OFFSET), matching);
+        
+        List<TriviaQuestion> list = questions.getQuestionList(filter, start, pageSize);
+        JsonEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestions(list);
+        Response.ResponseBuilder response = respond(request, headers, entity, questions.getLastUpdated())
+                       .header("question-count", matching)
+                       .header("current-question-list-size", list.size())
+                       .header("offset", start)
+                       .header("limit", pageSize)
+                       .location(uri.getRequestUri());
+        
+        QuestionPageLinks links = QuestionPageLinks.forBaseUri(uri.getBaseUri(), 
+                questions.getVersion(), matching, pageSize, filter);
+        return links.addLinks(response, offset).build();
+    }
+    
+    /**
+     * Returns the page of at most limit questions after a cursor. An empty cursor
+     * returns the first page. The next link carries the cursor for the page 
+     * after this one, and is left off the last page. Reading a page costs the 
+     * same at any depth. If the cursor can't be parsed, 400 is returned. If 
+     * the cursor's last question has been removed, 410 is returned and the 
+     * client should start over from the first page.
+     * 
+     * @param questions the store snapshot for this request
+     * @param uri
+     * @param request
+     * @param headers
+     * @param cursor the cursor token from a previous page, or empty
+     * @param pageSize the most questions to return
+     * @return the questions as JSON in a HTTP response
+     */
+    private Response getQuestionsByCursor(TriviaQuestionAccessible questions, UriInfo uri, Request request, HttpHeaders headers, 
+            String cursor, int pageSize) {
+        TriviaQuestionCursor after = null;
+        if (!cursor.isEmpty()) {
+            try {
+                after = TriviaQuestionCursor.parse(cursor);
+            } catch (IllegalArgumentException ie) {
+                return Response.status(Response.Status.BAD_REQUEST).build();
+            }
+        }
+        
+        TriviaQuestionPage page = questions.getQuestionPage(after, pageSize);
+        if (page == null) {
+            return Response.status(Response.Status.GONE).build();
+        }
+        JsonEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestions(page.getQuestions());
+        Response.ResponseBuilder response = respond(request, headers, entity, questions.getLastUpdated())
+                       .header("question-count", questions.getQuestionListSize())
+                       .header("current-question-list-size", page.getQuestions().size())
+                       .header("limit", pageSize)
+                       .location(uri.getRequestUri());
+        
+        QuestionPageLinks links = QuestionPageLinks.forBaseUri(uri.getBaseUri(), 
+                questions.getVersion(), questions.getQuestionListSize(), pageSize);
+        return links.addCursorLinks(response, cursor, page.getNextCursor()).build();
     }
+    
+    /**
+     * Returns the questions for a comma separated list of ids, in the order the 
+     * ids were given. Each question is returned once. The header lists the ids
+     * that have no question and the ids that were repeated. If an id cannot be 
+     * parsed, 400 is returned.
+     * 
+     * @param questions the store snapshot for this request
+     * @param uri
+     * @param request
+     * @param headers
+     * @param ids comma separated list of question ids, like 1,2,3
+     * @return the questions as JSON in a HTTP response
+     */
+    private Response getQuestionsByIds(TriviaQuestionAccessible questions, UriInfo uri, Request request, HttpHeaders headers, String ids) {
+        long[] identifiers;
+        try {
+            identifiers = parseIds(ids);
+        } catch (NumberFormatException ne) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
         
+        TriviaQuestionBatch batch = questions.getQuestionBatch(identifiers);
+        JsonEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestions(batch.getQuestions());
+        Response.ResponseBuilder response = respond(request, headers, entity, questions.getLastUpdated())
+                       .header("current-question-list-size", batch.getQuestions().size())
+                       .location(uri.getRequestUri());
+        if (batch.getMissingIds().length > 0) {
+            response.header("missing-ids", joinIds(batch.getMissingIds()));
+        }
+        if (batch.getDuplicateIds().length > 0) {
+            response.header("duplicate-ids", joinIds(batch.getDuplicateIds()));
+        }
+        return response.build();
+    }
+    
     /**
      * Returns the total number of trivia questions in the database.
      * 
      * @param uri
+     * @param request
+     * @param headers
      * @return the question count as JSON in a HTTP response
      */
-    @GET
-    @Path("count")
-    @Produces(MediaType.APPLICATION_JSON) 
-    public Response getQuestionCount(@Context UriInfo uri) {
-        long numberOfQuestions = dataAccess.getQuestionListSize();
-        return Response.ok(numberOfQuestions)
+    public Response getQuestionCount(UriInfo uri, Request request, HttpHeaders headers) {
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        long numberOfQuestions = questions.getQuestionListSize();
+        SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getCount(numberOfQuestions);
+        return respond(request, headers, entity, questions.getLastUpdated())
                        .header("question-count", numberOfQuestions)
-                       .lastModified(questionsUpdatedDate)
                        .location(uri.getRequestUri())
                        .build();
     }
     
     /**
-     * Returns a single question by id. If the query parameter is "random", a
-     * random question is returned. If the id is not found, 404 is returned. If
-     * the id cannot be parsed, 400 is returned.
+     * Returns a random question. The response is never cached. If there are no
+     * questions, 404 is returned.
+     * 
+     * @param uri
+     * @param headers
+     * @return a random question as JSON in a HTTP response
+     */
+    public Response getRandomQuestion(UriInfo uri, HttpHeaders headers) {
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        TriviaQuestion question = questions.getRandomQuestion();
+        if (question == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestion(question);
+        return respond(null, headers, entity, question.getLastUpdated())
+                       .location(uri.getRequestUri())
+                       .build();
+    }
+    
+    /**
+     * Draws random questions that match an optional category and difficulty.
+     * Without a count, one question is returned the same way as 
+     * {@link #getRandomQuestion(javax.ws.rs.core.UriInfo, javax.ws.rs.core.HttpHeaders)},
+     * and 404 is returned if no question matches. With a count, a JSON array 
+     * of up to count distinct questions is returned in a random order, up to 
+     * the server maximum page size. If the difficulty or count is out of 
+     * range, 400 is returned.
+     * 
+     * @param uri
+     * @param headers
+     * @param category optional category to draw from, or null
+     * @param difficulty optional difficulty to draw from, from 1 to 5, or 0
+     * @param count optional number of questions to draw, or null for one question
+     * @return the random questions as JSON in a HTTP response
+     */
+    public Response getRandomQuestions(UriInfo uri, HttpHeaders headers, String category, int difficulty, 
+            Integer count) {
+        TriviaQuestionFilter filter;
+        try {
+            filter = new TriviaQuestionFilter(category, difficulty);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (count == null && filter.isAll()) {
+            return getRandomQuestion(uri, headers);
+        }
+        if (count != null && count < 1) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        List<TriviaQuestion> drawn = questions.getRandomQuestions(filter, (count == null) ? 1 : toPageSize(count));
+        TriviaQuestionJsonCache cache = TriviaQuestionJsonCache.forStore(questions);
+        if (count == null) {
+            if (drawn.isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            return respond(null, headers, cache.getQuestion(drawn.get(0)), drawn.get(0).getLastUpdated())
+                           .location(uri.getRequestUri())
+                           .build();
+        }
+        return respond(null, headers, cache.getQuestions(drawn), questions.getLastUpdated())
+                       .header("current-question-list-size", drawn.size())
+                       .location(uri.getRequestUri())
+                       .build();
+    }
+    
+    /**
+     * Searches the question, answers and hint of every question for the words
+     * of a query. A JSON array of the best matches is returned, best match 
+     * first, up to the limit or the server maximum page size. If the query has
+     * no words, 400 is returned.
+     * 
+     * @param uri
+     * @param request
+     * @param headers
+     * @param query the words to look for
+     * @param limit the most questions to return
+     * @return the matching questions as JSON in a HTTP response
+     */
+    public Response searchQuestions(UriInfo uri, Request request, HttpHeaders headers, String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        List<TriviaQuestion> found = questions.searchQuestions(query, toPageSize(limit));
+        JsonEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestions(found);
+        return respond(request, headers, entity, questions.getLastUpdated())
+                       .header("current-question-list-size", found.size())
+                       .location(uri.getRequestUri())
+                       .build();
+    }
+    
+    /**
+     * Returns a single question by id. If the id is not found, 404 is 
+     * returned. If the id cannot be parsed, 400 is returned. Random questions
+     * are only served by GET /questions/random, which is never cached.
      * 
      * @param uri
-     * @param idString either an identifier or the word "random"
+     * @param request
+     * @param headers
+     * @param idString the identifier of the question
      * @return the question by id as JSON in a HTTP response
      */
-    @GET
-    @Path("{id}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getQuestion(@Context UriInfo uri, 
-            @PathParam("id") String idString) {
+    public Response getQuestion(UriInfo uri, Request request, HttpHeaders headers, String idString) {
         Response response;
-        if (idString.trim().equalsIgnoreCase("random")) {
-            TriviaQuestion question = dataAccess.getRandomQuestion();
-            response = Response.ok(question)
-                               .lastModified(question.getLastUpdated())
-                               .location(uri.getRequestUri())
-                               .build();
-        } else {
-            try {
-                long identifier = Long.parseLong(idString);
-                if (identifier >= dataAccess.getQuestionListSize()) {
-                    response = Response.status(Response.Status.NOT_FOUND).build();    
-                } else {
-                    TriviaQuestion question = dataAccess.getQuestionById(identifier);
-                    response = Response.ok(question)
-                            .lastModified(question.getLastUpdated())
-                            .location(uri.getRequestUri())
-                            .build();
-                }
-            } catch (NumberFormatException ne) {
-                response = Response.status(Response.Status.BAD_REQUEST).build();
+        try {
+            long identifier = Long.parseLong(idString);
+            TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+            TriviaQuestion question = questions.getQuestionById(identifier);
+            if (question == null) {
+                response = Response.status(Response.Status.NOT_FOUND).build();    
+            } else {
+                SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestion(question);
+                response = respond(request, headers, entity, question.getLastUpdated())
+                        .location(uri.getRequestUri())
+                        .build();
             }
-            
+        } catch (NumberFormatException ne) {
+            response = Response.status(Response.Status.BAD_REQUEST).build();
         }
         return response;
     }
+    
+    /**
+     * Grades an answer to a question. The body is the answer letter as plain 
+     * text. The result says whether the answer is correct and what the 
+     * correct answer is. If the id is not found, 404 is returned. If the id or
+     * the answer cannot be parsed, 400 is returned.
+     * 
+     * @param idString the identifier of the question
+     * @param answer the answer letter, A to D
+     * @return the result as JSON in a HTTP response
+     */
+    public Response answerQuestion(String idString, byte[] answer) {
+        byte[] result;
+        try {
+            long identifier = Long.parseLong(idString);
+            result = TriviaAnswerGrader.grade(dataAccess.getSnapshot(), identifier, answer);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (result == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(result, MediaType.APPLICATION_JSON_TYPE).build();
+    }
+    
+    /**
+     * Grades a batch of answers, like the answers to a whole quiz. The body is
+     * plain text of id=answer pairs separated by commas or white space, like
+     * 12=B,7=C. The result has the number of answers graded, the number 
+     * correct, and true, false or null for each pair in order. Null means there
+     * is no question with the id. If a pair cannot be parsed, 400 is returned.
+     * 
+     * @param answers the id=answer pairs
+     * @return the results as JSON in a HTTP response
+     */
+    public Response gradeAnswers(byte[] answers) {
+        byte[] results;
+        try {
+            results = TriviaAnswerGrader.gradeAll(dataAccess.getSnapshot(), answers);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return Response.ok(results, MediaType.APPLICATION_JSON_TYPE).build();
+    }
+    
+    /**
+     * Starts a session that returns every question once in a random order. The 
+     * location and the next link point to the first question of the session.
+     * The session belongs to the current version of the questions.
+     * 
+     * @param uri
+     * @return 201 with the location of the first session question
+     */
+    @POST
+    @Path("sessions")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response startSession(@Context UriInfo uri) {
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        TriviaQuestionSession session = TriviaQuestionSession.start(questions.getQuestionListSize(), 
+                questions.getVersion());
+        Link nextLink = sessionLink(uri, session, "next");
+        return Response.created(nextLink.getUri())
+                       .header("question-count", session.getSize())
+                       .links(nextLink)
+                       .build();
+    }
+    
+    /**
+     * Returns the question at the current position of a session. The next link
+     * points to the next question in the session, and is left out after the 
+     * last question. If the session has no questions left, 404 is returned. If
+     * the session token cannot be parsed, 400 is returned. If the questions 
+     * were reloaded since the session started, 410 is returned and the client
+     * should start a new session.
+     * 
+     * @param uri
+     * @param request
+     * @param headers
+     * @param token the session token from the previous next link
+     * @return the session question as JSON in a HTTP response
+     */
+    public Response getSessionQuestion(UriInfo uri, Request request, HttpHeaders headers, String token) {
+        TriviaQuestionSession session;
+        try {
+            session = TriviaQuestionSession.parse(token);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        if (session.getVersion() != questions.getVersion()) {
+            return Response.status(Response.Status.GONE).build();
+        }
+        TriviaQuestion question = session.hasNext() 
+                ? questions.getQuestionByIndex(session.getQuestionIndex()) : null;
+        if (question == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        
+        TriviaQuestionSession next = session.advance();
+        SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuestion(question);
+        Response.ResponseBuilder response = respond(request, headers, entity, question.getLastUpdated())
+                       .header("questions-remaining", next.getRemaining())
+                       .location(uri.getRequestUri());
+        if (next.hasNext()) {
+            response.links(sessionLink(uri, next, "next"));
+        }
+        return response.build();
+    }
+    
+    /*
+        Runs a route on the shared executor. See 
+        TriviaRequestExecutor.resume(AsyncResponse, Supplier).
+    */
+    private void resume(AsyncResponse response, Supplier<Response> route) {
+        executor.resume(response, route);
+    }
+    
+    /*
+        Answers with 304 if the client already has the entity. Otherwise starts
+        an OK response that writes the encoded JSON, gzip compressed if the 
+        client accepts it. The request is null for routes that don't support
+        conditional requests.
+    */
+    static Response.ResponseBuilder respond(Request request, HttpHeaders headers, 
+            JsonEntity entity, Date lastModified) {
+        boolean gzip = (headers != null) 
+                && acceptsGzip(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        EntityTag tag = new EntityTag(entity.getEntityTag(gzip));
+        Date modified = toHttpDate(lastModified);
+        
+        Response.ResponseBuilder response = (request != null) 
+                ? request.evaluatePreconditions(modified, tag) : null;
+        if (response == null) {
+            response = Response.ok(entity.toStreamingOutput(gzip), MediaType.APPLICATION_JSON_TYPE);
+            if (gzip) {
+                response.encoding("gzip");
+            }
+        }
+        return response.tag(tag)
+                       .lastModified(modified)
+                       .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    
+    /*
+        Keeps a requested page size between 1 and the server maximum.
+    */
+    static int toPageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+    
+    /*
+        HTTP dates have whole seconds. Dropping the milliseconds keeps 
+        If-Modified-Since comparisons from always seeing a change.
+    */
+    private static Date toHttpDate(Date date) {
+        return new Date(date.getTime() / 1000L * 1000L);
+    }
+    
+    /*
+        True if the Accept-Encoding header lists gzip without q=0.
+    */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].replace(" ", "");
+                    if (NO_QUALITY.matcher(parameter).matches()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Link sessionLink(UriInfo uri, TriviaQuestionSession session, String rel) {
+        return Link.fromUri(uri.getBaseUri() + "questions/sessions/{session}")
+                .rel(rel).type(MediaType.APPLICATION_JSON)
+                .build(session.toToken());
+    }
+    
+    /*
+        Parses a comma separated list of ids. Empty entries are skipped.
+    */
+    private static long[] parseIds(String ids) {
+        long[] identifiers = new long[ids.length() / 2 + 1];
+        int count = 0;
+        int start = 0;
+        while (start <= ids.length()) {
+            int end = ids.indexOf(',', start);
+            if (end < 0) {
+                end = ids.length();
+            }
+            String id = ids.substring(start, end).trim();
+            if (!id.isEmpty()) {
+                identifiers[count++] = Long.parseLong(id);
+            }
+            start = end + 1;
+        }
+        return Arrays.copyOf(identifiers, count);
+    }
+    
+    private static String joinIds(long[] ids) {
+        StringBuilder joined = new StringBuilder();
+        for (long id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.toString();
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes {@link TriviaQuestion} as JSON. The output has the same properties as
+ * the container JSON provider produced for the POJO, with the last updated 
+ * date as milliseconds since the epoch. The category and difficulty are left
+ * out of questions that don't have them, and the correct answer is left out
+ * of quiz questions.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionJson {
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] ARRAY_START = { '[' };
+    private static final byte[] ARRAY_END = { ']' };
+    private static final byte[] QUIZ_END = { ']', '}' };
+    
+    private TriviaQuestionJson() {
+        // static helpers only
+    }
+    
+    /**
+     * Encodes a question as UTF-8 JSON.
+     * 
+     * @param question the question to encode
+     * @return the JSON bytes
+     */
+    static byte[] encode(TriviaQuestion question) {
+        return encode(question, true);
+    }
+    
+    /**
+     * Encodes a question as UTF-8 JSON, with or without its correct answer. 
+     * Quiz questions leave the answer out, since the quiz is graded by the 
+     * service.
+     * 
+     * @param question the question to encode
+     * @param withAnswer true to include the correctAnswer property
+     * @return the JSON bytes
+     */
+    static byte[] encode(TriviaQuestion question, boolean withAnswer) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":").append(question.getId());
+        appendField(json, "question", question.getQuestion());
+        appendField(json, "answerA", question.getAnswerA());
+        appendField(json, "answerB", question.getAnswerB());
+        appendField(json, "answerC", question.getAnswerC());
+        appendField(json, "answerD", question.getAnswerD());
+        if (withAnswer) {
+            appendField(json, "correctAnswer", question.getCorrectAnswer());
+        }
+        appendField(json, "hint", question.getHint());
+        if (question.getCategory() != null) {
+            appendField(json, "category", question.getCategory());
+        }
+        if (question.getDifficulty() != TriviaQuestion.UNRATED) {
+            json.append(",\"difficulty\":").append(question.getDifficulty());
+        }
+        json.append(",\"lastUpdated\":").append(question.getLastUpdated().getTime());
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Joins encoded questions into a JSON array.
+     * 
+     * @param questions the encoded questions
+     * @return the JSON array bytes
+     */
+    static byte[] encodeArray(List<byte[]> questions) {
+        return join(ARRAY_START, questions, ARRAY_END);
+    }
+    
+    /**
+     * Encodes a quiz as an object with its id, its size, and its encoded 
+     * questions in quiz order.
+     * 
+     * @param id the quiz id, which must not need escaping
+     * @param questions the encoded questions
+     * @return the JSON bytes
+     */
+    static byte[] encodeQuiz(String id, List<byte[]> questions) {
+        byte[] head = ("{\"id\":\"" + id + "\",\"size\":" + questions.size() + ",\"questions\":[")
+                .getBytes(StandardCharsets.UTF_8);
+        return join(head, questions, QUIZ_END);
+    }
+    
+    /*
+        Copies the encoded questions between a head and a tail, separated by 
+        commas, into one buffer of the exact length.
+    */
+    private static byte[] join(byte[] head, List<byte[]> questions, byte[] tail) {
+        int length = head.length + tail.length + Math.max(questions.size() - 1, 0);
+        for (byte[] question : questions) {
+            length += question.length;
+        }
+        byte[] json = new byte[length];
+        System.arraycopy(head, 0, json, 0, head.length);
+        int position = head.length;
+        for (int i = 0; i < questions.size(); i++) {
+            if (i > 0) {
+                json[position++] = ',';
+            }
+            byte[] question = questions.get(i);
+            System.arraycopy(question, 0, json, position, question.length);
+            position += question.length;
+        }
+        System.arraycopy(tail, 0, json, position, tail.length);
+        return json;
+    }
+    
+    private static void appendField(StringBuilder json, String name, String value) {
+        json.append(",\"").append(name).append("\":");
+        appendString(json, value);
+    }
+    
+    /*
+        Appends a quoted JSON string, escaping quotes, backslashes and control 
+        characters.
+    */
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        json.append("\\u")
+                            .append(HEX[(c >> 12) & 0xF]).append(HEX[(c >> 8) & 0xF])
+                            .append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
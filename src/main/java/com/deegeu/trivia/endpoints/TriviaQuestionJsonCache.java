@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.metrics.CacheCounter;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuiz;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the encoded JSON for questions and question list pages, so unchanged
+ * questions are only serialized once. The cache belongs to one version of the 
+ * question store. When the store version changes, a new empty cache replaces
+ * it. The number of entries is bounded. Past the bound, bodies are encoded
+ * on every request. Only pages of the default size are kept. Lists longer 
+ * than that are streamed instead of encoded into one buffer.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionJsonCache {
+    private static final int MAX_CACHED_QUESTIONS = 100000;
+    private static final int MAX_CACHED_PAGES = 10000;
+    private static final int MAX_BUFFERED_LIST_SIZE = TriviaQuestionAccessible.DEFAULT_PAGE_SIZE;
+    private static final CacheCounter QUESTION_COUNTER = TriviaMetrics.cache("question_json");
+    private static final CacheCounter PAGE_COUNTER = TriviaMetrics.cache("page_json");
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static volatile TriviaQuestionJsonCache current = new TriviaQuestionJsonCache(-1L);
+    
+    final private long version;
+    final private ConcurrentMap<Long, SerializedEntity> questions = new ConcurrentHashMap<>();
+    final private ConcurrentMap<Long, SerializedEntity> quizQuestions = new ConcurrentHashMap<>();
+    final private ConcurrentMap<Long, SerializedEntity> pages = new ConcurrentHashMap<>();
+    private volatile SerializedEntity count;
+    
+    private TriviaQuestionJsonCache(long version) {
+        this.version = version;
+    }
+    
+    /**
+     * Returns the cache for the current version of the store.
+     * 
+     * @param dataAccess the question store
+     * @return the cache for the store version
+     */
+    static TriviaQuestionJsonCache forStore(TriviaQuestionAccessible dataAccess) {
+        long storeVersion = dataAccess.getVersion();
+        TriviaQuestionJsonCache cache = current;
+        if (cache.version != storeVersion) {
+            cache = new TriviaQuestionJsonCache(storeVersion);
+            if (storeVersion > current.version) {
+                current = cache;
+            }
+            // A request still reading an older snapshot gets a cache of its own,
+            // so it doesn't throw away the cache for the newer version.
+        }
+        return cache;
+    }
+    
+    /**
+     * Returns the encoded JSON for a question.
+     * 
+     * @param question the question
+     * @return the encoded question
+     */
+    SerializedEntity getQuestion(TriviaQuestion question) {
+        SerializedEntity entity = questions.get(question.getId());
+        if (entity == null) {
+            QUESTION_COUNTER.miss();
+            entity = new SerializedEntity(TriviaQuestionJson.encode(question));
+            if (questions.size() < MAX_CACHED_QUESTIONS) {
+                questions.putIfAbsent(question.getId(), entity);
+            }
+        } else {
+            QUESTION_COUNTER.hit();
+        }
+        return entity;
+    }
+    
+    /**
+     * Returns the encoded JSON for a question of a quiz, which leaves out the
+     * correct answer.
+     * 
+     * @param question the question
+     * @return the encoded question
+     */
+    SerializedEntity getQuizQuestion(TriviaQuestion question) {
+        SerializedEntity entity = quizQuestions.get(question.getId());
+        if (entity == null) {
+            QUESTION_COUNTER.miss();
+            entity = new SerializedEntity(TriviaQuestionJson.encode(question, false));
+            if (quizQuestions.size() < MAX_CACHED_QUESTIONS) {
+                quizQuestions.putIfAbsent(question.getId(), entity);
+            }
+        } else {
+            QUESTION_COUNTER.hit();
+        }
+        return entity;
+    }
+    
+    /**
+     * Returns the JSON array for a page of the question list.
+     * 
+     * @param offset the offset of the page
+     * @param limit the page size the page was requested with
+     * @param page the questions on the page
+     * @return the page
+     */
+    JsonEntity getPage(long offset, int limit, List<TriviaQuestion> page) {
+        if (limit != TriviaQuestionAccessible.DEFAULT_PAGE_SIZE) {
+            return getQuestions(page);
+        }
+        SerializedEntity entity = pages.get(offset);
+        if (entity == null) {
+            PAGE_COUNTER.miss();
+            entity = encode(page);
+            if (pages.size() < MAX_CACHED_PAGES) {
+                pages.putIfAbsent(offset, entity);
+            }
+        } else {
+            PAGE_COUNTER.hit();
+        }
+        return entity;
+    }
+    
+    /**
+     * Returns a list of questions as a JSON array, reusing the encoded 
+     * questions. Long lists are streamed.
+     * 
+     * @param list the questions, which must not change afterwards
+     * @return the list
+     */
+    JsonEntity getQuestions(List<TriviaQuestion> list) {
+        return (list.size() > MAX_BUFFERED_LIST_SIZE) ? new StreamedJsonArray(this, list) : encode(list);
+    }
+    
+    /**
+     * Returns a quiz as one JSON object, reusing the encoded quiz questions.
+     * The correct answers are left out. Quizzes are random, so the quiz 
+     * itself isn't kept.
+     * 
+     * @param quiz the quiz
+     * @param list the questions of the quiz, in quiz order, with null for a missing question
+     * @return the quiz
+     */
+    SerializedEntity getQuiz(TriviaQuiz quiz, List<TriviaQuestion> list) {
+        List<byte[]> encoded = new ArrayList<>(list.size());
+        for (TriviaQuestion question : list) {
+            encoded.add((question != null) ? getQuizQuestion(question).getBytes() : NULL);
+        }
+        return new SerializedEntity(TriviaQuestionJson.encodeQuiz(quiz.toId(), encoded));
+    }
+    
+    private SerializedEntity encode(List<TriviaQuestion> list) {
+        List<byte[]> encoded = new ArrayList<>(list.size());
+        for (TriviaQuestion question : list) {
+            encoded.add(getQuestion(question).getBytes());
+        }
+        return new SerializedEntity(TriviaQuestionJson.encodeArray(encoded));
+    }
+    
+    /**
+     * Returns the encoded JSON for the question count.
+     * 
+     * @param numberOfQuestions the number of questions in the store
+     * @return the encoded count
+     */
+    SerializedEntity getCount(long numberOfQuestions) {
+        SerializedEntity entity = count;
+        if (entity == null) {
+            entity = new SerializedEntity(Long.toString(numberOfQuestions).getBytes(StandardCharsets.UTF_8));
+            count = entity;
+        }
+        return entity;
+    }
+}
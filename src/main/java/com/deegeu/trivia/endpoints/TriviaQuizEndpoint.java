@@ -0,0 +1,246 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionAccessible;
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import com.deegeu.trivia.model.TriviaQuiz;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * REST endpoint for whole quizzes, so a game needs one round trip instead of
+ * one per question. A quiz is drawn in one call to the store, which never 
+ * repeats a question, and sent as one encoded JSON body. The quiz id names 
+ * the questions, so answers can be graded against it later. The questions
+ * are sent without their correct answers. The root path is /trivia/quizzes.
+ * 
+ * @author DJ Spiess
+ */
+@Path("/quizzes")
+@Dependent
+final public class TriviaQuizEndpoint {
+    
+    final private TriviaQuestionAccessible dataAccess;
+    final private TriviaRequestExecutor executor;
+    
+    /**
+     * Constructor. The routes can only be called directly, since there is no
+     * executor for the asynchronous handlers.
+     * 
+     * @param dataAccess the shared trivia question store
+     */
+    public TriviaQuizEndpoint(TriviaQuestionAccessible dataAccess) {
+        this(dataAccess, null);
+    }
+    
+    /**
+     * Constructor. 
+     * 
+     * @param dataAccess the shared trivia question store
+     * @param executor the shared executor that runs the routes
+     */
+    @Inject
+    public TriviaQuizEndpoint(TriviaQuestionAccessible dataAccess, TriviaRequestExecutor executor) {
+        this.dataAccess = dataAccess;
+        this.executor = executor;
+    }
+    
+    /**
+     * Handles POST /quizzes. See 
+     * {@link #createQuiz(javax.ws.rs.core.UriInfo, javax.ws.rs.core.HttpHeaders, int, java.lang.String, int)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param headers
+     * @param size the number of questions
+     * @param category optional category to draw from
+     * @param difficulty optional difficulty to draw from, from 1 to 5
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    public void createQuiz(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context HttpHeaders headers,
+            @QueryParam("size") @DefaultValue("10") int size,
+            @QueryParam("category") String category,
+            @QueryParam("difficulty") @DefaultValue("0") int difficulty) {
+        executor.resume(response, () -> createQuiz(uri, headers, size, category, difficulty));
+    }
+    
+    /**
+     * Handles GET /quizzes/{id}. See 
+     * {@link #getQuiz(javax.ws.rs.core.UriInfo, javax.ws.rs.core.Request, javax.ws.rs.core.HttpHeaders, java.lang.String)}.
+     * 
+     * @param response the suspended response
+     * @param uri
+     * @param request
+     * @param headers
+     * @param id the quiz id
+     */
+    @GET
+    @Path("{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @CacheControlPolicy(maxAge = 300)
+    public void getQuiz(@Suspended AsyncResponse response, 
+            @Context UriInfo uri, @Context Request request, @Context HttpHeaders headers,
+            @PathParam("id") String id) {
+        executor.resume(response, () -> getQuiz(uri, request, headers, id));
+    }
+    
+    /**
+     * Handles POST /quizzes/{id}/answers. See 
+     * {@link #gradeQuiz(java.lang.String, byte[])}.
+     * 
+     * @param response the suspended response
+     * @param id the quiz id
+     * @param answers the answer letters in quiz order
+     */
+    @POST
+    @Path("{id}/answers")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void gradeQuiz(@Suspended AsyncResponse response, 
+            @PathParam("id") String id, byte[] answers) {
+        executor.resume(response, () -> gradeQuiz(id, answers));
+    }
+    
+    /**
+     * Draws a quiz of distinct random questions that match an optional 
+     * category and difficulty. The body has the quiz id, the number of 
+     * questions and the questions, and the location is the quiz. If fewer 
+     * questions match than were asked for, the quiz has them all. If none 
+     * match, 404 is returned. If the size is not 1 to 
+     * {@link TriviaQuiz#MAX_SIZE}, or the difficulty is out of range, 400 is
+     * returned.
+     * 
+     * @param uri
+     * @param headers
+     * @param size the number of questions
+     * @param category optional category to draw from, or null
+     * @param difficulty optional difficulty to draw from, from 1 to 5, or 0
+     * @return 201 with the quiz as JSON
+     */
+    public Response createQuiz(UriInfo uri, HttpHeaders headers, int size, String category, int difficulty) {
+        TriviaQuestionFilter filter;
+        try {
+            TriviaQuiz.checkSize(size);
+            filter = new TriviaQuestionFilter(category, difficulty);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        List<TriviaQuestion> drawn = questions.getRandomQuestions(filter, size);
+        if (drawn.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        TriviaQuiz quiz = TriviaQuiz.of(drawn);
+        SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuiz(quiz, drawn);
+        return TriviaQuestionEndpoint.respond(null, headers, entity, questions.getLastUpdated())
+                       .status(Response.Status.CREATED)
+                       .location(quizUri(uri, quiz))
+                       .build();
+    }
+    
+    /**
+     * Returns a quiz by id, in the same form it was created in. Questions no
+     * longer in the store are null, so every question keeps the position it 
+     * is graded at. If none are left, 404 is returned. If the id can't be 
+     * parsed, 400 is returned.
+     * 
+     * @param uri
+     * @param request
+     * @param headers
+     * @param id the quiz id
+     * @return the quiz as JSON in a HTTP response
+     */
+    public Response getQuiz(UriInfo uri, Request request, HttpHeaders headers, String id) {
+        TriviaQuiz quiz;
+        try {
+            quiz = TriviaQuiz.parse(id);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        TriviaQuestionAccessible questions = dataAccess.getSnapshot();
+        List<TriviaQuestion> found = new ArrayList<>(quiz.size());
+        boolean anyFound = false;
+        for (int i = 0; i < quiz.size(); i++) {
+            TriviaQuestion question = questions.getQuestionById(quiz.getQuestionId(i));
+            anyFound = anyFound || (question != null);
+            found.add(question);
+        }
+        if (!anyFound) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        SerializedEntity entity = TriviaQuestionJsonCache.forStore(questions).getQuiz(quiz, found);
+        return TriviaQuestionEndpoint.respond(request, headers, entity, questions.getLastUpdated())
+                       .location(uri.getRequestUri())
+                       .build();
+    }
+    
+    /**
+     * Grades the answers to a quiz. The body is plain text of answer letters 
+     * in quiz order, separated by commas or white space, like B,C,A. The 
+     * result has the number of answers graded, the number correct, and true, 
+     * false or null for each answer in order. Null means the question is no 
+     * longer in the store. If the id or an answer cannot be parsed, or there 
+     * are more answers than questions, 400 is returned.
+     * 
+     * @param id the quiz id
+     * @param answers the answer letters in quiz order
+     * @return the results as JSON in a HTTP response
+     */
+    public Response gradeQuiz(String id, byte[] answers) {
+        byte[] results;
+        try {
+            results = TriviaAnswerGrader.gradeQuiz(dataAccess.getSnapshot(), TriviaQuiz.parse(id), answers);
+        } catch (IllegalArgumentException ie) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        return Response.ok(results, MediaType.APPLICATION_JSON_TYPE).build();
+    }
+    
+    private static URI quizUri(UriInfo uri, TriviaQuiz quiz) {
+        return URI.create(uri.getBaseUri() + "quizzes/" + quiz.toId());
+    }
+}
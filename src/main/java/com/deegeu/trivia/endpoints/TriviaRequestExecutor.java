@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.endpoints;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+/**
+ * Runs the question routes off the container's request threads. A store 
+ * backed by disk or a remote shard can block, and blocking here keeps the 
+ * container threads free to take new connections. The pool has a fixed number
+ * of threads and a bounded queue. When the queue is full a request is turned
+ * away at once, so a slow store can't pile up unbounded work or latency.
+ * 
+ * <p>The pool is sized with the trivia.async.threads and trivia.async.queue 
+ * system properties. A request that hasn't finished after 
+ * trivia.async.timeoutMillis is answered with 503.</p>
+ * 
+ * @author DJ Spiess
+ */
+@ApplicationScoped
+public class TriviaRequestExecutor {
+    /** System property with the number of threads that run routes. */
+    public static final String THREADS_PROPERTY = "trivia.async.threads";
+    
+    /** System property with the number of requests that can wait for a thread. */
+    public static final String QUEUE_PROPERTY = "trivia.async.queue";
+    
+    /** System property with the milliseconds a request can take before 503 is returned. */
+    public static final String TIMEOUT_PROPERTY = "trivia.async.timeoutMillis";
+    
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_QUEUE = 256;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 5000L;
+    private static final int RETRY_AFTER_SECONDS = 1;
+    
+    final private ThreadPoolExecutor executor;
+    final private long timeoutMillis;
+    
+    /**
+     * Constructor. Sized from the system properties.
+     */
+    public TriviaRequestExecutor() {
+        this(Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS),
+                Integer.getInteger(QUEUE_PROPERTY, DEFAULT_QUEUE),
+                Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS));
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param threads the number of threads that run routes
+     * @param queueSize the number of requests that can wait for a thread
+     * @param timeoutMillis the milliseconds a request can take
+     */
+    public TriviaRequestExecutor(int threads, int queueSize, long timeoutMillis) {
+        if (threads < 1 || queueSize < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("Threads, queue size and timeout must be at least 1");
+        }
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new RouteThreadFactory(), 
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * Runs a task on a route thread.
+     * 
+     * @param task the task
+     * @return true if the task was queued, false if the queue is full
+     */
+    public boolean execute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException re) {
+            return false;
+        }
+    }
+    
+    /**
+     * Runs a route on a route thread and resumes the suspended response with 
+     * its result. If the queue is full, or the route takes longer than the 
+     * timeout, the response is 503 with a Retry-After header. A request that 
+     * times out while still queued is skipped when its turn comes.
+     * 
+     * @param response the suspended response
+     * @param route the route to run
+     */
+    public void resume(AsyncResponse response, Supplier<Response> route) {
+        response.setTimeoutHandler(TriviaRequestExecutor::unavailable);
+        response.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        boolean queued = execute(() -> {
+            if (response.isDone()) {
+                return;
+            }
+            try {
+                response.resume(route.get());
+            } catch (RuntimeException re) {
+                response.resume(re);
+            }
+        });
+        if (!queued) {
+            unavailable(response);
+        }
+    }
+    
+    /**
+     * @return the milliseconds a request can take before 503 is returned
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+    
+    /**
+     * @return the number of requests waiting for a thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * Stops taking requests. Queued requests still run. Called by the 
+     * container.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private static void unavailable(AsyncResponse response) {
+        response.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build());
+    }
+    
+    /*
+        Names the route threads, and keeps them from holding up JVM exit.
+    */
+    private static final class RouteThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOLS = new AtomicInteger();
+        final private int pool = POOLS.incrementAndGet();
+        final private AtomicInteger threads = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "trivia-route-" + pool + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram in the style of HdrHistogram. Durations are
+ * counted in log-linear buckets, 16 per power of two, so a quantile is within
+ * about 6% of the true value at any scale. Recording is one atomic increment 
+ * and two adds, and doesn't allocate. The buckets are striped by thread, one 
+ * stripe per processor up to 8, so threads on different processors rarely 
+ * write the same cache line.
+ * 
+ * <p>Quantiles cover a sliding window. The buckets are swapped for empty ones
+ * when a quantile is read and the window has passed, so they describe the 
+ * last one to two windows of requests. The count and sum cover every 
+ * duration since the histogram was created.</p>
+ * 
+ * @author DJ Spiess
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final long DEFAULT_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int STRIPES = Math.min(8, 
+            Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    
+    final private LongAdder count = new LongAdder();
+    final private LongAdder sum = new LongAdder();
+    final private long windowNanos;
+    private volatile AtomicLongArray current = new AtomicLongArray(BUCKETS * STRIPES);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BUCKETS * STRIPES);
+    private long rotatedAt = System.nanoTime();
+    
+    /**
+     * Constructor. Quantiles cover about the last minute.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW_NANOS);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param windowNanos how long the buckets are kept before being swapped out
+     */
+    public LatencyHistogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+    
+    /**
+     * Records a duration.
+     * 
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        current.incrementAndGet(stripe * BUCKETS + indexOf(nanos));
+        count.increment();
+        sum.add(nanos);
+    }
+    
+    /**
+     * Records the time since a start time.
+     * 
+     * @param startNanos a start time from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * @return the sum of the durations recorded, in nanoseconds
+     */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+    
+    /**
+     * Returns the durations at quantiles of the window. 
+     * 
+     * @param quantiles the quantiles, each from 0 to 1
+     * @return the duration in nanoseconds at each quantile, or 0 if nothing was recorded
+     */
+    public long[] getValuesAtQuantiles(double... quantiles) {
+        rotateIfDue();
+        AtomicLongArray newer = current;
+        AtomicLongArray older = previous;
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS * STRIPES; i++) {
+            long bucketCount = newer.get(i) + older.get(i);
+            counts[i % BUCKETS] += bucketCount;
+            total += bucketCount;
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1L, (long) Math.ceil(quantiles[q] * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    values[q] = highestValueAt(i);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+    
+    /*
+        Only readers rotate. A writer that still holds the old buckets adds to
+        what is now the previous window, which is still read.
+    */
+    private synchronized void rotateIfDue() {
+        long now = System.nanoTime();
+        if (now - rotatedAt >= windowNanos) {
+            previous = current;
+            current = new AtomicLongArray(BUCKETS * STRIPES);
+            rotatedAt = now;
+        }
+    }
+    
+    /**
+     * Returns the bucket of a duration.
+     * 
+     * @param nanos the duration
+     * @return the bucket index
+     */
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0L);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    /**
+     * Returns the smallest duration in a bucket.
+     * 
+     * @param index the bucket index
+     * @return the smallest duration counted in the bucket
+     */
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+    }
+    
+    /**
+     * Returns the largest duration in a bucket.
+     * 
+     * @param index the bucket index
+     * @return the largest duration counted in the bucket
+     */
+    static long highestValueAt(int index) {
+        return (index == BUCKETS - 1) ? Long.MAX_VALUE : lowestValueAt(index + 1) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency and responses of one route.
+ * 
+ * @author DJ Spiess
+ */
+public final class RouteMetrics {
+    static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx" };
+    
+    final private String route;
+    final private LatencyHistogram latency = new LatencyHistogram();
+    final private LongAdder[] responses = new LongAdder[STATUS_CLASSES.length];
+    
+    /**
+     * Constructor.
+     * 
+     * @param route the route name
+     */
+    RouteMetrics(String route) {
+        this.route = route;
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Records a response.
+     * 
+     * @param status the HTTP status
+     * @param startNanos when the request arrived, from {@link System#nanoTime()}
+     */
+    public void record(int status, long startNanos) {
+        latency.recordSince(startNanos);
+        int statusClass = status / 100 - 1;
+        if (statusClass >= 0 && statusClass < responses.length) {
+            responses[statusClass].increment();
+        }
+    }
+    
+    /**
+     * @return the route name
+     */
+    public String getRoute() {
+        return route;
+    }
+    
+    /**
+     * @return the response latency
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+    
+    /**
+     * Returns the number of responses in a status class.
+     * 
+     * @param statusClass the status class, 1 for 1xx to 5 for 5xx
+     * @return the number of responses
+     */
+    public long getResponses(int statusClass) {
+        return responses[statusClass - 1].sum();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The metrics of the trivia service. Routes, store operations and caches are
+ * registered once and keep their recorder, so recording never looks anything
+ * up. Everything is written out in the Prometheus text format.
+ * 
+ * @author DJ Spiess
+ */
+public final class TriviaMetrics {
+    /**
+     * The content type of the Prometheus text format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4";
+    
+    static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+    private static final String[] QUANTILE_LABELS = { "0.5", "0.99", "0.999" };
+    
+    private static final Map<String, RouteMetrics> ROUTES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> STORE_OPERATIONS = new ConcurrentSkipListMap<>();
+    private static final Map<String, CacheCounter> CACHES = new ConcurrentSkipListMap<>();
+    
+    private TriviaMetrics() {
+    }
+    
+    /**
+     * Returns the metrics of a route, registering it the first time.
+     * 
+     * @param route the route name
+     * @return the route metrics
+     */
+    public static RouteMetrics route(String route) {
+        return ROUTES.computeIfAbsent(route, RouteMetrics::new);
+    }
+    
+    /**
+     * Returns the timer of a store operation, registering it the first time.
+     * 
+     * @param operation the operation name
+     * @return the operation's latency histogram
+     */
+    public static LatencyHistogram storeOperation(String operation) {
+        return STORE_OPERATIONS.computeIfAbsent(operation, name -> new LatencyHistogram());
+    }
+    
+    /**
+     * Returns the counter of a cache, registering it the first time.
+     * 
+     * @param cache the cache name
+     * @return the cache counter
+     */
+    public static CacheCounter cache(String cache) {
+        return CACHES.computeIfAbsent(cache, name -> new CacheCounter());
+    }
+    
+    /**
+     * Writes every metric in the Prometheus text format.
+     * 
+     * @return the metrics
+     */
+    public static String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        
+        summaryHeader(out, "trivia_request_duration_seconds", "Time to answer a request, by route.");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            summary(out, "trivia_request_duration_seconds", "route", metrics.getRoute(), metrics.getLatency());
+        }
+        
+        header(out, "trivia_requests_total", "counter", "Responses sent, by route and status class.");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            for (int i = 1; i <= RouteMetrics.STATUS_CLASSES.length; i++) {
+                long responses = metrics.getResponses(i);
+                if (responses > 0) {
+                    out.append("trivia_requests_total{route=\"").append(metrics.getRoute())
+                            .append("\",status=\"").append(RouteMetrics.STATUS_CLASSES[i - 1])
+                            .append("\"} ").append(responses).append('\n');
+                }
+            }
+        }
+        
+        summaryHeader(out, "trivia_store_duration_seconds", "Time spent in the question store, by operation.");
+        for (Map.Entry<String, LatencyHistogram> entry : STORE_OPERATIONS.entrySet()) {
+            summary(out, "trivia_store_duration_seconds", "operation", entry.getKey(), entry.getValue());
+        }
+        
+        header(out, "trivia_cache_requests_total", "counter", "Cache lookups, by cache and result.");
+        for (Map.Entry<String, CacheCounter> entry : CACHES.entrySet()) {
+            out.append("trivia_cache_requests_total{cache=\"").append(entry.getKey())
+                    .append("\",result=\"hit\"} ").append(entry.getValue().getHits()).append('\n');
+            out.append("trivia_cache_requests_total{cache=\"").append(entry.getKey())
+                    .append("\",result=\"miss\"} ").append(entry.getValue().getMisses()).append('\n');
+        }
+        
+        header(out, "trivia_cache_hit_ratio", "gauge", "Share of cache lookups that were hits, by cache.");
+        for (Map.Entry<String, CacheCounter> entry : CACHES.entrySet()) {
+            long hits = entry.getValue().getHits();
+            long lookups = hits + entry.getValue().getMisses();
+            out.append("trivia_cache_hit_ratio{cache=\"").append(entry.getKey()).append("\"} ")
+                    .append(lookups == 0 ? 0.0 : (double) hits / lookups).append('\n');
+        }
+        return out.toString();
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void summaryHeader(StringBuilder out, String name, String help) {
+        header(out, name, "summary", help);
+    }
+    
+    private static void summary(StringBuilder out, String name, String label, String value, LatencyHistogram histogram) {
+        long[] quantiles = histogram.getValuesAtQuantiles(QUANTILES);
+        for (int i = 0; i < quantiles.length; i++) {
+            out.append(name).append('{').append(label).append("=\"").append(value)
+                    .append("\",quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                    .append(seconds(quantiles[i])).append('\n');
+        }
+        out.append(name).append("_sum{").append(label).append("=\"").append(value).append("\"} ")
+                .append(seconds(histogram.getSumNanos())).append('\n');
+        out.append(name).append("_count{").append(label).append("=\"").append(value).append("\"} ")
+                .append(histogram.getCount()).append('\n');
+    }
+    
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
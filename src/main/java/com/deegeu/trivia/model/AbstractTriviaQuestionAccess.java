@@ -0,0 +1,378 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Base class for the trivia question stores. A store only has to find a 
+ * question by index and find the index of an identifier. Lookups by id, random
+ * questions, pages, cursor pages and batches are built on those two. Filtered
+ * lists and draws use a {@link TriviaQuestionIndex}, which is built the first
+ * time a store is filtered. Searches use a {@link TriviaQuestionSearchIndex},
+ * which is built the first time a store is searched, unless the store was 
+ * given one made from the previous generation of its questions.
+ * 
+ * @author DJ Spiess
+ */
+abstract class AbstractTriviaQuestionAccess implements TriviaQuestionAccessible {
+    static final int NOT_FOUND = -1;
+    static private final AtomicLong VERSIONS = new AtomicLong();
+    
+    private volatile TriviaQuestionIndex secondaryIndex;
+    private volatile TriviaQuestionSearchIndex searchIndex;
+    
+    /**
+     * Returns a new version number. Versions are unique across every store in
+     * the application, so caches keyed by version never mix up two stores. 
+     * They only go up, so a newer store always has a higher version.
+     * 
+     * @return a version number that hasn't been used before
+     */
+    static long nextVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+    
+    /**
+     * Returns the index of the question with the identifier.
+     * 
+     * @param id the identifier of the trivia question
+     * @return the index of the question, or {@link #NOT_FOUND}
+     */
+    abstract int indexOfId(long id);
+    
+    @Override
+    public TriviaQuestion getQuestionById(long id) {
+        int index = indexOfId(id);
+        return (index != NOT_FOUND) ? getQuestionByIndex(index) : null;
+    }
+    
+    @Override
+    public TriviaAnswer getCorrectAnswer(long id) {
+        int index = indexOfId(id);
+        return (index != NOT_FOUND) ? getCorrectAnswerByIndex(index) : null;
+    }
+    
+    /**
+     * Returns the correct answer of the question at an index. Stores that 
+     * keep the answer code apart from the question override this so grading
+     * doesn't read the whole question.
+     * 
+     * @param index the index of a question in the store
+     * @return the correct answer
+     */
+    TriviaAnswer getCorrectAnswerByIndex(int index) {
+        return getQuestionByIndex(index).getCorrectChoice();
+    }
+    
+    /**
+     * Returns the category of the question at an index. Stores that keep the
+     * category apart from the question override this so indexing doesn't read
+     * the whole question.
+     * 
+     * @param index the index of a question in the store
+     * @return the category, or null
+     */
+    String getCategoryByIndex(int index) {
+        return getQuestionByIndex(index).getCategory();
+    }
+    
+    /**
+     * Returns the difficulty of the question at an index. See 
+     * {@link #getCategoryByIndex(int)}.
+     * 
+     * @param index the index of a question in the store
+     * @return the difficulty, or {@link TriviaQuestion#UNRATED}
+     */
+    int getDifficultyByIndex(int index) {
+        return getQuestionByIndex(index).getDifficulty();
+    }
+    
+    /**
+     * Reads every question in index order. Stores that read questions faster
+     * in bulk than one at a time override this, so building the search index
+     * doesn't read the questions one by one.
+     * 
+     * @param action called with each question and its index
+     */
+    void forEachQuestion(ObjIntConsumer<TriviaQuestion> action) {
+        int size = (int) getQuestionListSize();
+        for (int index = 0; index < size; index++) {
+            action.accept(getQuestionByIndex(index), index);
+        }
+    }
+    
+    /**
+     * Returns the secondary indexes, building them the first time.
+     * 
+     * @return the category and difficulty index
+     */
+    TriviaQuestionIndex getSecondaryIndex() {
+        TriviaQuestionIndex built = secondaryIndex;
+        if (built == null) {
+            synchronized (this) {
+                built = secondaryIndex;
+                if (built == null) {
+                    built = TriviaQuestionIndex.build(this);
+                    secondaryIndex = built;
+                }
+            }
+        }
+        return built;
+    }
+    
+    /**
+     * Returns the full text index, building it the first time.
+     * 
+     * @return the search index
+     */
+    TriviaQuestionSearchIndex getSearchIndex() {
+        TriviaQuestionSearchIndex built = searchIndex;
+        if (built == null) {
+            synchronized (this) {
+                built = searchIndex;
+                if (built == null) {
+                    built = TriviaQuestionSearchIndex.build(this);
+                    searchIndex = built;
+                }
+            }
+        }
+        return built;
+    }
+    
+    /**
+     * @return the full text index if it has been built, or null
+     */
+    TriviaQuestionSearchIndex peekSearchIndex() {
+        return searchIndex;
+    }
+    
+    /**
+     * Gives the store a full text index made elsewhere, so it isn't built 
+     * from scratch. The index must hold exactly the questions of this store.
+     * 
+     * @param index the search index
+     */
+    void setSearchIndex(TriviaQuestionSearchIndex index) {
+        searchIndex = index;
+    }
+    
+    @Override
+    public List<TriviaQuestion> searchQuestions(String query, int limit) {
+        checkLimit(limit);
+        long[] ids = getSearchIndex().search(query, limit);
+        List<TriviaQuestion> questions = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            int index = indexOfId(id);
+            if (index != NOT_FOUND) {
+                questions.add(getQuestionByIndex(index));
+            }
+        }
+        return Collections.unmodifiableList(questions);
+    }
+    
+    @Override
+    public TriviaQuestion getRandomQuestion() {
+        int size = (int) getQuestionListSize();
+        if (size == 0) {
+            return null;
+        }
+        return getQuestionByIndex(ThreadLocalRandom.current().nextInt(size));
+    }
+    
+    @Override
+    public List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count) {
+        checkLimit(count);
+        return toQuestions(getSecondaryIndex().sample(filter, count));
+    }
+    
+    /**
+     * Stores built on this class never change after construction, so they are
+     * their own snapshot.
+     * 
+     * @return this store
+     */
+    @Override
+    public TriviaQuestionAccessible getSnapshot() {
+        return this;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset) {
+        return getQuestionList(offset, DEFAULT_PAGE_SIZE);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        checkLimit(limit);
+        int size = (int) getQuestionListSize();
+        long start = offset; 
+        if (start < 0) {
+            start = 0;
+        }
+        if (start >= size) {
+            start = size;
+        }
+        long end = start + limit;
+        if (end >= size) {
+            end = size;
+        }
+        return new QuestionRange((int) start, (int) end);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit) {
+        checkLimit(limit);
+        if (filter.isAll()) {
+            return getQuestionList(offset, limit);
+        }
+        return toQuestions(getSecondaryIndex().page(filter, offset, limit));
+    }
+    
+    @Override
+    public long getQuestionListSize(TriviaQuestionFilter filter) {
+        return filter.isAll() ? getQuestionListSize() : getSecondaryIndex().count(filter);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after) {
+        return getQuestionPage(after, DEFAULT_PAGE_SIZE);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit) {
+        checkLimit(limit);
+        long size = getQuestionListSize();
+        long index = 0;
+        if (after != null) {
+            int lastIndex = indexOfId(after.getLastId());
+            if (lastIndex == NOT_FOUND) {
+                return null;
+            }
+            index = lastIndex + 1L;
+        }
+        
+        List<TriviaQuestion> questions = new ArrayList<>((int) Math.min(limit, size - index));
+        while (index < size && questions.size() < limit) {
+            TriviaQuestion question = getQuestionByIndex(index);
+            // A repeated id can't be a cursor, since it finds the first copy.
+            if (indexOfId(question.getId()) == index) {
+                questions.add(question);
+            }
+            index++;
+        }
+        TriviaQuestionCursor next = (index < size && !questions.isEmpty()) 
+                ? new TriviaQuestionCursor(questions.get(questions.size() - 1).getId(), getVersion()) 
+                : null;
+        return new TriviaQuestionPage(Collections.unmodifiableList(questions), next, getVersion());
+    }
+
+    @Override
+    public List<TriviaQuestion> getSpecifiedQuestionList(long... id) {
+        return getQuestionBatch(id).getQuestions();
+    }
+    
+    @Override
+    public TriviaQuestionBatch getQuestionBatch(long... id) {
+        List<TriviaQuestion> found = new ArrayList<>(id.length);
+        long[] missing = new long[id.length];
+        long[] duplicates = new long[id.length];
+        int missingCount = 0;
+        int duplicateCount = 0;
+        
+        // One index lookup per id. The requested set catches repeats.
+        LongIntHashMap requested = new LongIntHashMap(id.length);
+        for (int i = 0; i < id.length; i++) {
+            int index = indexOfId(id[i]);
+            if (index == NOT_FOUND) {
+                missing[missingCount++] = id[i];
+            } else if (!requested.putIfAbsent(id[i], i)) {
+                duplicates[duplicateCount++] = id[i];
+            } else {
+                found.add(getQuestionByIndex(index));
+            }
+        }
+        return new TriviaQuestionBatch(found, 
+                Arrays.copyOf(missing, missingCount), 
+                Arrays.copyOf(duplicates, duplicateCount));
+    }
+    
+    /*
+        Reads the questions at some indexes, in the same order.
+    */
+    private List<TriviaQuestion> toQuestions(int[] indexes) {
+        List<TriviaQuestion> questions = new ArrayList<>(indexes.length);
+        for (int i : indexes) {
+            questions.add(getQuestionByIndex(i));
+        }
+        return Collections.unmodifiableList(questions);
+    }
+    
+    /**
+     * Checks a page limit.
+     * 
+     * @param limit the most questions on a page
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be less than 0");
+        }
+    }
+    
+    /*
+        Read only view of the questions from start up to end. Questions are 
+        fetched from the store when the view is read.
+    */
+    private final class QuestionRange extends AbstractList<TriviaQuestion> implements RandomAccess {
+        final private int start;
+        final private int end;
+        
+        QuestionRange(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+        
+        @Override
+        public TriviaQuestion get(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return getQuestionByIndex(start + index);
+        }
+        
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Keeps open database connections for reuse, each with the statements already
+ * prepared on it. A query borrows a connection, prepares its SQL only if that
+ * connection hasn't seen it yet, and gives the connection back. A connection 
+ * that fails a query is closed rather than reused, and a new one is opened 
+ * when no connection is idle. Safe for use by many threads.
+ * 
+ * @author DJ Spiess
+ */
+final class JdbcConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(JdbcConnectionPool.class.getName());
+    
+    final private DataSource dataSource;
+    final private BlockingQueue<CachedConnection> idle;
+    final private int maxStatements;
+    private volatile boolean closed;
+    
+    /**
+     * Work done with a prepared statement. The work must read everything it 
+     * needs and close its result sets before returning, since the statement 
+     * goes back to the pool.
+     * 
+     * @param <T> the result of the work
+     */
+    @FunctionalInterface
+    interface StatementWork<T> {
+        T run(PreparedStatement statement) throws SQLException;
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param dataSource where connections come from
+     * @param maxIdle the most connections kept open while unused
+     * @param maxStatements the most statements prepared on one connection
+     */
+    JdbcConnectionPool(DataSource dataSource, int maxIdle, int maxStatements) {
+        if (maxIdle < 1 || maxStatements < 1) {
+            throw new IllegalArgumentException("Pool sizes must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+        this.maxStatements = maxStatements;
+    }
+    
+    /**
+     * Runs work with the statement for some SQL on a pooled connection.
+     * 
+     * @param <T> the result of the work
+     * @param sql the SQL of the statement
+     * @param work what to do with the statement
+     * @return the result of the work
+     * @throws SQLException if the connection, the statement or the work fails
+     */
+    <T> T execute(String sql, StatementWork<T> work) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        CachedConnection connection = idle.poll();
+        if (connection == null) {
+            connection = new CachedConnection(dataSource.getConnection());
+        }
+        boolean reusable = false;
+        try {
+            T result = work.run(connection.prepare(sql));
+            reusable = true;
+            return result;
+        } finally {
+            if (!reusable || closed || !idle.offer(connection)) {
+                connection.close();
+            }
+        }
+    }
+    
+    /**
+     * Closes the idle connections. Connections in use are closed when they're
+     * given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        CachedConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+    
+    /*
+        A connection and the statements prepared on it. Only used by one 
+        thread at a time.
+    */
+    private final class CachedConnection {
+        final private Connection connection;
+        final private Map<String, PreparedStatement> statements = new HashMap<>();
+        
+        CachedConnection(Connection connection) {
+            this.connection = connection;
+        }
+        
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                if (statements.size() >= maxStatements) {
+                    // The SQL comes from a fixed set, so this only happens if the set outgrows the limit.
+                    closeStatements();
+                }
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+        
+        void close() {
+            closeStatements();
+            try {
+                connection.close();
+            } catch (SQLException se) {
+                LOGGER.log(Level.FINE, "Unable to close a database connection.", se);
+            }
+        }
+        
+        private void closeStatements() {
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException se) {
+                    LOGGER.log(Level.FINE, "Unable to close a prepared statement.", se);
+                }
+            }
+            statements.clear();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from a non-negative long key to an int value. Keys 
+ * and values are kept in primitive arrays, so lookups don't box and don't 
+ * allocate. Used to index trivia questions by identifier.
+ * 
+ * @author DJ Spiess
+ */
+final class LongIntHashMap {
+    /** Returned by {@link #get(long)} when the key is not in the map. */
+    static final int NOT_FOUND = -1;
+    
+    private static final long EMPTY = -1L;
+    private static final int MINIMUM_CAPACITY = 4;
+    
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    
+    /**
+     * Constructor. 
+     * 
+     * @param expectedSize the number of keys expected, used to size the table
+     */
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    /**
+     * Adds the key to the map if it isn't already there.
+     * 
+     * @param key a non-negative key
+     * @param value the value for the key
+     * @return true if the key was added, false if it was already in the map
+     */
+    boolean putIfAbsent(long key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key can't be less than 0");
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) / 2) {
+            rehash();
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the value for the key.
+     * 
+     * @param key the key to look up
+     * @return the value, or {@link #NOT_FOUND} if the key is not in the map
+     */
+    int get(long key) {
+        if (key < 0) {
+            return NOT_FOUND;
+        }
+        int slot = slotOf(key);
+        return (keys[slot] == key) ? values[slot] : NOT_FOUND;
+    }
+    
+    /**
+     * @return the number of keys in the map
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Spreads the key bits so sequential identifiers don't cluster. 
+     * 
+     * @param key the key to hash
+     * @return the hash of the key
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /*
+        Returns the slot holding the key, or the empty slot where it belongs.
+    */
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != key && keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate((mask + 1) * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+    
+    /*
+        Smallest power of two that keeps the table at most half full.
+    */
+    private static int capacityFor(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of question indexes. A sparse set is a sorted array of 
+ * indexes, and a dense one is a bitmap with a bit per question, whichever is 
+ * smaller, the way Roaring bitmap containers are picked. Sets are intersected
+ * without expanding them, and the members can be picked by rank, so random 
+ * draws and pages can be read straight from an intersection.
+ * 
+ * @author DJ Spiess
+ */
+final class QuestionBitmap {
+    /*
+        An index in the array costs 32 bits, and the bitmap costs 1 bit per 
+        question, so the array is smaller below 1 question in 32.
+    */
+    private static final int DENSITY_THRESHOLD = 32;
+    
+    final private int universe;
+    final private int cardinality;
+    final private int[] indexes;
+    final private long[] words;
+    
+    private QuestionBitmap(int universe, int cardinality, int[] indexes, long[] words) {
+        this.universe = universe;
+        this.cardinality = cardinality;
+        this.indexes = indexes;
+        this.words = words;
+    }
+    
+    /**
+     * Makes a set from sorted indexes, in whichever form is smaller.
+     * 
+     * @param universe the number of questions
+     * @param sorted the indexes in increasing order
+     * @param count the number of indexes to use
+     * @return the set
+     */
+    static QuestionBitmap of(int universe, int[] sorted, int count) {
+        if ((long) count * DENSITY_THRESHOLD < universe) {
+            return new QuestionBitmap(universe, count, Arrays.copyOf(sorted, count), null);
+        }
+        long[] words = new long[wordCount(universe)];
+        for (int i = 0; i < count; i++) {
+            words[sorted[i] >>> 6] |= 1L << sorted[i];
+        }
+        return new QuestionBitmap(universe, count, null, words);
+    }
+    
+    /**
+     * @return the number of questions in the set
+     */
+    int getCardinality() {
+        return cardinality;
+    }
+    
+    /**
+     * @return true if the set is a bitmap rather than an array of indexes
+     */
+    boolean isDense() {
+        return words != null;
+    }
+    
+    /**
+     * @param index a question index
+     * @return true if the question is in the set
+     */
+    boolean contains(int index) {
+        if (index < 0 || index >= universe) {
+            return false;
+        }
+        return (words != null) 
+                ? (words[index >>> 6] & (1L << index)) != 0 
+                : Arrays.binarySearch(indexes, index) >= 0;
+    }
+    
+    /**
+     * Intersects two sets of the same questions.
+     * 
+     * @param other the other set
+     * @return the questions in both sets
+     */
+    QuestionBitmap and(QuestionBitmap other) {
+        if (words == null && other.words == null) {
+            return andArrays(other);
+        }
+        if (words == null || other.words == null) {
+            QuestionBitmap sparse = (words == null) ? this : other;
+            QuestionBitmap dense = (words == null) ? other : this;
+            int[] found = new int[sparse.cardinality];
+            int count = 0;
+            for (int index : sparse.indexes) {
+                if ((dense.words[index >>> 6] & (1L << index)) != 0) {
+                    found[count++] = index;
+                }
+            }
+            return new QuestionBitmap(universe, count, Arrays.copyOf(found, count), null);
+        }
+        long[] both = new long[words.length];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            both[i] = words[i] & other.words[i];
+            count += Long.bitCount(both[i]);
+        }
+        if ((long) count * DENSITY_THRESHOLD < universe) {
+            return new QuestionBitmap(universe, count, toIndexes(both, count), null);
+        }
+        return new QuestionBitmap(universe, count, null, both);
+    }
+    
+    /**
+     * Returns the questions at a run of ranks, in increasing order.
+     * 
+     * @param fromRank the rank of the first question, from 0
+     * @param count the most questions to return
+     * @return the question indexes
+     */
+    int[] select(int fromRank, int count) {
+        int from = Math.min(Math.max(fromRank, 0), cardinality);
+        int length = Math.max(Math.min(count, cardinality - from), 0);
+        if (words == null) {
+            return Arrays.copyOfRange(indexes, from, from + length);
+        }
+        int[] selected = new int[length];
+        int filled = 0;
+        int rank = 0;
+        for (int w = 0; w < words.length && filled < length; w++) {
+            long word = words[w];
+            int bits = Long.bitCount(word);
+            if (rank + bits <= from) {
+                rank += bits;
+                continue;
+            }
+            while (word != 0 && filled < length) {
+                if (rank >= from) {
+                    selected[filled++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+                rank++;
+                word &= word - 1;
+            }
+        }
+        return selected;
+    }
+    
+    /**
+     * Returns the questions at some ranks in one pass.
+     * 
+     * @param ranks distinct ranks in increasing order, each less than the cardinality
+     * @return the question index at each rank
+     */
+    int[] selectRanks(int[] ranks) {
+        int[] selected = new int[ranks.length];
+        if (words == null) {
+            for (int i = 0; i < ranks.length; i++) {
+                selected[i] = indexes[ranks[i]];
+            }
+            return selected;
+        }
+        int next = 0;
+        int rank = 0;
+        for (int w = 0; w < words.length && next < ranks.length; w++) {
+            long word = words[w];
+            int bits = Long.bitCount(word);
+            while (next < ranks.length && ranks[next] < rank + bits) {
+                long remaining = word;
+                for (int skip = ranks[next] - rank; skip > 0; skip--) {
+                    remaining &= remaining - 1;
+                }
+                selected[next++] = (w << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+            rank += bits;
+        }
+        return selected;
+    }
+    
+    /**
+     * @return the approximate number of bytes the set takes
+     */
+    long getSizeInBytes() {
+        return 32L + ((words != null) ? words.length * 8L : indexes.length * 4L);
+    }
+    
+    private static int wordCount(int universe) {
+        return (universe + 63) >>> 6;
+    }
+    
+    private QuestionBitmap andArrays(QuestionBitmap other) {
+        int[] a = indexes;
+        int[] b = other.indexes;
+        int[] found = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                found[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return new QuestionBitmap(universe, count, Arrays.copyOf(found, count), null);
+    }
+    
+    private static int[] toIndexes(long[] words, int count) {
+        int[] found = new int[count];
+        int filled = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                found[filled++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return found;
+    }
+}
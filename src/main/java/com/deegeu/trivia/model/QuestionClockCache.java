@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A bounded cache of questions by id that evicts with the CLOCK policy. Each
+ * entry has a referenced flag, set when the entry is read. When the cache is 
+ * full, a hand sweeps the entries in insertion slots, clearing set flags and 
+ * evicting the first entry whose flag is already clear. New entries start 
+ * unreferenced, so questions read once are evicted before questions read 
+ * again. Reads don't lock. Safe for use by many threads.
+ * 
+ * @author DJ Spiess
+ */
+final class QuestionClockCache {
+    final private ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    final private Entry[] slots;
+    private int size;
+    private int hand;
+    
+    /**
+     * Constructor.
+     * 
+     * @param capacity the most questions kept
+     */
+    QuestionClockCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache size can't be less than 0");
+        }
+        this.slots = new Entry[capacity];
+    }
+    
+    /**
+     * Returns a cached question, and marks it as referenced.
+     * 
+     * @param id the identifier of the question
+     * @return the question, or null if it isn't cached
+     */
+    TriviaQuestion get(long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.question;
+    }
+    
+    /**
+     * Adds a question, evicting another one if the cache is full. A question
+     * already cached is left as it is.
+     * 
+     * @param question the question
+     */
+    synchronized void put(TriviaQuestion question) {
+        if (slots.length == 0 || entries.containsKey(question.getId())) {
+            return;
+        }
+        int slot;
+        if (size < slots.length) {
+            slot = size++;
+        } else {
+            // At most one full turn clears every flag, so the sweep ends.
+            while (slots[hand].referenced) {
+                slots[hand].referenced = false;
+                hand = (hand + 1) % slots.length;
+            }
+            slot = hand;
+            entries.remove(slots[slot].question.getId());
+            hand = (hand + 1) % slots.length;
+        }
+        Entry entry = new Entry(question);
+        slots[slot] = entry;
+        entries.put(question.getId(), entry);
+    }
+    
+    /**
+     * @return the number of cached questions
+     */
+    int size() {
+        return entries.size();
+    }
+    
+    private static final class Entry {
+        final private TriviaQuestion question;
+        private volatile boolean referenced;
+        
+        Entry(TriviaQuestion question) {
+            this.question = question;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+/**
+ * A pseudo random permutation of the numbers 0 to size - 1. Any position can be
+ * mapped to its number in constant time without building the sequence, so a
+ * shuffled walk over a question bank needs only a seed and a position. Uses a 
+ * small Feistel network over the next power of four, skipping numbers outside
+ * the range.
+ * 
+ * @author DJ Spiess
+ */
+final class RandomPermutation {
+    private static final int ROUNDS = 4;
+    
+    final private long size;
+    final private int halfBits;
+    final private long halfMask;
+    final private long[] roundKeys = new long[ROUNDS];
+    
+    /**
+     * Constructor.
+     * 
+     * @param size the number of elements in the permutation
+     * @param seed selects the permutation
+     */
+    RandomPermutation(long size, long seed) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size can't be less than 0");
+        }
+        this.size = size;
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        long state = seed;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+    
+    /**
+     * Returns the number at a position in the permutation.
+     * 
+     * @param position a position from 0 to size - 1
+     * @return the number at that position, also from 0 to size - 1
+     */
+    long get(long position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " is outside the permutation");
+        }
+        // The domain is at most four times the size, so this walks a few steps at most.
+        long value = position;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return value;
+    }
+    
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ (mix(right ^ roundKeys[i]) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+    
+    /*
+        SplitMix64 finalizer.
+    */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+/**
+ * The four answer choices of a {@link TriviaQuestion}. The code of a choice 
+ * is its position, 0 for A through 3 for D, and fits in a byte. Looking up a
+ * choice by letter or code doesn't allocate.
+ * 
+ * @author DJ Spiess
+ */
+public enum TriviaAnswer {
+    A, B, C, D;
+    
+    private static final TriviaAnswer[] CHOICES = values();
+    
+    /**
+     * @return the code of this choice, 0 for A through 3 for D
+     */
+    public byte getCode() {
+        return (byte) ordinal();
+    }
+    
+    /**
+     * Returns the choice for a code.
+     * 
+     * @param code 0 for A through 3 for D
+     * @return the choice, or null if the code isn't a choice
+     */
+    public static TriviaAnswer forCode(int code) {
+        return (code >= 0 && code < CHOICES.length) ? CHOICES[code] : null;
+    }
+    
+    /**
+     * Returns the choice for a letter.
+     * 
+     * @param letter 'A', 'B', 'C' or 'D'
+     * @return the choice, or null if the letter isn't a choice
+     */
+    public static TriviaAnswer forLetter(int letter) {
+        return forCode(letter - 'A');
+    }
+    
+    /**
+     * Returns the choice for a one letter string.
+     * 
+     * @param answer "A", "B", "C" or "D"
+     * @return the choice, or null if the string isn't a choice
+     */
+    public static TriviaAnswer forString(String answer) {
+        return (answer != null && answer.length() == 1) ? forLetter(answer.charAt(0)) : null;
+    }
+}
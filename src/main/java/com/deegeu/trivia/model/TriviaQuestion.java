@@ -33,14 +33,23 @@ import java.util.Objects;
  * @author dspiess
  */
 final public class TriviaQuestion {
+    /** The difficulty of a question that hasn't been rated. */
+    public static final int UNRATED = 0;
+    /** The easiest difficulty. */
+    public static final int MIN_DIFFICULTY = 1;
+    /** The hardest difficulty. */
+    public static final int MAX_DIFFICULTY = 5;
+    
     final private long id;
     final private String question;
     final private String answerA;
     final private String answerB;
     final private String answerC;
     final private String answerD;
-    final private String correctAnswer;
+    final private TriviaAnswer correctAnswer;
     final private String hint;
+    final private String category;
+    final private int difficulty;
     final private Date lastUpdated;
     
     /**
@@ -53,12 +62,16 @@ final public class TriviaQuestion {
      * @param answerB
      * @param answerC
      * @param answerD
-     * @param correctAnswer
+     * @param correctAnswer the correct choice
      * @param hint 
+     * @param category the category, or null if the question has none
+     * @param difficulty the difficulty, or {@link #UNRATED}
+     * @param lastUpdated
      */
     TriviaQuestion(long id, String question, 
             String answerA, String answerB, String answerC, String answerD,
-            String correctAnswer, String hint, Date lastUpdated) {
+            TriviaAnswer correctAnswer, String hint, String category, int difficulty, 
+            Date lastUpdated) {
         this.id = id;
         this.question = question;
         this.answerA = answerA;
@@ -67,6 +80,8 @@ final public class TriviaQuestion {
         this.answerD = answerD;
         this.correctAnswer = correctAnswer;
         this.hint = hint;
+        this.category = category;
+        this.difficulty = difficulty;
         this.lastUpdated = new Date(lastUpdated.getTime());
     }
 
@@ -116,8 +131,25 @@ final public class TriviaQuestion {
      * @return the correctAnswer
      */
     public String getCorrectAnswer() {
+        return correctAnswer.name();
+    }
+    
+    /**
+     * @return the correct answer as a choice
+     */
+    public TriviaAnswer getCorrectChoice() {
         return correctAnswer;
     }
+    
+    /**
+     * Grades an answer.
+     * 
+     * @param answer the chosen answer
+     * @return true if the answer is the correct one
+     */
+    public boolean isCorrect(TriviaAnswer answer) {
+        return correctAnswer == answer;
+    }
 
     /**
      * @return the hint
@@ -126,6 +158,20 @@ final public class TriviaQuestion {
         return hint;
     }
     
+    /**
+     * @return the category, or null if the question has none
+     */
+    public String getCategory() {
+        return category;
+    }
+    
+    /**
+     * @return the difficulty from {@link #MIN_DIFFICULTY} to {@link #MAX_DIFFICULTY}, or {@link #UNRATED}
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+    
     /**
      * @return the date this question was last updated
      */
@@ -142,8 +188,10 @@ final public class TriviaQuestion {
         hash = 71 * hash + Objects.hashCode(this.answerB);
         hash = 71 * hash + Objects.hashCode(this.answerC);
         hash = 71 * hash + Objects.hashCode(this.answerD);
-        hash = 71 * hash + Objects.hashCode(this.correctAnswer);
+        hash = 71 * hash + this.correctAnswer.ordinal();
         hash = 71 * hash + Objects.hashCode(this.hint);
+        hash = 71 * hash + Objects.hashCode(this.category);
+        hash = 71 * hash + this.difficulty;
         hash = 71 * hash + Objects.hashCode(this.lastUpdated);
         return hash;
     }
@@ -175,12 +223,18 @@ final public class TriviaQuestion {
         if (!Objects.equals(this.answerD, other.answerD)) {
             return false;
         }
-        if (!Objects.equals(this.correctAnswer, other.correctAnswer)) {
+        if (this.correctAnswer != other.correctAnswer) {
             return false;
         }
         if (!Objects.equals(this.hint, other.hint)) {
             return false;
         }
+        if (!Objects.equals(this.category, other.category)) {
+            return false;
+        }
+        if (this.difficulty != other.difficulty) {
+            return false;
+        }
         if (!Objects.equals(this.lastUpdated, other.lastUpdated)) {
             return false;
         }
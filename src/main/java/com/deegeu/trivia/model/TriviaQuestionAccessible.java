@@ -23,6 +23,7 @@
  */
 package com.deegeu.trivia.model;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -31,6 +32,9 @@ import java.util.List;
  * @author DJ Spiess
  */
 public interface TriviaQuestionAccessible {
+    /** The number of questions on a page when no limit is given. */
+    int DEFAULT_PAGE_SIZE = 10;
+    
     /**
      * Returns a {@link TriviaQuestion} by index.
      * 
@@ -40,20 +44,39 @@ public interface TriviaQuestionAccessible {
     TriviaQuestion getQuestionByIndex(long index);
     
     /**
-     * Returns a {@link TriviaQuestion} by index.
+     * Returns a {@link TriviaQuestion} by identifier.
      * 
      * @param id the identifier of the trivia question
-     * @return an trivia question by index
+     * @return the trivia question, or null if no question has the identifier
      */
     TriviaQuestion getQuestionById(long id);
     
+    /**
+     * Returns the correct answer of a {@link TriviaQuestion} by identifier, 
+     * without reading the rest of the question. Used to grade answers.
+     * 
+     * @param id the identifier of the trivia question
+     * @return the correct answer, or null if no question has the identifier
+     */
+    TriviaAnswer getCorrectAnswer(long id);
+    
     /**
      * Returns a random {@link TriviaQuestion}
      * 
-     * @return a random trivia question
+     * @return a random trivia question, or null if there are no questions
      */
     TriviaQuestion getRandomQuestion();
     
+    /**
+     * Draws distinct random {@link TriviaQuestion} that match a filter, in a 
+     * random order.
+     * 
+     * @param filter the questions to draw from
+     * @param count the most questions to draw
+     * @return the questions, fewer than count if not enough match
+     */
+    List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count);
+    
     /**
      * Returns a list of at most 10 {@link TriviaQuestion} starting at the offset
      * 
@@ -63,17 +86,118 @@ public interface TriviaQuestionAccessible {
     List<TriviaQuestion> getQuestionList(long offset);
     
     /**
-     * Returns a list of at most 10 {@link TriviaQuestion} starting at the offset
+     * Returns a list of at most limit {@link TriviaQuestion} starting at the 
+     * offset. The list is a read only view, and questions may be read from the
+     * database as the list is read.
      * 
-     * @param id
-     * @return a list of at most 10 questions starting the offset
+     * @param offset the starting point
+     * @param limit the most questions to return
+     * @return a list of at most limit questions starting at the offset
+     */
+    List<TriviaQuestion> getQuestionList(long offset, int limit);
+    
+    /**
+     * Returns a list of at most limit {@link TriviaQuestion} that match a 
+     * filter, starting at the offset into the matching questions. The 
+     * questions are in the same order as {@link #getQuestionList(long, int)}.
+     * 
+     * @param filter the questions to list
+     * @param offset the number of matching questions to skip
+     * @param limit the most questions to return
+     * @return a list of at most limit matching questions
+     */
+    List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit);
+    
+    /**
+     * Returns the page of at most 10 {@link TriviaQuestion} that follows the 
+     * cursor, in the same order as {@link #getQuestionList(long)}. The cost 
+     * doesn't depend on how deep the page is. A cursor from an older version 
+     * still works as long as its last question is still in the database.
+     * 
+     * @param after the cursor of the previous page, or null for the first page
+     * @return the page, or null if the cursor's last question is no longer in the database
+     */
+    TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after);
+    
+    /**
+     * Returns the page of at most limit {@link TriviaQuestion} that follows 
+     * the cursor. See {@link #getQuestionPage(TriviaQuestionCursor)}.
+     * 
+     * @param after the cursor of the previous page, or null for the first page
+     * @param limit the most questions to return
+     * @return the page, or null if the cursor's last question is no longer in the database
+     */
+    TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit);
+    
+    /**
+     * Returns the {@link TriviaQuestion} for each identifier, in the order the 
+     * identifiers were given. Identifiers without a question are skipped, and
+     * a repeated identifier is only returned once.
+     * 
+     * @param id the identifiers of the trivia questions
+     * @return the questions found in request order
      */
     List<TriviaQuestion> getSpecifiedQuestionList(long... id);
     
+    /**
+     * Looks up a batch of {@link TriviaQuestion} by identifier. Same as 
+     * {@link #getSpecifiedQuestionList(long...)}, but also reports the 
+     * identifiers that were missing or repeated.
+     * 
+     * @param id the identifiers of the trivia questions
+     * @return the questions found in request order, plus missing and repeated identifiers
+     */
+    TriviaQuestionBatch getQuestionBatch(long... id);
+    
+    /**
+     * Finds the {@link TriviaQuestion} whose question, answers or hint best 
+     * match the words of a query, best match first. Case and accents are 
+     * ignored, and so are very common words.
+     * 
+     * @param query the words to look for
+     * @param limit the most questions to return
+     * @return the matching questions, best match first
+     */
+    List<TriviaQuestion> searchQuestions(String query, int limit);
+    
     /**
      * Returns the total number of {@link TriviaQuestion} in the database
      * 
      * @return the number of trivia questions
      */
     long getQuestionListSize();
+    
+    /**
+     * Returns the number of {@link TriviaQuestion} in the database that match
+     * a filter.
+     * 
+     * @param filter the questions to count
+     * @return the number of matching trivia questions
+     */
+    long getQuestionListSize(TriviaQuestionFilter filter);
+    
+    /**
+     * Returns the version of the questions in the database. The version changes
+     * whenever the questions change, so it can key anything derived from them.
+     * 
+     * @return the version of the trivia questions
+     */
+    long getVersion();
+    
+    /**
+     * Returns the date the questions in the database last changed.
+     * 
+     * @return the date of the current version
+     */
+    Date getLastUpdated();
+    
+    /**
+     * Returns the questions as they are now, as a database that never changes.
+     * Read everything a request needs from one snapshot, so the answers all 
+     * come from the same version. A database that never changes is its own 
+     * snapshot.
+     * 
+     * @return an unchanging view of the current questions
+     */
+    TriviaQuestionAccessible getSnapshot();
 }
@@ -24,53 +24,55 @@
 package com.deegeu.trivia.model;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
 
 /**
  * Accesses the trivia question "database". This is used to test out the rest of
- * the functionality. The database is an {@link ArrayList}.
+ * the functionality. The database is an {@link ArrayList}. The list cannot be
+ * changed once it is loaded, so a single instance can be shared by every request.
  * 
  * @author DJ Spiess
  */
-public class TriviaQuestionArrayAccess implements TriviaQuestionAccessible {
-    private List<TriviaQuestion> questionList;
-    static private final int MAX_NUMBER_OF_QUESTIONS_PER_PAGE = 10;
+public class TriviaQuestionArrayAccess extends AbstractTriviaQuestionAccess {
+    private final List<TriviaQuestion> questionList;
+    private final LongIntHashMap idIndex;
+    private final long version;
+    private final Date lastUpdated = new Date();
     
     /**
      * Constructor. Loads the array with trivia questions.
      */
     public TriviaQuestionArrayAccess() {
-        this.loadQuestionArray();
+        this(loadQuestionArray());
     }
     
-    @Override
-    public TriviaQuestion getQuestionByIndex(long index) {
-        // Force conversion from long to an int intentionally.
-        return ((int) index < questionList.size()) ? questionList.get((int) index) : null;
+    /**
+     * Constructor. Uses the given trivia questions as the database. If more 
+     * than one question has the same id, the first one is found by id.
+     * 
+     * @param questions the trivia questions
+     */
+    public TriviaQuestionArrayAccess(List<TriviaQuestion> questions) {
+        this.questionList = Collections.unmodifiableList(new ArrayList<>(questions));
+        this.idIndex = buildIdIndex(this.questionList);
+        this.version = nextVersion();
     }
     
     @Override
-    public TriviaQuestion getQuestionById(long id) {
-        for (TriviaQuestion question: questionList) {
-            if (question.getId() == id) {
-                return question;
-            }
-        }
-        return null;
+    public TriviaQuestion getQuestionByIndex(long index) {
+        return (index >= 0 && index < questionList.size()) ? questionList.get((int) index) : null;
     }
     
     @Override
-    public TriviaQuestion getRandomQuestion() {
-        int index = (new Random()).nextInt(questionList.size());
-        return questionList.get(index);
+    int indexOfId(long id) {
+        return idIndex.get(id);
     }
     
     @Override
-    public List<TriviaQuestion> getQuestionList(long offset) {
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        checkLimit(limit);
         long start = offset; 
         if (start < 0) {
             start = 0;
@@ -78,39 +80,45 @@ public class TriviaQuestionArrayAccess implements TriviaQuestionAccessible {
         if (start >= questionList.size()) {
             start = questionList.size();
         }
-        long end = start + MAX_NUMBER_OF_QUESTIONS_PER_PAGE;
+        long end = start + limit;
         if (end >= questionList.size()) {
             end = questionList.size();
         }
         
         return questionList.subList((int) start, (int) end);
     }
-
-    @Override
-    public List<TriviaQuestion> getSpecifiedQuestionList(long... id) {
-
-        // Convert the var args into a List
-        final List<Long> ids = Arrays.stream(id)
-                                     .boxed()
-                                     .collect(Collectors.toList());
-
-        // Filter the question list to only have question with the given ids
-        return this.questionList.stream()
-                                .filter(p -> ids.contains(p.getId()))
-                                .collect(Collectors.toList());
-
-    }
     
     @Override
     public long getQuestionListSize() {
         return questionList.size();
     }
+    
+    @Override
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return new Date(lastUpdated.getTime());
+    }
+
+    /*
+        Maps each question id to its position in the list.
+    */
+    private static LongIntHashMap buildIdIndex(List<TriviaQuestion> questions) {
+        LongIntHashMap index = new LongIntHashMap(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            index.putIfAbsent(questions.get(i).getId(), i);
+        }
+        return index;
+    }
 
     /*
         Creates trivia questions and adds them to an array.
     */
-    private void loadQuestionArray() {
-        questionList = new ArrayList<>();
+    private static List<TriviaQuestion> loadQuestionArray() {
+        List<TriviaQuestion> questionList = new ArrayList<>();
         questionList.add((new TriviaQuestionBuilder())
             .id(0)
             .question("How many feet are in a mile?")
@@ -244,6 +252,7 @@ public class TriviaQuestionArrayAccess implements TriviaQuestionAccessible {
             .lastUpdated(new Date())    
             .build()
         );
+        return questionList;
     }
 
 }
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+/**
+ * Layout of the binary question bank file written by 
+ * {@link TriviaQuestionBankWriter} and read by {@link TriviaQuestionMappedAccess}.
+ * All numbers are big endian. Format 1 files have no difficulty or category,
+ * and their records end after the hint.
+ * 
+ * <pre>
+ * header   magic (int), format (int), question count (int), slot count (int),
+ *          last updated millis (long), records offset (long), slots offset (long),
+ *          string pool offset (long)
+ * records  one fixed size record per question: id (long), last updated millis
+ *          (long), correct answer (byte), difficulty (byte, 0 when unrated), 
+ *          2 bytes padding, then offset (int) and length (int) into the string
+ *          pool for the question, answers A to D, the hint and the category. 
+ *          A missing category has length -1.
+ * slots    open addressing id index: id (long, -1 when empty), record index (int)
+ * pool     UTF-8 string bytes
+ * </pre>
+ * 
+ * A bank is mapped as a single buffer, so it can be at most 2 GB.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionBankFormat {
+    static final int MAGIC = 0x5451424B;
+    static final int FORMAT = 2;
+    static final int FORMAT_WITHOUT_CATEGORIES = 1;
+    static final int HEADER_SIZE = 48;
+    static final long MAX_BANK_SIZE = Integer.MAX_VALUE;
+    
+    static final int HEADER_COUNT = 8;
+    static final int HEADER_SLOT_COUNT = 12;
+    static final int HEADER_LAST_UPDATED = 16;
+    static final int HEADER_RECORDS_OFFSET = 24;
+    static final int HEADER_SLOTS_OFFSET = 32;
+    static final int HEADER_POOL_OFFSET = 40;
+    
+    static final int STRING_FIELDS = 7;
+    static final int CATEGORY_FIELD = 6;
+    static final int RECORD_ID = 0;
+    static final int RECORD_LAST_UPDATED = 8;
+    static final int RECORD_CORRECT_ANSWER = 16;
+    static final int RECORD_DIFFICULTY = 17;
+    static final int RECORD_STRINGS = 20;
+    static final int RECORD_SIZE = RECORD_STRINGS + STRING_FIELDS * 8;
+    static final int RECORD_SIZE_WITHOUT_CATEGORIES = RECORD_STRINGS + CATEGORY_FIELD * 8;
+    static final int NO_STRING = -1;
+    
+    static final int SLOT_ID = 0;
+    static final int SLOT_INDEX = 8;
+    static final int SLOT_SIZE = 12;
+    static final long EMPTY_SLOT = -1L;
+    
+    private TriviaQuestionBankFormat() {
+        // constants only
+    }
+    
+    /**
+     * Returns the number of id index slots for a question count. Keeps the 
+     * index at most half full.
+     * 
+     * @param count the number of questions
+     * @return a power of two number of slots
+     */
+    static int slotCountFor(int count) {
+        int slots = 4;
+        while (slots < count * 2L) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+}
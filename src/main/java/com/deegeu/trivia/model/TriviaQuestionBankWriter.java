@@ -0,0 +1,358 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import static com.deegeu.trivia.model.TriviaQuestionBankFormat.*;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Writes trivia questions to a binary question bank file that 
+ * {@link TriviaQuestionMappedAccess} can memory map. Questions are added one at
+ * a time and the file is put in place by {@link #commit()}. Closing a writer
+ * that wasn't committed throws the partial bank away, so a failed write never
+ * replaces a good bank. Records are
+ * streamed to the file through a small buffer and strings to a temporary 
+ * pool file, so only the ids are kept in memory. The header is written last,
+ * once the offsets are known. The file is written next to the target and 
+ * moved over it with the old file's permissions, so a store that has the old
+ * file mapped is never left reading a half written bank.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionBankWriter implements Closeable {
+    private static final int RECORD_BUFFER_SIZE = RECORD_SIZE * 1024;
+    
+    final private Path bankFile;
+    final private Path tempFile;
+    final private Path poolFile;
+    final private FileChannel bank;
+    final private DataOutputStream pool;
+    final private ByteBuffer records = ByteBuffer.allocate(RECORD_BUFFER_SIZE);
+    private long[] ids = new long[1024];
+    private int count;
+    private long poolSize;
+    private long lastUpdated;
+    private boolean closed;
+    private boolean committed;
+    
+    /**
+     * Constructor. 
+     * 
+     * @param bankFile the question bank file to write
+     * @throws IOException if the temporary files can't be created
+     */
+    public TriviaQuestionBankWriter(Path bankFile) throws IOException {
+        this.bankFile = bankFile.toAbsolutePath();
+        this.tempFile = Files.createTempFile(this.bankFile.getParent(), "trivia", ".bank");
+        this.poolFile = Files.createTempFile(this.bankFile.getParent(), "trivia", ".pool");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+            // The records follow the header, which is written once the offsets are known.
+            channel.position(HEADER_SIZE);
+            this.pool = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(poolFile)));
+        } catch (IOException ie) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(poolFile);
+            throw ie;
+        }
+        this.bank = channel;
+    }
+    
+    /**
+     * Writes all the questions to a question bank file.
+     * 
+     * @param questions the questions to write
+     * @param bankFile the question bank file
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Iterable<TriviaQuestion> questions, Path bankFile) throws IOException {
+        try (TriviaQuestionBankWriter writer = new TriviaQuestionBankWriter(bankFile)) {
+            for (TriviaQuestion question : questions) {
+                writer.add(question);
+            }
+            writer.commit();
+        }
+    }
+    
+    /**
+     * Adds a question to the bank. If more than one question has the same id,
+     * the first one is found by id.
+     * 
+     * @param question the question to add
+     * @throws IOException if the record or string pool can't be written
+     */
+    public void add(TriviaQuestion question) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Question bank writer is closed.");
+        }
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count++] = question.getId();
+        lastUpdated = Math.max(lastUpdated, question.getLastUpdated().getTime());
+        
+        if (records.remaining() < RECORD_SIZE) {
+            flushRecords();
+        }
+        records.putLong(question.getId());
+        records.putLong(question.getLastUpdated().getTime());
+        records.put((byte) question.getCorrectAnswer().charAt(0));
+        records.put((byte) question.getDifficulty());
+        for (int i = RECORD_DIFFICULTY + 1; i < RECORD_STRINGS; i++) {
+            records.put((byte) 0);
+        }
+        writeString(question.getQuestion());
+        writeString(question.getAnswerA());
+        writeString(question.getAnswerB());
+        writeString(question.getAnswerC());
+        writeString(question.getAnswerD());
+        writeString(question.getHint());
+        writeString(question.getCategory());
+    }
+    
+    /**
+     * @return the number of questions added so far
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * Finishes the question bank file and moves it over the target. Call it
+     * after the last question is added. 
+     * 
+     * @throws IOException if the file can't be written, in which case the target is left as it was
+     */
+    public void commit() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Question bank writer is closed.");
+        }
+        closed = true;
+        try {
+            try {
+                pool.close();
+                flushRecords();
+                finishBank();
+            } finally {
+                bank.close();
+            }
+            copyPermissions();
+            Files.move(tempFile, bankFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        } finally {
+            Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(poolFile);
+        }
+    }
+    
+    /**
+     * Deletes the temporary files. If the writer wasn't committed, the 
+     * partial bank is thrown away and the target is left as it was.
+     * 
+     * @throws IOException if the temporary files can't be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            pool.close();
+            bank.close();
+        } finally {
+            Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(poolFile);
+        }
+    }
+    
+    /**
+     * @return true if the bank was put in place
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+    
+    /*
+        Temporary files are only readable by their owner. Give the new bank the
+        permissions of the file it replaces, or the usual ones for a new file.
+    */
+    private void copyPermissions() throws IOException {
+        try {
+            Set<PosixFilePermission> permissions = Files.exists(bankFile) 
+                    ? Files.getPosixFilePermissions(bankFile) 
+                    : PosixFilePermissions.fromString("rw-r--r--");
+            Files.setPosixFilePermissions(tempFile, permissions);
+        } catch (UnsupportedOperationException ue) {
+            // Not a POSIX file system, so the temporary file had the usual permissions.
+        }
+    }
+    
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            records.putInt((int) poolSize);
+            records.putInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt((int) poolSize);
+        records.putInt(bytes.length);
+        pool.write(bytes);
+        poolSize += bytes.length;
+    }
+    
+    private void flushRecords() throws IOException {
+        records.flip();
+        writeFully(bank, records);
+        records.clear();
+    }
+    
+    /*
+        Appends the id index and the string pool after the records, then 
+        writes the header at the start of the file.
+    */
+    private void finishBank() throws IOException {
+        int slotCount = slotCountFor(count);
+        long recordsOffset = HEADER_SIZE;
+        long slotsOffset = recordsOffset + (long) count * RECORD_SIZE;
+        long poolOffset = slotsOffset + (long) slotCount * SLOT_SIZE;
+        // The reader maps the whole bank as one buffer, see MAX_BANK_SIZE.
+        if (poolOffset + poolSize > MAX_BANK_SIZE) {
+            throw new IOException("Question bank is larger than 2 GB and can't be mapped.");
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+              .putInt(FORMAT)
+              .putInt(count)
+              .putInt(slotCount)
+              .putLong(lastUpdated)
+              .putLong(recordsOffset)
+              .putLong(slotsOffset)
+              .putLong(poolOffset)
+              .flip();
+        
+        try (FileChannel poolChannel = FileChannel.open(poolFile, StandardOpenOption.READ)) {
+            writeFully(bank, buildSlots(slotCount));
+            long transferred = 0;
+            while (transferred < poolSize) {
+                transferred += bank.transferFrom(poolChannel, poolOffset + transferred, poolSize - transferred);
+            }
+        }
+        bank.position(0);
+        writeFully(bank, header);
+    }
+    
+    /*
+        Open addressing id index, probed the same way as LongIntHashMap.
+    */
+    private ByteBuffer buildSlots(int slotCount) {
+        ByteBuffer slots = ByteBuffer.allocate(slotCount * SLOT_SIZE);
+        for (int i = 0; i < slotCount; i++) {
+            slots.putLong(i * SLOT_SIZE + SLOT_ID, EMPTY_SLOT);
+        }
+        int mask = slotCount - 1;
+        for (int index = 0; index < count; index++) {
+            int slot = LongIntHashMap.hash(ids[index]) & mask;
+            long slotId;
+            while ((slotId = slots.getLong(slot * SLOT_SIZE + SLOT_ID)) != EMPTY_SLOT && slotId != ids[index]) {
+                slot = (slot + 1) & mask;
+            }
+            if (slotId == EMPTY_SLOT) {
+                slots.putLong(slot * SLOT_SIZE + SLOT_ID, ids[index]);
+                slots.putInt(slot * SLOT_SIZE + SLOT_INDEX, index);
+            }
+        }
+        return slots;
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    /**
+     * Writes a question bank file. With one argument the sample questions are
+     * written. With two, the first is a JSON lines or CSV dump that is 
+     * imported into the bank.
+     * 
+     * @param args an optional dump file, then the question bank file to write
+     * @throws IOException if a file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: TriviaQuestionBankWriter [<questions.jsonl|questions.csv>] <bank file>");
+            System.exit(1);
+        }
+        if (args.length == 2) {
+            try (TriviaQuestionBankWriter writer = new TriviaQuestionBankWriter(Paths.get(args[1]))) {
+                TriviaQuestionImportReport report = (new TriviaQuestionImporter())
+                        .importQuestions(Paths.get(args[0]), question -> {
+                            try {
+                                writer.add(question);
+                            } catch (IOException ie) {
+                                throw new UncheckedIOException(ie);
+                            }
+                        });
+                writer.commit();
+                System.out.println(report);
+                for (TriviaQuestionImportReport.Rejection rejection : report.getRejections()) {
+                    System.out.println(rejection);
+                }
+            } catch (UncheckedIOException ue) {
+                throw ue.getCause();
+            }
+            return;
+        }
+        TriviaQuestionArrayAccess sample = new TriviaQuestionArrayAccess();
+        try (TriviaQuestionBankWriter writer = new TriviaQuestionBankWriter(Paths.get(args[0]))) {
+            for (long index = 0; index < sample.getQuestionListSize(); index++) {
+                writer.add(sample.getQuestionByIndex(index));
+            }
+            writer.commit();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of looking up a batch of {@link TriviaQuestion} by identifier. The
+ * questions are in the order they were asked for. Identifiers that were asked 
+ * for more than once, or that have no question, are reported separately. This 
+ * class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionBatch {
+    final private List<TriviaQuestion> questions;
+    final private long[] missingIds;
+    final private long[] duplicateIds;
+    
+    /**
+     * Constructor. Intentionally package scope. Batches are created by a
+     * {@link TriviaQuestionAccessible}.
+     * 
+     * @param questions the questions found, in request order
+     * @param missingIds the identifiers without a question
+     * @param duplicateIds the identifiers asked for more than once
+     */
+    TriviaQuestionBatch(List<TriviaQuestion> questions, long[] missingIds, long[] duplicateIds) {
+        this.questions = Collections.unmodifiableList(questions);
+        this.missingIds = missingIds;
+        this.duplicateIds = duplicateIds;
+    }
+    
+    /**
+     * @return the questions found, in request order, each one only once
+     */
+    public List<TriviaQuestion> getQuestions() {
+        return questions;
+    }
+    
+    /**
+     * @return the identifiers that don't have a question, in request order
+     */
+    public long[] getMissingIds() {
+        return missingIds.clone();
+    }
+    
+    /**
+     * @return the identifiers asked for more than once, once for each repeat
+     */
+    public long[] getDuplicateIds() {
+        return duplicateIds.clone();
+    }
+}
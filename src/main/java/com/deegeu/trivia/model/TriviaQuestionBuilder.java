@@ -24,7 +24,6 @@
 package com.deegeu.trivia.model;
 
 import java.util.Date;
-import java.util.HashSet;
 
 /**
  * Builder class for the {@link TriviaQuestion} class.
@@ -32,21 +31,34 @@ import java.util.HashSet;
  * @author DJ Spiess
  */
 public class TriviaQuestionBuilder {
+    final private TriviaStringPool strings;
     private long id;
     private String question;
     private String answerA;
     private String answerB;
     private String answerC;
     private String answerD;
-    private String correctAnswer;
+    private TriviaAnswer correctAnswer;
     private String hint;
+    private String category;
+    private int difficulty = TriviaQuestion.UNRATED;
     private Date lastUpdated;
     
     /**
      * Empty constructor
      */
     public TriviaQuestionBuilder() {
-        // empty
+        this(null);
+    }
+    
+    /**
+     * Constructor for bulk builds. The answers, hint and category are taken 
+     * from the pool, so questions built with the same pool share equal text.
+     * 
+     * @param strings the shared string pool, or null to keep the strings as given
+     */
+    public TriviaQuestionBuilder(TriviaStringPool strings) {
+        this.strings = strings;
     }
     
     /** 
@@ -61,7 +73,7 @@ public class TriviaQuestionBuilder {
                 || ("".equals(this.answerB) || this.answerB.trim().isEmpty())
                 || ("".equals(this.answerC) || this.answerC.trim().isEmpty())
                 || ("".equals(this.answerD) || this.answerD.trim().isEmpty())
-                || ("".equals(this.correctAnswer) || this.correctAnswer.trim().isEmpty())
+                || (this.correctAnswer == null)
                 || ("".equals(this.hint) || this.hint.trim().isEmpty())
                 || (this.lastUpdated == null)
                 ) {
@@ -77,6 +89,8 @@ public class TriviaQuestionBuilder {
                 this.answerD,
                 this.correctAnswer,
                 this.hint,
+                this.category,
+                this.difficulty,
                 this.lastUpdated
         );
     }
@@ -116,7 +130,7 @@ public class TriviaQuestionBuilder {
         if (answerA == null || answerA.trim().isEmpty()) {
            throw new IllegalArgumentException("Answer A cannot be null or empty."); 
         }
-        this.answerA = answerA;
+        this.answerA = pooled(answerA);
         return this;
     }
     
@@ -129,7 +143,7 @@ public class TriviaQuestionBuilder {
         if (answerB == null  || answerB.trim().isEmpty()) {
            throw new IllegalArgumentException("Answer B cannot be null or empty."); 
         }
-        this.answerB = answerB;
+        this.answerB = pooled(answerB);
         return this;
     }
     
@@ -142,7 +156,7 @@ public class TriviaQuestionBuilder {
         if (answerC == null  || answerC.trim().isEmpty()) {
            throw new IllegalArgumentException("Answer C cannot be null or empty."); 
         }
-        this.answerC = answerC;
+        this.answerC = pooled(answerC);
         return this;
     }
     
@@ -155,7 +169,7 @@ public class TriviaQuestionBuilder {
         if (answerD == null  || answerD.trim().isEmpty()) {
            throw new IllegalArgumentException("Answer D cannot be null or empty."); 
         }
-        this.answerD = answerD;
+        this.answerD = pooled(answerD);
         return this;
     }
     
@@ -168,15 +182,11 @@ public class TriviaQuestionBuilder {
         if (correctAnswer == null  || correctAnswer.trim().isEmpty()) {
            throw new IllegalArgumentException("Correct answer cannot be null or empty."); 
         }
-        HashSet<String> set = new HashSet<>();
-        set.add("A");
-        set.add("B");
-        set.add("C");
-        set.add("D");
-        if (!set.contains(correctAnswer)) {
+        TriviaAnswer answer = TriviaAnswer.forString(correctAnswer);
+        if (answer == null) {
            throw new IllegalArgumentException("Correct answer must be 'A', 'B', 'C' or 'D'."); 
         }
-        this.correctAnswer = correctAnswer;
+        this.correctAnswer = answer;
         return this;
     }
     
@@ -189,7 +199,36 @@ public class TriviaQuestionBuilder {
         if (hint == null  || hint.trim().isEmpty()) {
            throw new IllegalArgumentException("Hint cannot be null or empty."); 
         }
-        this.hint = hint;
+        this.hint = pooled(hint);
+        return this;
+    }
+    
+    /**
+     * Setter for {@link TriviaQuestionBuilder#category}. The category is 
+     * optional. Categories are matched without regard to case.
+     * @param category the category for the {@link TriviaQuestion}, like "History"
+     * @return a {@link TriviaQuestionBuilder} instance
+     */
+    public TriviaQuestionBuilder category(String category) {
+        if (category == null  || category.trim().isEmpty()) {
+           throw new IllegalArgumentException("Category cannot be null or empty."); 
+        }
+        this.category = pooled(category.trim());
+        return this;
+    }
+    
+    /**
+     * Setter for {@link TriviaQuestionBuilder#difficulty}. The difficulty is 
+     * optional, and questions without one are {@link TriviaQuestion#UNRATED}.
+     * @param difficulty the difficulty for the {@link TriviaQuestion}, from 1 to 5
+     * @return a {@link TriviaQuestionBuilder} instance
+     */
+    public TriviaQuestionBuilder difficulty(int difficulty) {
+        if (difficulty < TriviaQuestion.MIN_DIFFICULTY || difficulty > TriviaQuestion.MAX_DIFFICULTY) {
+           throw new IllegalArgumentException("Difficulty must be from " + TriviaQuestion.MIN_DIFFICULTY 
+                   + " to " + TriviaQuestion.MAX_DIFFICULTY + "."); 
+        }
+        this.difficulty = difficulty;
         return this;
     }
     
@@ -205,4 +244,8 @@ public class TriviaQuestionBuilder {
         this.lastUpdated = lastUpdated;
         return this;
     }
+    
+    private String pooled(String string) {
+        return (strings == null) ? string : strings.intern(string);
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps trivia questions in columns instead of objects. Ids, last updated 
+ * times, correct answers and difficulties are primitive arrays. The text is UTF-8 in one 
+ * byte pool, and text repeated across questions, like "True", a shared hint
+ * or a category, is stored once. A {@link TriviaQuestion} is made each time one is asked for.
+ * At millions of questions this takes a fraction of the heap that 
+ * {@link TriviaQuestionArrayAccess} needs, since there are no per question 
+ * objects, headers or pointers to keep.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionColumnarAccess extends AbstractTriviaQuestionAccess {
+    private static final int TEXT_FIELDS = 7;
+    private static final int CATEGORY_FIELD = 6;
+    private static final int NO_TEXT = -1;
+    
+    private final long[] ids;
+    private final long[] lastUpdated;
+    private final byte[] correctAnswers;
+    private final byte[] difficulties;
+    private final int[] textOffsets;
+    private final byte[] textPool;
+    private final LongIntHashMap idIndex;
+    private final long version;
+    private final Date created = new Date();
+    
+    /**
+     * Constructor. Intentionally private. Use {@link Builder}.
+     */
+    private TriviaQuestionColumnarAccess(Builder builder) {
+        this.ids = Arrays.copyOf(builder.ids, builder.count);
+        this.lastUpdated = Arrays.copyOf(builder.lastUpdated, builder.count);
+        this.correctAnswers = Arrays.copyOf(builder.correctAnswers, builder.count);
+        this.difficulties = Arrays.copyOf(builder.difficulties, builder.count);
+        this.textOffsets = Arrays.copyOf(builder.textOffsets, builder.count * TEXT_FIELDS);
+        this.textPool = Arrays.copyOf(builder.textPool, builder.poolSize);
+        this.idIndex = new LongIntHashMap(builder.count);
+        for (int i = 0; i < builder.count; i++) {
+            idIndex.putIfAbsent(ids[i], i);
+        }
+        this.version = nextVersion();
+    }
+    
+    /**
+     * Copies questions into a columnar store. If more than one question has 
+     * the same id, the first one is found by id.
+     * 
+     * @param questions the trivia questions
+     * @return the store
+     */
+    public static TriviaQuestionColumnarAccess of(Iterable<TriviaQuestion> questions) {
+        Builder builder = new Builder();
+        for (TriviaQuestion question : questions) {
+            builder.add(question);
+        }
+        return builder.build();
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        if (index < 0 || index >= ids.length) {
+            return null;
+        }
+        int i = (int) index;
+        int text = i * TEXT_FIELDS;
+        return new TriviaQuestion(ids[i], 
+                readText(textOffsets[text]),
+                readText(textOffsets[text + 1]),
+                readText(textOffsets[text + 2]),
+                readText(textOffsets[text + 3]),
+                readText(textOffsets[text + 4]),
+                TriviaAnswer.forCode(correctAnswers[i]),
+                readText(textOffsets[text + 5]),
+                readText(textOffsets[text + CATEGORY_FIELD]),
+                difficulties[i],
+                new Date(lastUpdated[i]));
+    }
+    
+    @Override
+    String getCategoryByIndex(int index) {
+        return readText(textOffsets[index * TEXT_FIELDS + CATEGORY_FIELD]);
+    }
+    
+    @Override
+    int getDifficultyByIndex(int index) {
+        return difficulties[index];
+    }
+    
+    @Override
+    TriviaAnswer getCorrectAnswerByIndex(int index) {
+        return TriviaAnswer.forCode(correctAnswers[index]);
+    }
+    
+    @Override
+    int indexOfId(long id) {
+        return idIndex.get(id);
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return ids.length;
+    }
+    
+    @Override
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return new Date(created.getTime());
+    }
+    
+    /*
+        Pool entries are a variable length byte count followed by the UTF-8 bytes.
+    */
+    private String readText(int offset) {
+        if (offset == NO_TEXT) {
+            return null;
+        }
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = textPool[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return new String(textPool, offset, length, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Builds a {@link TriviaQuestionColumnarAccess} one question at a time, so
+     * a large bank can be loaded without holding every question as an object.
+     * Text up to {@link #MAX_SHARED_TEXT_LENGTH} characters is shared between
+     * questions. Longer text, like the questions themselves, rarely repeats, 
+     * so it isn't worth remembering. A builder isn't thread safe.
+     */
+    public static class Builder {
+        /** The longest text that is shared between questions. */
+        public static final int MAX_SHARED_TEXT_LENGTH = 64;
+        private static final int MAX_POOL_SIZE = Integer.MAX_VALUE - 8;
+        
+        private long[] ids = new long[1024];
+        private long[] lastUpdated = new long[1024];
+        private byte[] correctAnswers = new byte[1024];
+        private byte[] difficulties = new byte[1024];
+        private int[] textOffsets = new int[1024 * TEXT_FIELDS];
+        private byte[] textPool = new byte[64 * 1024];
+        private final Map<String, Integer> sharedText = new HashMap<>();
+        private int count;
+        private int poolSize;
+        
+        /**
+         * Adds a question.
+         * 
+         * @param question the question to add
+         * @return this builder
+         * @throws IllegalStateException if the text doesn't fit in 2 GB
+         */
+        public Builder add(TriviaQuestion question) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lastUpdated = Arrays.copyOf(lastUpdated, capacity);
+                correctAnswers = Arrays.copyOf(correctAnswers, capacity);
+                difficulties = Arrays.copyOf(difficulties, capacity);
+                textOffsets = Arrays.copyOf(textOffsets, capacity * TEXT_FIELDS);
+            }
+            ids[count] = question.getId();
+            lastUpdated[count] = question.getLastUpdated().getTime();
+            correctAnswers[count] = question.getCorrectChoice().getCode();
+            difficulties[count] = (byte) question.getDifficulty();
+            int text = count * TEXT_FIELDS;
+            textOffsets[text] = addText(question.getQuestion());
+            textOffsets[text + 1] = addText(question.getAnswerA());
+            textOffsets[text + 2] = addText(question.getAnswerB());
+            textOffsets[text + 3] = addText(question.getAnswerC());
+            textOffsets[text + 4] = addText(question.getAnswerD());
+            textOffsets[text + 5] = addText(question.getHint());
+            textOffsets[text + CATEGORY_FIELD] = (question.getCategory() != null) 
+                    ? addText(question.getCategory()) : NO_TEXT;
+            count++;
+            return this;
+        }
+        
+        /**
+         * @return the number of questions added so far
+         */
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * @return a store with the questions added so far
+         */
+        public TriviaQuestionColumnarAccess build() {
+            return new TriviaQuestionColumnarAccess(this);
+        }
+        
+        private int addText(String value) {
+            boolean shared = value.length() <= MAX_SHARED_TEXT_LENGTH;
+            if (shared) {
+                Integer offset = sharedText.get(value);
+                if (offset != null) {
+                    return offset;
+                }
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if ((long) poolSize + bytes.length + 5 > MAX_POOL_SIZE) {
+                throw new IllegalStateException("Question text is larger than 2 GB.");
+            }
+            if (poolSize + bytes.length + 5 > textPool.length) {
+                long capacity = Math.max((long) textPool.length * 2, poolSize + bytes.length + 5L);
+                textPool = Arrays.copyOf(textPool, (int) Math.min(capacity, MAX_POOL_SIZE));
+            }
+            int offset = poolSize;
+            int length = bytes.length;
+            while (length > 0x7F) {
+                textPool[poolSize++] = (byte) ((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            textPool[poolSize++] = (byte) length;
+            System.arraycopy(bytes, 0, textPool, poolSize, bytes.length);
+            poolSize += bytes.length;
+            if (shared) {
+                sharedText.put(value, offset);
+            }
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Marks where a page of questions ended, so the next page can start right 
+ * after it. A cursor is the id of the last question on a page and the version
+ * of the questions the page came from. Clients see it as an opaque token. 
+ * Finding the next page is one id lookup however deep the page is. This class 
+ * is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionCursor {
+    private static final int TOKEN_BYTES = 16;
+    
+    final private long lastId;
+    final private long version;
+    
+    /**
+     * Constructor. 
+     * 
+     * @param lastId the id of the last question on the page
+     * @param version the version of the questions the page came from
+     */
+    public TriviaQuestionCursor(long lastId, long version) {
+        this.lastId = lastId;
+        this.version = version;
+    }
+    
+    /**
+     * Reads a cursor from a token made by {@link #toToken()}.
+     * 
+     * @param token the cursor token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a cursor token
+     */
+    public static TriviaQuestionCursor parse(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException ie) {
+            throw new IllegalArgumentException("Not a cursor token: " + token, ie);
+        }
+        if (bytes.length != TOKEN_BYTES) {
+            throw new IllegalArgumentException("Not a cursor token: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new TriviaQuestionCursor(buffer.getLong(), buffer.getLong());
+    }
+    
+    /**
+     * @return the cursor as a URL safe token
+     */
+    public String toToken() {
+        byte[] bytes = ByteBuffer.allocate(TOKEN_BYTES).putLong(lastId).putLong(version).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    /**
+     * @return the id of the last question on the page
+     */
+    public long getLastId() {
+        return lastId;
+    }
+    
+    /**
+     * @return the version of the questions the page came from
+     */
+    public long getVersion() {
+        return version;
+    }
+}
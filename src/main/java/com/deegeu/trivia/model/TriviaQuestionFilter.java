@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Picks the trivia questions with a category, a difficulty, or both. 
+ * Categories are matched without regard to case. This class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionFilter {
+    /** The filter that matches every question. */
+    public static final TriviaQuestionFilter ALL = new TriviaQuestionFilter(null, TriviaQuestion.UNRATED);
+    
+    final private String category;
+    final private int difficulty;
+    
+    /**
+     * Constructor.
+     * 
+     * @param category the category to match, or null for any category
+     * @param difficulty the difficulty to match, or {@link TriviaQuestion#UNRATED} for any difficulty
+     * @throws IllegalArgumentException if the difficulty is out of range
+     */
+    public TriviaQuestionFilter(String category, int difficulty) {
+        if (difficulty != TriviaQuestion.UNRATED 
+                && (difficulty < TriviaQuestion.MIN_DIFFICULTY || difficulty > TriviaQuestion.MAX_DIFFICULTY)) {
+            throw new IllegalArgumentException("Difficulty must be from " + TriviaQuestion.MIN_DIFFICULTY 
+                    + " to " + TriviaQuestion.MAX_DIFFICULTY + ".");
+        }
+        this.category = (category == null || category.trim().isEmpty()) ? null : toKey(category);
+        this.difficulty = difficulty;
+    }
+    
+    /**
+     * Returns the key a category is indexed by.
+     * 
+     * @param category a category
+     * @return the category trimmed and in lower case
+     */
+    static String toKey(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * @return the category key to match, or null for any category
+     */
+    public String getCategory() {
+        return category;
+    }
+    
+    /**
+     * @return the difficulty to match, or {@link TriviaQuestion#UNRATED} for any difficulty
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+    
+    /**
+     * @return true if the filter matches every question
+     */
+    public boolean isAll() {
+        return category == null && difficulty == TriviaQuestion.UNRATED;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(category) + difficulty;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof TriviaQuestionFilter)) {
+            return false;
+        }
+        TriviaQuestionFilter other = (TriviaQuestionFilter) obj;
+        return Objects.equals(category, other.category) && difficulty == other.difficulty;
+    }
+    
+    @Override
+    public String toString() {
+        return "category=" + category + ", difficulty=" + difficulty;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a {@link TriviaQuestionImporter} run: how many records were
+ * accepted, which were rejected and why, and how fast the import went. Only the 
+ * first rejections are kept, but all of them are counted. This class is 
+ * immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionImportReport {
+    /** The most rejections kept in a report. */
+    public static final int MAX_REPORTED_REJECTIONS = 1000;
+    
+    final private long acceptedCount;
+    final private long rejectedCount;
+    final private List<Rejection> rejections;
+    final private long elapsedNanos;
+    
+    /**
+     * Constructor. Intentionally package scope. Reports are created by the 
+     * {@link TriviaQuestionImporter}.
+     */
+    TriviaQuestionImportReport(long acceptedCount, long rejectedCount, 
+            List<Rejection> rejections, long elapsedNanos) {
+        this.acceptedCount = acceptedCount;
+        this.rejectedCount = rejectedCount;
+        this.rejections = Collections.unmodifiableList(new ArrayList<>(rejections));
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * @return the number of questions imported
+     */
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+    
+    /**
+     * @return the number of records rejected
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+    
+    /**
+     * @return the first rejected records, in file order
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+    
+    /**
+     * @return the time the import took in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    /**
+     * @return the number of records, accepted or rejected, read per second
+     */
+    public double getRecordsPerSecond() {
+        return (acceptedCount + rejectedCount) * 1e9 / Math.max(elapsedNanos, 1L);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Imported %d questions, rejected %d records, %.0f records/s",
+                acceptedCount, rejectedCount, getRecordsPerSecond());
+    }
+    
+    /**
+     * A record that could not be imported.
+     */
+    final public static class Rejection {
+        final private long lineNumber;
+        final private String reason;
+        
+        Rejection(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+        
+        /**
+         * @return the line the record starts on, counting from 1
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+        
+        /**
+         * @return why the record was rejected
+         */
+        public String getReason() {
+            return reason;
+        }
+        
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
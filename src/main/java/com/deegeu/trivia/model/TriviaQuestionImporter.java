@@ -0,0 +1,644 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Imports trivia questions from JSON lines or CSV dumps. The file is read on 
+ * the calling thread and cut into chunks of records. Chunks are parsed and 
+ * validated through {@link TriviaQuestionBuilder} in parallel on a 
+ * {@link ForkJoinPool}, and only a few chunks are in flight at once, so memory
+ * use doesn't grow with the file. The chunks of an import share a 
+ * {@link TriviaStringPool}, so repeated answers and hints are kept once. Accepted questions are handed to the sink in
+ * file order. Rejected records are reported with their line numbers. When a
+ * dump is imported again, the questions already held can be passed in, and a 
+ * record with the same id and last updated date as one of them is handed on
+ * as that question instead of being built again.
+ * 
+ * <p>Each JSON line is an object with the properties id, question, answerA, 
+ * answerB, answerC, answerD, correctAnswer, hint and lastUpdated, and 
+ * optionally category and difficulty. A CSV file starts with a header row 
+ * naming the same columns. Quoted CSV fields may span up to 100 lines. The lastUpdated 
+ * value is either epoch milliseconds or an ISO-8601 instant. If it is left 
+ * out, the time of the import is used. The difficulty is a number from 1 to 
+ * 5.</p>
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionImporter {
+    
+    /**
+     * The supported dump formats.
+     */
+    public enum Format {
+        JSON_LINES, CSV;
+        
+        /**
+         * @param file a dump file
+         * @return CSV for files ending in .csv, JSON lines for anything else
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : JSON_LINES;
+        }
+    }
+    
+    static final String[] FIELDS = {"id", "question", "answerA", "answerB", "answerC", 
+        "answerD", "correctAnswer", "hint", "lastUpdated", "category", "difficulty"};
+    private static final int ID = 0;
+    private static final int QUESTION = 1;
+    private static final int ANSWER_A = 2;
+    private static final int ANSWER_B = 3;
+    private static final int ANSWER_C = 4;
+    private static final int ANSWER_D = 5;
+    private static final int CORRECT_ANSWER = 6;
+    private static final int HINT = 7;
+    private static final int LAST_UPDATED = 8;
+    private static final int CATEGORY = 9;
+    private static final int DIFFICULTY = 10;
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+    /* A quoted CSV field longer than this is taken to be a stray quote. */
+    static final int MAX_RECORD_LINES = 100;
+    private static final int MAX_RECORD_CHARS = 1 << 16;
+    
+    final private ForkJoinPool pool;
+    final private int chunkSize;
+    final private int maxChunksInFlight;
+    
+    /**
+     * Constructor. Uses the common pool.
+     */
+    public TriviaQuestionImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param pool the pool that parses chunks
+     * @param chunkSize the number of records in a chunk
+     */
+    public TriviaQuestionImporter(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size can't be less than 1");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = pool.getParallelism() * 2;
+    }
+    
+    /**
+     * Imports a dump file. The format is picked from the file name.
+     * 
+     * @param file the JSON lines or CSV file
+     * @param sink receives the accepted questions in file order
+     * @return the import report
+     * @throws IOException if the file can't be read, or a CSV header is missing a column
+     */
+    public TriviaQuestionImportReport importQuestions(Path file, Consumer<TriviaQuestion> sink) throws IOException {
+        return importQuestions(file, null, sink);
+    }
+    
+    /**
+     * Imports a dump file again. The format is picked from the file name. 
+     * Records that match a current question by id and last updated date are
+     * handed to the sink as the current question, and aren't validated or 
+     * built again.
+     * 
+     * @param file the JSON lines or CSV file
+     * @param current the questions already held, or null to build every question
+     * @param sink receives the accepted questions in file order
+     * @return the import report
+     * @throws IOException if the file can't be read, or a CSV header is missing a column
+     */
+    public TriviaQuestionImportReport importQuestions(Path file, TriviaQuestionAccessible current, 
+            Consumer<TriviaQuestion> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importQuestions(reader, Format.forFile(file), current, sink);
+        }
+    }
+    
+    /**
+     * Imports a dump.
+     * 
+     * @param reader the dump
+     * @param format the dump format
+     * @param sink receives the accepted questions in file order
+     * @return the import report
+     * @throws IOException if the dump can't be read, or a CSV header is missing a column
+     */
+    public TriviaQuestionImportReport importQuestions(BufferedReader reader, Format format, 
+            Consumer<TriviaQuestion> sink) throws IOException {
+        return importQuestions(reader, format, null, sink);
+    }
+    
+    /**
+     * Imports a dump again. See 
+     * {@link #importQuestions(Path, TriviaQuestionAccessible, Consumer)}.
+     * 
+     * @param reader the dump
+     * @param format the dump format
+     * @param current the questions already held, or null to build every question
+     * @param sink receives the accepted questions in file order
+     * @return the import report
+     * @throws IOException if the dump can't be read, or a CSV header is missing a column
+     */
+    public TriviaQuestionImportReport importQuestions(BufferedReader reader, Format format, 
+            TriviaQuestionAccessible current, Consumer<TriviaQuestion> sink) throws IOException {
+        TriviaQuestionAccessible known = (current != null) ? current.getSnapshot() : null;
+        long started = System.nanoTime();
+        Results results = new Results(sink);
+        Date importDate = new Date();
+        TriviaStringPool strings = new TriviaStringPool();
+        int[] columns = null;
+        long lineNumber = 0;
+        
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            columns = parseCsvHeader(header);
+        }
+        
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        Chunk chunk = new Chunk(chunkSize);
+        List<String> pending = new ArrayList<>();
+        ArrayDeque<String> replay = new ArrayDeque<>();
+        long pendingLine = 0;
+        int pendingChars = 0;
+        while (true) {
+            String line = replay.isEmpty() ? reader.readLine() : replay.poll();
+            if (line == null && pending.isEmpty()) {
+                break;
+            }
+            if (line != null) {
+                lineNumber++;
+            }
+            String record = line;
+            long recordLine = lineNumber;
+            if (format == Format.CSV) {
+                // A quoted field can hold line breaks, so join lines until the quotes close.
+                boolean flipsQuote = (line != null) && hasOddQuotes(line);
+                if (pending.isEmpty()) {
+                    if (flipsQuote) {
+                        pending.add(line);
+                        pendingLine = lineNumber;
+                        pendingChars = line.length();
+                        continue;
+                    }
+                } else {
+                    if (line != null) {
+                        pending.add(line);
+                        pendingChars += line.length() + 1;
+                    }
+                    if (!flipsQuote) {
+                        if (line == null || pending.size() >= MAX_RECORD_LINES || pendingChars > MAX_RECORD_CHARS) {
+                            /*
+                                The quote is most likely a stray one. Reject its
+                                line and parse the lines after it again, so the 
+                                records that follow aren't lost.
+                            */
+                            chunk.reject(pendingLine, (line == null) 
+                                    ? "Quoted field is not closed before the end of the file." 
+                                    : "Quoted field is not closed within " + MAX_RECORD_LINES + " lines.");
+                            for (int i = pending.size() - 1; i > 0; i--) {
+                                replay.addFirst(pending.get(i));
+                            }
+                            lineNumber = pendingLine;
+                            pending.clear();
+                        }
+                        continue;
+                    }
+                    record = String.join("\n", pending);
+                    recordLine = pendingLine;
+                    pending.clear();
+                }
+            }
+            if (record.trim().isEmpty()) {
+                continue;
+            }
+            chunk.add(record, recordLine);
+            if (chunk.isFull()) {
+                inFlight.add(submit(chunk, format, columns, importDate, strings, known));
+                chunk = new Chunk(chunkSize);
+                if (inFlight.size() >= maxChunksInFlight) {
+                    results.drain(inFlight.poll().join());
+                }
+            }
+        }
+        inFlight.add(submit(chunk, format, columns, importDate, strings, known));
+        while (!inFlight.isEmpty()) {
+            results.drain(inFlight.poll().join());
+        }
+        return results.toReport(System.nanoTime() - started);
+    }
+    
+    private ForkJoinTask<Chunk> submit(Chunk chunk, Format format, int[] columns, Date importDate, 
+            TriviaStringPool strings, TriviaQuestionAccessible known) {
+        return pool.submit(() -> chunk.parse(format, columns, importDate, strings, known));
+    }
+    
+    /*
+        Maps each CSV column to its field, or -1 for columns that aren't used.
+    */
+    private static int[] parseCsvHeader(String header) throws IOException {
+        if (header == null) {
+            throw new IOException("CSV file is empty. A header row is required.");
+        }
+        List<String> names = parseCsv(header);
+        int[] columns = new int[names.size()];
+        boolean[] found = new boolean[FIELDS.length];
+        for (int i = 0; i < names.size(); i++) {
+            columns[i] = fieldIndex(names.get(i).trim());
+            if (columns[i] >= 0) {
+                found[columns[i]] = true;
+            }
+        }
+        for (int field = 0; field < LAST_UPDATED; field++) {
+            if (!found[field]) {
+                throw new IOException("CSV header is missing the " + FIELDS[field] + " column.");
+            }
+        }
+        return columns;
+    }
+    
+    private static int fieldIndex(String name) {
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (FIELDS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /*
+        Builds a question from its field values. The builder does the 
+        validation. A known question with the same id and last updated date
+        is returned instead.
+    */
+    static TriviaQuestion build(String[] values, Date importDate, TriviaStringPool strings, 
+            TriviaQuestionAccessible known) {
+        if (values[ID] == null) {
+            throw new IllegalArgumentException("Id is required.");
+        }
+        long id;
+        try {
+            id = Long.parseLong(values[ID].trim());
+        } catch (NumberFormatException ne) {
+            throw new IllegalArgumentException("Id is not a number: " + values[ID]);
+        }
+        Date lastUpdated = parseDate(values[LAST_UPDATED], importDate);
+        if (known != null) {
+            TriviaQuestion question = known.getQuestionById(id);
+            if (question != null && question.getLastUpdated().equals(lastUpdated)) {
+                return question;
+            }
+        }
+        TriviaQuestionBuilder builder = new TriviaQuestionBuilder(strings);
+        if (values[CATEGORY] != null && !values[CATEGORY].trim().isEmpty()) {
+            builder.category(values[CATEGORY]);
+        }
+        if (values[DIFFICULTY] != null && !values[DIFFICULTY].trim().isEmpty()) {
+            try {
+                builder.difficulty(Integer.parseInt(values[DIFFICULTY].trim()));
+            } catch (NumberFormatException ne) {
+                throw new IllegalArgumentException("Difficulty is not a number: " + values[DIFFICULTY]);
+            }
+        }
+        return builder
+                .id(id)
+                .question(values[QUESTION])
+                .answerA(values[ANSWER_A])
+                .answerB(values[ANSWER_B])
+                .answerC(values[ANSWER_C])
+                .answerD(values[ANSWER_D])
+                .correctAnswer(values[CORRECT_ANSWER])
+                .hint(values[HINT])
+                .lastUpdated(lastUpdated)
+                .build();
+    }
+    
+    private static Date parseDate(String value, Date importDate) {
+        if (value == null || value.trim().isEmpty()) {
+            return importDate;
+        }
+        String date = value.trim();
+        try {
+            if (Character.isDigit(date.charAt(date.length() - 1)) && date.indexOf('-', 1) < 0) {
+                return new Date(Long.parseLong(date));
+            }
+            return Date.from(Instant.parse(date));
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Last updated is not a date: " + value);
+        }
+    }
+    
+    /*
+        True if a line opens or closes a quoted CSV field. Escaped quotes come
+        in pairs, so counting quotes is enough.
+    */
+    private static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+    
+    /*
+        Splits an RFC 4180 CSV record into its fields.
+    */
+    static List<String> parseCsv(String record) {
+        List<String> fields = new ArrayList<>(FIELDS.length);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    /*
+        Reads the fields of a flat JSON object. Strings, numbers, booleans and
+        null are supported. Unknown properties are skipped.
+    */
+    static String[] parseJson(String record) {
+        String[] values = new String[FIELDS.length];
+        JsonCursor json = new JsonCursor(record);
+        json.expect('{');
+        if (!json.consume('}')) {
+            do {
+                String name = json.readString();
+                json.expect(':');
+                String value = json.readValue();
+                int field = fieldIndex(name);
+                if (field >= 0) {
+                    values[field] = value;
+                }
+            } while (json.consume(','));
+            json.expect('}');
+        }
+        json.expectEnd();
+        return values;
+    }
+    
+    /*
+        A batch of records and their line numbers, parsed as one task.
+    */
+    private static final class Chunk {
+        final private String[] records;
+        final private long[] lines;
+        private int count;
+        private TriviaQuestion[] questions;
+        private int questionCount;
+        final private List<TriviaQuestionImportReport.Rejection> rejections = new ArrayList<>();
+        
+        Chunk(int size) {
+            records = new String[size];
+            lines = new long[size];
+        }
+        
+        void add(String record, long line) {
+            records[count] = record;
+            lines[count] = line;
+            count++;
+        }
+        
+        boolean isFull() {
+            return count == records.length;
+        }
+        
+        void reject(long line, String reason) {
+            rejections.add(new TriviaQuestionImportReport.Rejection(line, reason));
+        }
+        
+        Chunk parse(Format format, int[] columns, Date importDate, TriviaStringPool strings, 
+                TriviaQuestionAccessible known) {
+            questions = new TriviaQuestion[count];
+            List<TriviaQuestionImportReport.Rejection> late = new ArrayList<>(rejections);
+            rejections.clear();
+            for (int i = 0; i < count; i++) {
+                try {
+                    String[] values = (format == Format.CSV) 
+                            ? csvValues(records[i], columns) : parseJson(records[i]);
+                    TriviaQuestion question = build(values, importDate, strings, known);
+                    questions[questionCount++] = question;
+                } catch (IllegalArgumentException | IllegalStateException ex) {
+                    reject(lines[i], ex.getMessage());
+                }
+                records[i] = null;
+            }
+            rejections.addAll(late);
+            return this;
+        }
+        
+        private static String[] csvValues(String record, int[] columns) {
+            List<String> fields = parseCsv(record);
+            if (fields.size() != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length 
+                        + " columns but found " + fields.size() + ".");
+            }
+            String[] values = new String[FIELDS.length];
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] >= 0) {
+                    values[columns[i]] = fields.get(i);
+                }
+            }
+            return values;
+        }
+    }
+    
+    /*
+        Collects chunk results in file order on the importing thread.
+    */
+    private static final class Results {
+        final private Consumer<TriviaQuestion> sink;
+        final private List<TriviaQuestionImportReport.Rejection> rejections = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        
+        Results(Consumer<TriviaQuestion> sink) {
+            this.sink = sink;
+        }
+        
+        void drain(Chunk chunk) {
+            for (int i = 0; i < chunk.questionCount; i++) {
+                sink.accept(chunk.questions[i]);
+            }
+            accepted += chunk.questionCount;
+            rejected += chunk.rejections.size();
+            for (TriviaQuestionImportReport.Rejection rejection : chunk.rejections) {
+                if (rejections.size() < TriviaQuestionImportReport.MAX_REPORTED_REJECTIONS) {
+                    rejections.add(rejection);
+                }
+            }
+        }
+        
+        TriviaQuestionImportReport toReport(long elapsedNanos) {
+            return new TriviaQuestionImportReport(accepted, rejected, rejections, elapsedNanos);
+        }
+    }
+    
+    /*
+        Minimal reader for one flat JSON object.
+    */
+    private static final class JsonCursor {
+        final private String json;
+        private int position;
+        
+        JsonCursor(String json) {
+            this.json = json;
+        }
+        
+        void expect(char c) {
+            skipWhitespace();
+            if (position >= json.length() || json.charAt(position) != c) {
+                throw error("Expected '" + c + "'");
+            }
+            position++;
+        }
+        
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+        
+        void expectEnd() {
+            skipWhitespace();
+            if (position != json.length()) {
+                throw error("Unexpected text after the object");
+            }
+        }
+        
+        String readValue() {
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw error("Expected a value");
+            }
+            char c = json.charAt(position);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Nested values are not supported");
+            }
+            int start = position;
+            while (position < json.length() && ",}] \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = json.substring(start, position);
+            if (literal.isEmpty()) {
+                throw error("Expected a value");
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+        
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > json.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        } catch (NumberFormatException ne) {
+                            throw error("Bad unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+            throw error("String is not closed");
+        }
+        
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+        
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + (position + 1) + ".");
+        }
+    }
+}
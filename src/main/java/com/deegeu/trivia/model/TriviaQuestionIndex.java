@@ -0,0 +1,223 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Secondary indexes over the questions of one unchanging store. There is a 
+ * {@link QuestionBitmap} per category and per difficulty. A filter is 
+ * answered by intersecting the bitmaps, and the intersection is kept, so a 
+ * repeated filter only picks ranks. This class is thread safe.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionIndex {
+    private static final int MAX_CACHED_FILTERS = 256;
+    
+    final private int size;
+    final private Map<String, QuestionBitmap> categories;
+    final private QuestionBitmap[] difficulties;
+    final private QuestionBitmap empty;
+    final private ConcurrentMap<TriviaQuestionFilter, QuestionBitmap> matches = new ConcurrentHashMap<>();
+    
+    private TriviaQuestionIndex(int size, Map<String, QuestionBitmap> categories, QuestionBitmap[] difficulties) {
+        this.size = size;
+        this.categories = categories;
+        this.difficulties = difficulties;
+        this.empty = QuestionBitmap.of(size, new int[0], 0);
+    }
+    
+    /**
+     * Indexes every question of a store.
+     * 
+     * @param store the store, which must not change
+     * @return the index
+     */
+    static TriviaQuestionIndex build(AbstractTriviaQuestionAccess store) {
+        int size = (int) store.getQuestionListSize();
+        Map<String, IndexList> categoryLists = new HashMap<>();
+        IndexList[] difficultyLists = new IndexList[TriviaQuestion.MAX_DIFFICULTY + 1];
+        for (int index = 0; index < size; index++) {
+            String category = store.getCategoryByIndex(index);
+            if (category != null) {
+                categoryLists.computeIfAbsent(TriviaQuestionFilter.toKey(category), key -> new IndexList())
+                        .add(index);
+            }
+            int difficulty = store.getDifficultyByIndex(index);
+            if (difficulty >= TriviaQuestion.MIN_DIFFICULTY && difficulty <= TriviaQuestion.MAX_DIFFICULTY) {
+                if (difficultyLists[difficulty] == null) {
+                    difficultyLists[difficulty] = new IndexList();
+                }
+                difficultyLists[difficulty].add(index);
+            }
+        }
+        
+        Map<String, QuestionBitmap> categories = new HashMap<>(categoryLists.size() * 2);
+        for (Map.Entry<String, IndexList> entry : categoryLists.entrySet()) {
+            categories.put(entry.getKey(), entry.getValue().toBitmap(size));
+        }
+        QuestionBitmap[] difficulties = new QuestionBitmap[difficultyLists.length];
+        for (int difficulty = 0; difficulty < difficultyLists.length; difficulty++) {
+            if (difficultyLists[difficulty] != null) {
+                difficulties[difficulty] = difficultyLists[difficulty].toBitmap(size);
+            }
+        }
+        return new TriviaQuestionIndex(size, categories, difficulties);
+    }
+    
+    /**
+     * Counts the questions a filter matches.
+     * 
+     * @param filter the filter
+     * @return the number of questions
+     */
+    int count(TriviaQuestionFilter filter) {
+        return filter.isAll() ? size : find(filter).getCardinality();
+    }
+    
+    /**
+     * Returns a page of the questions a filter matches, in store order.
+     * 
+     * @param filter the filter
+     * @param offset the number of matching questions to skip
+     * @param limit the most questions to return
+     * @return the question indexes
+     */
+    int[] page(TriviaQuestionFilter filter, long offset, int limit) {
+        int from = (int) Math.min(Math.max(offset, 0L), size);
+        if (filter.isAll()) {
+            int[] range = new int[Math.min(limit, size - from)];
+            for (int i = 0; i < range.length; i++) {
+                range[i] = from + i;
+            }
+            return range;
+        }
+        return find(filter).select(from, limit);
+    }
+    
+    /**
+     * Draws distinct questions a filter matches, in a random order. Uses 
+     * Floyd's algorithm to pick the ranks, so the cost depends on the number
+     * drawn, plus one pass over a dense intersection.
+     * 
+     * @param filter the filter
+     * @param count the most questions to draw
+     * @return the question indexes
+     */
+    int[] sample(TriviaQuestionFilter filter, int count) {
+        QuestionBitmap matching = filter.isAll() ? null : find(filter);
+        int population = (matching == null) ? size : matching.getCardinality();
+        int drawn = Math.min(count, population);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        int[] ranks = new int[drawn];
+        LongIntHashMap chosen = new LongIntHashMap(drawn);
+        for (int i = 0, j = population - drawn; i < drawn; i++, j++) {
+            int rank = random.nextInt(j + 1);
+            if (!chosen.putIfAbsent(rank, i)) {
+                rank = j;
+                chosen.putIfAbsent(rank, i);
+            }
+            ranks[i] = rank;
+        }
+        Arrays.sort(ranks);
+        int[] indexes = (matching == null) ? ranks : matching.selectRanks(ranks);
+        for (int i = indexes.length - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int index = indexes[swap];
+            indexes[swap] = indexes[i];
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+    
+    /**
+     * @return the approximate number of bytes the category and difficulty bitmaps take
+     */
+    long getSizeInBytes() {
+        long bytes = 0;
+        for (QuestionBitmap bitmap : categories.values()) {
+            bytes += bitmap.getSizeInBytes();
+        }
+        for (QuestionBitmap bitmap : difficulties) {
+            bytes += (bitmap != null) ? bitmap.getSizeInBytes() : 0;
+        }
+        return bytes;
+    }
+    
+    /*
+        The questions that match a filter other than ALL. 
+    */
+    private QuestionBitmap find(TriviaQuestionFilter filter) {
+        QuestionBitmap found = matches.get(filter);
+        if (found != null) {
+            return found;
+        }
+        QuestionBitmap byCategory = (filter.getCategory() != null) 
+                ? categories.getOrDefault(filter.getCategory(), empty) : null;
+        QuestionBitmap byDifficulty = (filter.getDifficulty() != TriviaQuestion.UNRATED) 
+                ? difficulties[filter.getDifficulty()] : null;
+        if (filter.getDifficulty() != TriviaQuestion.UNRATED && byDifficulty == null) {
+            byDifficulty = empty;
+        }
+        if (byCategory == null) {
+            return byDifficulty;
+        }
+        if (byDifficulty == null) {
+            return byCategory;
+        }
+        found = byCategory.and(byDifficulty);
+        if (matches.size() >= MAX_CACHED_FILTERS) {
+            // Categories come from the client, so don't let it grow without bound.
+            matches.clear();
+        }
+        matches.put(filter, found);
+        return found;
+    }
+    
+    /*
+        A growing list of increasing question indexes.
+    */
+    private static final class IndexList {
+        private int[] indexes = new int[16];
+        private int count;
+        
+        void add(int index) {
+            if (count == indexes.length) {
+                indexes = Arrays.copyOf(indexes, count * 2);
+            }
+            indexes[count++] = index;
+        }
+        
+        QuestionBitmap toBitmap(int size) {
+            return QuestionBitmap.of(size, indexes, count);
+        }
+    }
+}
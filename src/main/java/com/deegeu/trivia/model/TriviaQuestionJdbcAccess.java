@@ -0,0 +1,656 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ObjIntConsumer;
+import javax.sql.DataSource;
+
+/**
+ * Reads trivia questions from a relational database through JDBC. Each 
+ * question is a row of the trivia_question table:
+ * <pre>
+ * CREATE TABLE trivia_question (
+ *     id BIGINT PRIMARY KEY,
+ *     question VARCHAR(1000) NOT NULL,
+ *     answer_a VARCHAR(500),
+ *     answer_b VARCHAR(500),
+ *     answer_c VARCHAR(500),
+ *     answer_d VARCHAR(500),
+ *     correct_answer CHAR(1) NOT NULL,
+ *     hint VARCHAR(1000),
+ *     category VARCHAR(100),
+ *     difficulty INT,
+ *     last_updated TIMESTAMP NOT NULL
+ * )
+ * </pre>
+ * Opening the store reads the ids in order, so sizes, cursors and lookups of
+ * missing ids never touch the database, and the questions are listed by id.
+ * Questions looked up by id are kept in a bounded CLOCK cache, so hot 
+ * questions are read once. Lists and pages are read with one range query on 
+ * the id, and aren't cached, so a scan doesn't push the hot questions out.
+ * Filtered lists seek to a marked id near the offset, so their cost doesn't
+ * grow with the offset. Batches are read with one IN query per 64 ids. Connections and the 
+ * statements prepared on them are pooled. Rows added or removed after the 
+ * store is opened show up in the store returned by {@link #reload()}, and
+ * {@link #isChanged()} tells whether a reload would find anything new.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionJdbcAccess extends AbstractTriviaQuestionAccess implements AutoCloseable {
+    /** The most questions cached when no cache size is given. */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+    
+    /** The most connections kept open while unused. */
+    public static final int POOL_SIZE = 8;
+    
+    static final int MAX_BATCH = 64;
+    private static final int MAX_STATEMENTS = 32;
+    private static final int SCAN_FETCH_SIZE = 1000;
+    private static final int MARK_STRIDE = 128;
+    private static final int MAX_MARKED_FILTERS = 256;
+    
+    private static final String COLUMNS = "id, question, answer_a, answer_b, answer_c, answer_d, "
+            + "correct_answer, hint, category, difficulty, last_updated";
+    private static final String SELECT_IDS = "SELECT id, last_updated FROM trivia_question ORDER BY id";
+    private static final String SELECT_SUMMARY = "SELECT COUNT(*), MAX(last_updated) FROM trivia_question";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM trivia_question ORDER BY id";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM trivia_question WHERE id = ?";
+    private static final String SELECT_ANSWER = "SELECT correct_answer FROM trivia_question WHERE id = ?";
+    private static final String SELECT_RANGE = "SELECT " + COLUMNS 
+            + " FROM trivia_question WHERE id >= ? AND id <= ? ORDER BY id";
+    /* One statement per power of two up to MAX_BATCH, so batches share a few statements. */
+    private static final String[] SELECT_IN = selectIn();
+    
+    final private JdbcConnectionPool pool;
+    final private int cacheSize;
+    final private QuestionClockCache cache;
+    final private Map<TriviaQuestionFilter, FilterMarks> marks = new ConcurrentHashMap<>();
+    final private long[] ids;
+    final private long lastUpdated;
+    final private long version;
+    
+    /**
+     * Constructor. Reads the question ids.
+     * 
+     * @param dataSource the database with the trivia_question table
+     * @throws SQLException if the ids can't be read
+     */
+    public TriviaQuestionJdbcAccess(DataSource dataSource) throws SQLException {
+        this(dataSource, DEFAULT_CACHE_SIZE);
+    }
+    
+    /**
+     * Constructor. Reads the question ids.
+     * 
+     * @param dataSource the database with the trivia_question table
+     * @param cacheSize the most questions kept in memory
+     * @throws SQLException if the ids can't be read
+     */
+    public TriviaQuestionJdbcAccess(DataSource dataSource, int cacheSize) throws SQLException {
+        this(new JdbcConnectionPool(dataSource, POOL_SIZE, MAX_STATEMENTS), cacheSize);
+    }
+    
+    private TriviaQuestionJdbcAccess(JdbcConnectionPool pool, int cacheSize) throws SQLException {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size can't be less than 0");
+        }
+        this.pool = pool;
+        this.cacheSize = cacheSize;
+        this.cache = new QuestionClockCache(cacheSize);
+        long[] latest = new long[1];
+        this.ids = pool.execute(SELECT_IDS, statement -> {
+            long[] read = new long[1024];
+            int count = 0;
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    if (count == read.length) {
+                        read = Arrays.copyOf(read, count * 2);
+                    }
+                    read[count++] = rows.getLong(1);
+                    latest[0] = Math.max(latest[0], rows.getTimestamp(2).getTime());
+                }
+            }
+            return Arrays.copyOf(read, count);
+        });
+        this.lastUpdated = latest[0];
+        this.version = nextVersion();
+    }
+    
+    /**
+     * Reads the question ids again. The new store shares this store's 
+     * connections, and starts with an empty cache.
+     * 
+     * @return a store with the questions in the database now
+     * @throws SQLException if the ids can't be read
+     */
+    public TriviaQuestionJdbcAccess reload() throws SQLException {
+        return new TriviaQuestionJdbcAccess(pool, cacheSize);
+    }
+    
+    /**
+     * Checks the row count and the latest last_updated against the ids read 
+     * when this store was opened. Rows changed without moving last_updated
+     * forward aren't noticed.
+     * 
+     * @return true if rows were added, removed or updated since the store was opened
+     * @throws SQLException if the table can't be read
+     */
+    public boolean isChanged() throws SQLException {
+        return pool.execute(SELECT_SUMMARY, statement -> {
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                Timestamp latest = rows.getTimestamp(2);
+                return rows.getLong(1) != ids.length 
+                        || (latest == null ? 0L : latest.getTime()) != lastUpdated;
+            }
+        });
+    }
+    
+    /**
+     * Closes the pooled connections. Every store reloaded from this one 
+     * shares them, so they are closed too.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        if (index < 0 || index >= ids.length) {
+            return null;
+        }
+        return getQuestionById(ids[(int) index]);
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionById(long id) {
+        if (indexOfId(id) == NOT_FOUND) {
+            return null;
+        }
+        TriviaQuestion question = cache.get(id);
+        if (question == null) {
+            question = query(SELECT_BY_ID, statement -> {
+                statement.setLong(1, id);
+                List<TriviaQuestion> rows = readQuestions(statement, true);
+                return rows.isEmpty() ? null : rows.get(0);
+            });
+        }
+        return question;
+    }
+    
+    @Override
+    TriviaAnswer getCorrectAnswerByIndex(int index) {
+        TriviaQuestion question = cache.get(ids[index]);
+        if (question != null) {
+            return question.getCorrectChoice();
+        }
+        return query(SELECT_ANSWER, statement -> {
+            statement.setLong(1, ids[index]);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? TriviaAnswer.forString(rows.getString(1)) : null;
+            }
+        });
+    }
+    
+    @Override
+    int indexOfId(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return (index >= 0) ? index : NOT_FOUND;
+    }
+    
+    /**
+     * Reads every question with one query. The questions read aren't cached,
+     * since a scan would push the hot questions out.
+     * 
+     * @param action called with each question and its index
+     */
+    @Override
+    void forEachQuestion(ObjIntConsumer<TriviaQuestion> action) {
+        query(SELECT_ALL, statement -> {
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    TriviaQuestion question = readQuestion(rows);
+                    int index = indexOfId(question.getId());
+                    if (index != NOT_FOUND) {
+                        action.accept(question, index);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        checkLimit(limit);
+        int start = (int) Math.max(0, Math.min(offset, ids.length));
+        int end = (int) Math.min(ids.length, (long) start + limit);
+        return readRange(start, end);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit) {
+        checkLimit(limit);
+        if (filter.isAll()) {
+            return getQuestionList(offset, limit);
+        }
+        FilterMarks filterMarks = marksFor(filter);
+        long start = Math.max(0, offset);
+        if (limit == 0 || start >= filterMarks.count) {
+            return Collections.emptyList();
+        }
+        int skip = (int) (start % MARK_STRIDE);
+        String sql = "SELECT " + COLUMNS + " FROM trivia_question" + where(filter) 
+                + " AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+        return query(sql, statement -> {
+            int parameter = bind(statement, filter);
+            statement.setLong(parameter, filterMarks.after[(int) (start / MARK_STRIDE)]);
+            statement.setInt(parameter + 1, skip + limit);
+            List<TriviaQuestion> rows = readQuestions(statement, false);
+            return Collections.unmodifiableList(rows.subList(Math.min(skip, rows.size()), rows.size()));
+        });
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return ids.length;
+    }
+    
+    @Override
+    public long getQuestionListSize(TriviaQuestionFilter filter) {
+        if (filter.isAll()) {
+            return getQuestionListSize();
+        }
+        return marksFor(filter).count;
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit) {
+        checkLimit(limit);
+        int start = 0;
+        if (after != null) {
+            int lastIndex = indexOfId(after.getLastId());
+            if (lastIndex == NOT_FOUND) {
+                return null;
+            }
+            start = lastIndex + 1;
+        }
+        int end = (int) Math.min(ids.length, (long) start + limit);
+        List<TriviaQuestion> questions = readRange(start, end);
+        TriviaQuestionCursor next = (end < ids.length && !questions.isEmpty()) 
+                ? new TriviaQuestionCursor(questions.get(questions.size() - 1).getId(), version) 
+                : null;
+        return new TriviaQuestionPage(questions, next, version);
+    }
+    
+    @Override
+    public TriviaQuestionBatch getQuestionBatch(long... id) {
+        long[] missing = new long[id.length];
+        long[] duplicates = new long[id.length];
+        long[] unique = new long[id.length];
+        int missingCount = 0;
+        int duplicateCount = 0;
+        int uniqueCount = 0;
+        
+        LongIntHashMap requested = new LongIntHashMap(id.length);
+        for (int i = 0; i < id.length; i++) {
+            if (indexOfId(id[i]) == NOT_FOUND) {
+                missing[missingCount++] = id[i];
+            } else if (!requested.putIfAbsent(id[i], i)) {
+                duplicates[duplicateCount++] = id[i];
+            } else {
+                unique[uniqueCount++] = id[i];
+            }
+        }
+        
+        Map<Long, TriviaQuestion> read = readQuestions(unique, uniqueCount);
+        List<TriviaQuestion> found = new ArrayList<>(uniqueCount);
+        for (int i = 0; i < uniqueCount; i++) {
+            TriviaQuestion question = read.get(unique[i]);
+            if (question != null) {
+                found.add(question);
+            } else {
+                // Removed from the table since the ids were read.
+                missing[missingCount++] = unique[i];
+            }
+        }
+        return new TriviaQuestionBatch(found, 
+                Arrays.copyOf(missing, missingCount), 
+                Arrays.copyOf(duplicates, duplicateCount));
+    }
+    
+    @Override
+    public List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count) {
+        checkLimit(count);
+        long[] drawn;
+        if (filter.isAll()) {
+            int size = Math.min(count, ids.length);
+            RandomPermutation permutation = new RandomPermutation(ids.length, ThreadLocalRandom.current().nextLong());
+            drawn = new long[size];
+            for (int i = 0; i < size; i++) {
+                drawn[i] = ids[(int) permutation.get(i)];
+            }
+        } else {
+            drawn = sampleIds(filter, count);
+        }
+        return inOrder(drawn);
+    }
+    
+    @Override
+    public List<TriviaQuestion> searchQuestions(String query, int limit) {
+        checkLimit(limit);
+        return inOrder(getSearchIndex().search(query, limit));
+    }
+    
+    @Override
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return new Date(lastUpdated);
+    }
+    
+    /*
+        Reads the questions from index start up to end, from the cache if they
+        are all there, or with one range query otherwise.
+    */
+    private List<TriviaQuestion> readRange(int start, int end) {
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        List<TriviaQuestion> questions = new ArrayList<>(end - start);
+        for (int index = start; index < end; index++) {
+            TriviaQuestion question = cache.get(ids[index]);
+            if (question == null) {
+                return query(SELECT_RANGE, statement -> {
+                    statement.setLong(1, ids[start]);
+                    statement.setLong(2, ids[end - 1]);
+                    return Collections.unmodifiableList(readQuestions(statement, false));
+                });
+            }
+            questions.add(question);
+        }
+        return Collections.unmodifiableList(questions);
+    }
+    
+    /*
+        Reads the questions with some ids, in the same order. Ids no longer in
+        the table are skipped.
+    */
+    private List<TriviaQuestion> inOrder(long[] questionIds) {
+        Map<Long, TriviaQuestion> read = readQuestions(questionIds, questionIds.length);
+        List<TriviaQuestion> questions = new ArrayList<>(questionIds.length);
+        for (long id : questionIds) {
+            TriviaQuestion question = read.get(id);
+            if (question != null) {
+                questions.add(question);
+            }
+        }
+        return Collections.unmodifiableList(questions);
+    }
+    
+    /*
+        Reads the questions with the first count ids, taking what it can from
+        the cache and the rest with IN queries. The id list of a query is 
+        padded to a power of two by repeating the last id, so a few prepared
+        statements serve every batch size.
+    */
+    private Map<Long, TriviaQuestion> readQuestions(long[] questionIds, int count) {
+        Map<Long, TriviaQuestion> read = new HashMap<>(count * 2);
+        long[] misses = new long[count];
+        int missCount = 0;
+        for (int i = 0; i < count; i++) {
+            TriviaQuestion question = cache.get(questionIds[i]);
+            if (question != null) {
+                read.put(questionIds[i], question);
+            } else {
+                misses[missCount++] = questionIds[i];
+            }
+        }
+        for (int from = 0; from < missCount; from += MAX_BATCH) {
+            int size = Math.min(MAX_BATCH, missCount - from);
+            int bucket = 32 - Integer.numberOfLeadingZeros(size - 1);
+            int first = from;
+            query(SELECT_IN[bucket], statement -> {
+                for (int parameter = 0; parameter < 1 << bucket; parameter++) {
+                    statement.setLong(parameter + 1, misses[first + Math.min(parameter, size - 1)]);
+                }
+                for (TriviaQuestion question : readQuestions(statement, true)) {
+                    read.put(question.getId(), question);
+                }
+                return null;
+            });
+        }
+        return read;
+    }
+    
+    /*
+        Draws up to count ids of the questions that match a filter, in a random
+        order. The matching ids are read once and kept in a reservoir, so only
+        count ids are held however many questions match.
+    */
+    private long[] sampleIds(TriviaQuestionFilter filter, int count) {
+        if (count == 0) {
+            return new long[0];
+        }
+        Random random = ThreadLocalRandom.current();
+        long[] reservoir = new long[count];
+        long seen = query("SELECT id FROM trivia_question" + where(filter), statement -> {
+            bind(statement, filter);
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            long matches = 0;
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    long slot = (matches < count) ? matches : (long) (random.nextDouble() * (matches + 1));
+                    if (slot < count) {
+                        reservoir[(int) slot] = rows.getLong(1);
+                    }
+                    matches++;
+                }
+            }
+            return matches;
+        });
+        long[] drawn = Arrays.copyOf(reservoir, (int) Math.min(seen, count));
+        for (int i = drawn.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = drawn[i];
+            drawn[i] = drawn[j];
+            drawn[j] = swap;
+        }
+        return drawn;
+    }
+    
+    /*
+        Runs a query, turning a database error into an unchecked exception 
+        since the store interface doesn't throw.
+    */
+    private <T> T query(String sql, JdbcConnectionPool.StatementWork<T> work) {
+        try {
+            return pool.execute(sql, work);
+        } catch (SQLException se) {
+            throw new IllegalStateException("Unable to read trivia questions.", se);
+        }
+    }
+    
+    /*
+        Reads the questions of a query, and caches them if asked to. Lookups by
+        id are cached. Ranges aren't, so paging through the store doesn't evict
+        the hot questions. Rows added since the ids were read fall inside the
+        ranges too, and are skipped.
+    */
+    private List<TriviaQuestion> readQuestions(PreparedStatement statement, boolean remember) throws SQLException {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                TriviaQuestion question = readQuestion(rows);
+                if (indexOfId(question.getId()) == NOT_FOUND) {
+                    // Added since the ids were read, so not in this store.
+                    continue;
+                }
+                if (remember) {
+                    cache.put(question);
+                }
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+    
+    /*
+        Returns the marks of a filter, reading them the first time with one 
+        scan of the matching ids. The number of filters comes from clients, 
+        so the marks are bounded like the other caches.
+    */
+    private FilterMarks marksFor(TriviaQuestionFilter filter) {
+        FilterMarks filterMarks = marks.get(filter);
+        if (filterMarks == null) {
+            filterMarks = query("SELECT id FROM trivia_question" + where(filter) + " ORDER BY id", statement -> {
+                bind(statement, filter);
+                statement.setFetchSize(SCAN_FETCH_SIZE);
+                long[] after = new long[16];
+                after[0] = Long.MIN_VALUE;
+                long count = 0;
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        if (indexOfId(rows.getLong(1)) == NOT_FOUND) {
+                            continue;
+                        }
+                        count++;
+                        if (count % MARK_STRIDE == 0) {
+                            int mark = (int) (count / MARK_STRIDE);
+                            if (mark == after.length) {
+                                after = Arrays.copyOf(after, mark * 2);
+                            }
+                            after[mark] = rows.getLong(1);
+                        }
+                    }
+                }
+                return new FilterMarks(Arrays.copyOf(after, (int) (count / MARK_STRIDE) + 1), count);
+            });
+            if (marks.size() >= MAX_MARKED_FILTERS) {
+                marks.clear();
+            }
+            marks.put(filter, filterMarks);
+        }
+        return filterMarks;
+    }
+    
+    /*
+        The questions that match a filter, and the id before every 
+        MARK_STRIDE-th match, so a page seeks to the mark before its offset
+        and skips fewer than MARK_STRIDE rows.
+    */
+    private static final class FilterMarks {
+        final private long[] after;
+        final private long count;
+        
+        FilterMarks(long[] after, long count) {
+            this.after = after;
+            this.count = count;
+        }
+    }
+    
+    /*
+        Difficulties outside the rated range are read as unrated, since the
+        table doesn't check them.
+    */
+    private static TriviaQuestion readQuestion(ResultSet row) throws SQLException {
+        int difficulty = row.getInt(10);
+        if (difficulty < TriviaQuestion.MIN_DIFFICULTY || difficulty > TriviaQuestion.MAX_DIFFICULTY) {
+            difficulty = TriviaQuestion.UNRATED;
+        }
+        return new TriviaQuestion(
+                row.getLong(1), 
+                row.getString(2), 
+                row.getString(3), 
+                row.getString(4), 
+                row.getString(5), 
+                row.getString(6), 
+                TriviaAnswer.forString(row.getString(7)), 
+                row.getString(8), 
+                row.getString(9), 
+                difficulty, 
+                new Date(row.getTimestamp(11).getTime())
+        );
+    }
+    
+    /*
+        The WHERE clause of a filter. Categories are matched like 
+        TriviaQuestionFilter keys them, trimmed and in lower case.
+    */
+    private static String where(TriviaQuestionFilter filter) {
+        String category = (filter.getCategory() != null) ? "LOWER(TRIM(category)) = ?" : null;
+        String difficulty = (filter.getDifficulty() != TriviaQuestion.UNRATED) ? "difficulty = ?" : null;
+        if (category != null && difficulty != null) {
+            return " WHERE " + category + " AND " + difficulty;
+        }
+        return " WHERE " + ((category != null) ? category : difficulty);
+    }
+    
+    /*
+        Sets the parameters of a filter's WHERE clause, and returns the next 
+        parameter.
+    */
+    private static int bind(PreparedStatement statement, TriviaQuestionFilter filter) throws SQLException {
+        int parameter = 1;
+        if (filter.getCategory() != null) {
+            statement.setString(parameter++, filter.getCategory());
+        }
+        if (filter.getDifficulty() != TriviaQuestion.UNRATED) {
+            statement.setInt(parameter++, filter.getDifficulty());
+        }
+        return parameter;
+    }
+    
+    private static String[] selectIn() {
+        int buckets = Integer.numberOfTrailingZeros(MAX_BATCH) + 1;
+        String[] statements = new String[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM trivia_question WHERE id IN (?");
+            for (int i = 1; i < 1 << bucket; i++) {
+                sql.append(", ?");
+            }
+            statements[bucket] = sql.append(')').toString();
+        }
+        return statements;
+    }
+}
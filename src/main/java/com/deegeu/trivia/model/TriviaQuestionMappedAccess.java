@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import static com.deegeu.trivia.model.TriviaQuestionBankFormat.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+/**
+ * Reads trivia questions from a memory mapped question bank file written by
+ * {@link TriviaQuestionBankWriter}. Opening the bank only reads the header, and
+ * the id index is part of the file, so startup time and heap use don't grow 
+ * with the number of questions. A {@link TriviaQuestion} is decoded from the 
+ * file each time one is asked for. The mapping is read only, so a single 
+ * instance can be shared by every request. Banks written before questions 
+ * had categories are still read, and their questions are uncategorized and
+ * unrated.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionMappedAccess extends AbstractTriviaQuestionAccess {
+    private final ByteBuffer bank;
+    private final int count;
+    private final int recordSize;
+    private final boolean hasCategories;
+    private final int slotMask;
+    private final int recordsOffset;
+    private final int slotsOffset;
+    private final int poolOffset;
+    private final long lastUpdated;
+    private final long version;
+    
+    /**
+     * Constructor. Maps the question bank file.
+     * 
+     * @param bankFile the question bank file
+     * @throws IOException if the file can't be mapped or isn't a question bank
+     */
+    public TriviaQuestionMappedAccess(Path bankFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(bankFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a trivia question bank: " + bankFile);
+            }
+            if (channel.size() > MAX_BANK_SIZE) {
+                throw new IOException("Question bank is larger than 2 GB and can't be mapped: " + bankFile);
+            }
+            // The mapping stays valid after the channel is closed.
+            this.bank = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int format = bank.getInt(4);
+        if (bank.getInt(0) != MAGIC || (format != FORMAT && format != FORMAT_WITHOUT_CATEGORIES)) {
+            throw new IOException("Not a trivia question bank: " + bankFile);
+        }
+        this.hasCategories = (format == FORMAT);
+        this.recordSize = hasCategories ? RECORD_SIZE : RECORD_SIZE_WITHOUT_CATEGORIES;
+        this.count = bank.getInt(HEADER_COUNT);
+        int slotCount = bank.getInt(HEADER_SLOT_COUNT);
+        this.slotMask = slotCount - 1;
+        this.lastUpdated = bank.getLong(HEADER_LAST_UPDATED);
+        this.recordsOffset = (int) bank.getLong(HEADER_RECORDS_OFFSET);
+        this.slotsOffset = (int) bank.getLong(HEADER_SLOTS_OFFSET);
+        this.poolOffset = (int) bank.getLong(HEADER_POOL_OFFSET);
+        if (count < 0 || Integer.bitCount(slotCount) != 1
+                || recordsOffset + (long) count * recordSize > slotsOffset
+                || slotsOffset + (long) slotCount * SLOT_SIZE > poolOffset
+                || poolOffset > bank.capacity()) {
+            throw new IOException("Corrupt trivia question bank: " + bankFile);
+        }
+        this.version = nextVersion();
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        if (index < 0 || index >= count) {
+            return null;
+        }
+        int record = recordsOffset + (int) index * recordSize;
+        ByteBuffer view = bank.duplicate();
+        return new TriviaQuestion(
+                bank.getLong(record + RECORD_ID), 
+                readString(view, record, 0),
+                readString(view, record, 1),
+                readString(view, record, 2),
+                readString(view, record, 3),
+                readString(view, record, 4),
+                TriviaAnswer.forLetter(bank.get(record + RECORD_CORRECT_ANSWER)),
+                readString(view, record, 5),
+                hasCategories ? readString(view, record, CATEGORY_FIELD) : null,
+                bank.get(record + RECORD_DIFFICULTY),
+                new Date(bank.getLong(record + RECORD_LAST_UPDATED))
+        );
+    }
+    
+    @Override
+    TriviaAnswer getCorrectAnswerByIndex(int index) {
+        return TriviaAnswer.forLetter(bank.get(recordsOffset + index * recordSize + RECORD_CORRECT_ANSWER));
+    }
+    
+    @Override
+    String getCategoryByIndex(int index) {
+        return hasCategories 
+                ? readString(bank.duplicate(), recordsOffset + index * recordSize, CATEGORY_FIELD) : null;
+    }
+    
+    @Override
+    int getDifficultyByIndex(int index) {
+        return bank.get(recordsOffset + index * recordSize + RECORD_DIFFICULTY);
+    }
+    
+    @Override
+    int indexOfId(long id) {
+        if (id < 0) {
+            return NOT_FOUND;
+        }
+        int slot = LongIntHashMap.hash(id) & slotMask;
+        long slotId;
+        while ((slotId = bank.getLong(slotsOffset + slot * SLOT_SIZE + SLOT_ID)) != EMPTY_SLOT) {
+            if (slotId == id) {
+                return bank.getInt(slotsOffset + slot * SLOT_SIZE + SLOT_INDEX);
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return NOT_FOUND;
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return count;
+    }
+    
+    @Override
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return new Date(lastUpdated);
+    }
+    
+    /*
+        Decodes a string field of a record from the string pool.
+    */
+    private String readString(ByteBuffer view, int record, int field) {
+        int reference = record + RECORD_STRINGS + field * 8;
+        int offset = bank.getInt(reference);
+        int length = bank.getInt(reference + 4);
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        view.position(poolOffset + offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
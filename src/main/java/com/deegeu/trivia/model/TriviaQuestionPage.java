@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.List;
+
+/**
+ * One page of questions read with a {@link TriviaQuestionCursor}. The 
+ * questions are copied when the page is made, so the page doesn't change if 
+ * the store does. This class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionPage {
+    final private List<TriviaQuestion> questions;
+    final private TriviaQuestionCursor nextCursor;
+    final private long version;
+    
+    /**
+     * Constructor. 
+     * 
+     * @param questions the unmodifiable questions on the page
+     * @param nextCursor the cursor for the next page, or null on the last page
+     * @param version the version of the questions the page came from
+     */
+    TriviaQuestionPage(List<TriviaQuestion> questions, TriviaQuestionCursor nextCursor, long version) {
+        this.questions = questions;
+        this.nextCursor = nextCursor;
+        this.version = version;
+    }
+    
+    /**
+     * @return the questions on the page, in store order
+     */
+    public List<TriviaQuestion> getQuestions() {
+        return questions;
+    }
+    
+    /**
+     * @return the cursor for the next page, or null if this is the last page
+     */
+    public TriviaQuestionCursor getNextCursor() {
+        return nextCursor;
+    }
+    
+    /**
+     * @return the version of the questions the page came from
+     */
+    public long getVersion() {
+        return version;
+    }
+}
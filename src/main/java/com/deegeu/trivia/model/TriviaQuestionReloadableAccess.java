@@ -0,0 +1,329 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * A trivia question store whose questions can be replaced while it is being 
+ * read. Each generation of questions is an unchanging store, with its own id 
+ * index, version and last updated date. A reload builds the next generation 
+ * off to the side and swaps it in with one atomic write. Readers never lock.
+ * A reader that needs more than one answer from the same generation should
+ * use {@link #getSnapshot()}. {@link #applyChanges(TriviaQuestionAccessible)}
+ * reloads incrementally. Questions that haven't changed keep their objects 
+ * from the current generation, and a search index that has been built is 
+ * updated with only the changed questions.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionReloadableAccess implements TriviaQuestionAccessible {
+    private final AtomicReference<TriviaQuestionAccessible> generation;
+    
+    /**
+     * Constructor.
+     * 
+     * @param questions the first generation of questions
+     */
+    public TriviaQuestionReloadableAccess(TriviaQuestionAccessible questions) {
+        this.generation = new AtomicReference<>(questions.getSnapshot());
+    }
+    
+    /**
+     * Replaces every question with a new generation.
+     * 
+     * @param questions the new generation of questions
+     */
+    public synchronized void replace(TriviaQuestionAccessible questions) {
+        generation.set(questions.getSnapshot());
+    }
+    
+    /**
+     * Adds questions, or replaces the questions that have the same ids. 
+     * Replaced questions keep their place in the list, and new questions go 
+     * at the end. The new generation is held in memory.
+     * 
+     * @param questions the questions to add or replace
+     */
+    public synchronized void putQuestions(Collection<TriviaQuestion> questions) {
+        TriviaQuestionAccessible current = generation.get();
+        Map<Long, TriviaQuestion> updates = new LinkedHashMap<>();
+        for (TriviaQuestion question : questions) {
+            updates.put(question.getId(), question);
+        }
+        
+        List<TriviaQuestion> next = new ArrayList<>((int) current.getQuestionListSize() + updates.size());
+        for (long index = 0; index < current.getQuestionListSize(); index++) {
+            TriviaQuestion question = current.getQuestionByIndex(index);
+            TriviaQuestion update = updates.remove(question.getId());
+            next.add((update != null) ? update : question);
+        }
+        next.addAll(updates.values());
+        TriviaQuestionArrayAccess nextGeneration = new TriviaQuestionArrayAccess(next);
+        carrySearchIndex(current, nextGeneration);
+        generation.set(nextGeneration);
+    }
+    
+    /**
+     * Makes the questions match the source, keeping the current question 
+     * objects for every id whose last updated date is the same. Only added and
+     * changed questions come from the source, so a reload that changes a few
+     * questions leaves the rest of the heap alone. Questions that aren't in 
+     * the source are removed. The order of the source is kept. If nothing 
+     * changed, the current generation stays, along with its version and 
+     * everything cached for it.
+     * 
+     * @param source the questions as they should be
+     * @return the number of questions added, changed and removed
+     */
+    public synchronized Changes applyChanges(TriviaQuestionAccessible source) {
+        TriviaQuestionAccessible next = source.getSnapshot();
+        return applyChanges(next.getQuestionListSize(), next::getQuestionByIndex);
+    }
+    
+    /**
+     * Makes the questions match a list, like 
+     * {@link #applyChanges(TriviaQuestionAccessible)}. Lets a reload that
+     * streams the source skip building a store for it.
+     * 
+     * @param source the questions as they should be, in order
+     * @return the number of questions added, changed and removed
+     */
+    public synchronized Changes applyChanges(List<TriviaQuestion> source) {
+        return applyChanges(source.size(), index -> source.get((int) index));
+    }
+    
+    private Changes applyChanges(long size, LongFunction<TriviaQuestion> source) {
+        TriviaQuestionAccessible current = generation.get();
+        long currentSize = current.getQuestionListSize();
+        
+        List<TriviaQuestion> questions = new ArrayList<>((int) size);
+        long added = 0;
+        long changed = 0;
+        long kept = 0;
+        boolean sameOrder = (size == currentSize);
+        for (long index = 0; index < size; index++) {
+            TriviaQuestion question = source.apply(index);
+            TriviaQuestion old = current.getQuestionById(question.getId());
+            if (old == null) {
+                added++;
+            } else if (!old.getLastUpdated().equals(question.getLastUpdated())) {
+                changed++;
+            } else {
+                question = old;
+                kept++;
+            }
+            sameOrder = sameOrder && (current.getQuestionByIndex(index) == question);
+            questions.add(question);
+        }
+        
+        Changes changes = new Changes(added, changed, Math.max(currentSize - kept - changed, 0));
+        if (!sameOrder) {
+            TriviaQuestionArrayAccess nextGeneration = new TriviaQuestionArrayAccess(questions);
+            carrySearchIndex(current, nextGeneration);
+            generation.set(nextGeneration);
+        }
+        return changes;
+    }
+    
+    /*
+        If the current generation has been searched, updates its search index
+        for the next generation rather than leaving the next one to tokenize 
+        every question again. Questions are matched by object, so a kept 
+        question isn't indexed again.
+    */
+    private static void carrySearchIndex(TriviaQuestionAccessible current, TriviaQuestionArrayAccess next) {
+        if (!(current instanceof AbstractTriviaQuestionAccess)) {
+            return;
+        }
+        AbstractTriviaQuestionAccess store = (AbstractTriviaQuestionAccess) current;
+        TriviaQuestionSearchIndex index = store.peekSearchIndex();
+        if (index == null) {
+            return;
+        }
+        List<Long> removed = new ArrayList<>();
+        for (long i = 0; i < store.getQuestionListSize(); i++) {
+            TriviaQuestion question = store.getQuestionByIndex(i);
+            if (store.getQuestionById(question.getId()) == question 
+                    && next.getQuestionById(question.getId()) != question) {
+                removed.add(question.getId());
+            }
+        }
+        List<TriviaQuestion> added = new ArrayList<>();
+        for (long i = 0; i < next.getQuestionListSize(); i++) {
+            TriviaQuestion question = next.getQuestionByIndex(i);
+            if (store.getQuestionById(question.getId()) != question 
+                    && next.getQuestionById(question.getId()) == question) {
+                added.add(question);
+            }
+        }
+        next.setSearchIndex(index.update(removed, added, next));
+    }
+    
+    @Override
+    public TriviaQuestionAccessible getSnapshot() {
+        return generation.get();
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        return generation.get().getQuestionByIndex(index);
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionById(long id) {
+        return generation.get().getQuestionById(id);
+    }
+    
+    @Override
+    public TriviaAnswer getCorrectAnswer(long id) {
+        return generation.get().getCorrectAnswer(id);
+    }
+    
+    @Override
+    public TriviaQuestion getRandomQuestion() {
+        return generation.get().getRandomQuestion();
+    }
+    
+    @Override
+    public List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count) {
+        return generation.get().getRandomQuestions(filter, count);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset) {
+        return generation.get().getQuestionList(offset);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        return generation.get().getQuestionList(offset, limit);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit) {
+        return generation.get().getQuestionList(filter, offset, limit);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after) {
+        return generation.get().getQuestionPage(after);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit) {
+        return generation.get().getQuestionPage(after, limit);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getSpecifiedQuestionList(long... id) {
+        return generation.get().getSpecifiedQuestionList(id);
+    }
+    
+    @Override
+    public TriviaQuestionBatch getQuestionBatch(long... id) {
+        return generation.get().getQuestionBatch(id);
+    }
+    
+    @Override
+    public List<TriviaQuestion> searchQuestions(String query, int limit) {
+        return generation.get().searchQuestions(query, limit);
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return generation.get().getQuestionListSize();
+    }
+    
+    @Override
+    public long getQuestionListSize(TriviaQuestionFilter filter) {
+        return generation.get().getQuestionListSize(filter);
+    }
+    
+    @Override
+    public long getVersion() {
+        return generation.get().getVersion();
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return generation.get().getLastUpdated();
+    }
+    
+    /**
+     * Counts of the questions a reload added, changed and removed. This class 
+     * is immutable.
+     */
+    final public static class Changes {
+        final private long added;
+        final private long changed;
+        final private long removed;
+        
+        Changes(long added, long changed, long removed) {
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+        }
+        
+        /**
+         * @return the number of questions with new ids
+         */
+        public long getAdded() {
+            return added;
+        }
+        
+        /**
+         * @return the number of questions with a new last updated date
+         */
+        public long getChanged() {
+            return changed;
+        }
+        
+        /**
+         * @return the number of questions no longer in the source
+         */
+        public long getRemoved() {
+            return removed;
+        }
+        
+        /**
+         * @return true if the reload found no differences
+         */
+        public boolean isEmpty() {
+            return added == 0 && changed == 0 && removed == 0;
+        }
+        
+        @Override
+        public String toString() {
+            return added + " added, " + changed + " changed, " + removed + " removed";
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Draws question indexes at random in proportion to their weights, in 
+ * constant time, with Vose's alias method. The indexes are split into blocks
+ * of {@value #BLOCK_SIZE}, each with its own alias table, and a top table 
+ * picks the block by its total weight. A draw picks a block and then an index
+ * in it, so it costs two alias lookups however many questions there are. 
+ * {@link #update(int, int[], IntToDoubleFunction)} only rebuilds the blocks 
+ * whose weights changed, and shares the rest. Weights below zero count as 
+ * zero, and questions with no weight are never drawn. This class is 
+ * immutable.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionSampler {
+    static final int BLOCK_BITS = 12;
+    static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    
+    /*
+        A draw without replacement gives up on rejecting repeats once this 
+        many draws in a row per question were repeats, or once the questions
+        drawn hold half the weight, and finishes with one pass over the 
+        weights instead.
+    */
+    private static final int MAX_REJECTIONS_PER_DRAW = 4;
+    
+    final private int size;
+    final private Block[] blocks;
+    final private AliasTable top;
+    final private int positiveCount;
+    
+    private TriviaQuestionSampler(int size, Block[] blocks) {
+        this.size = size;
+        this.blocks = blocks;
+        double[] blockWeights = new double[blocks.length];
+        int positive = 0;
+        for (int b = 0; b < blocks.length; b++) {
+            blockWeights[b] = blocks[b].total;
+            positive += blocks[b].positiveCount;
+        }
+        this.top = new AliasTable(blockWeights, blocks.length);
+        this.positiveCount = positive;
+    }
+    
+    /**
+     * Builds the tables for a number of questions.
+     * 
+     * @param size the number of questions
+     * @param weights the weight of the question at each index
+     * @return the sampler
+     */
+    static TriviaQuestionSampler build(int size, IntToDoubleFunction weights) {
+        Block[] blocks = new Block[blockCount(size)];
+        for (int b = 0; b < blocks.length; b++) {
+            blocks[b] = Block.build(b, size, weights);
+        }
+        return new TriviaQuestionSampler(size, blocks);
+    }
+    
+    /**
+     * Makes the tables for a changed set of questions. Blocks without a 
+     * changed index keep their tables. Indexes past the old size are always
+     * weighed.
+     * 
+     * @param newSize the number of questions now
+     * @param changed the indexes whose weights may have changed, in any order
+     * @param weights the weight of the question at each index
+     * @return the new sampler
+     */
+    TriviaQuestionSampler update(int newSize, int[] changed, IntToDoubleFunction weights) {
+        Block[] next = new Block[blockCount(newSize)];
+        boolean[] dirty = new boolean[next.length];
+        for (int index : changed) {
+            if (index >= 0 && index < newSize) {
+                dirty[index >>> BLOCK_BITS] = true;
+            }
+        }
+        for (int b = 0; b < next.length; b++) {
+            boolean sameLength = b < blocks.length 
+                    && blocks[b].weights.length == Math.min(BLOCK_SIZE, newSize - (b << BLOCK_BITS));
+            next[b] = (sameLength && !dirty[b]) ? blocks[b] : Block.build(b, newSize, weights);
+        }
+        return new TriviaQuestionSampler(newSize, next);
+    }
+    
+    /**
+     * Draws one question index.
+     * 
+     * @param random the source of randomness
+     * @return the index, or -1 if no question has any weight
+     */
+    int sample(Random random) {
+        if (positiveCount == 0) {
+            return -1;
+        }
+        int b = top.pick(random);
+        return (b << BLOCK_BITS) + blocks[b].table.pick(random);
+    }
+    
+    /**
+     * Draws distinct question indexes, each in proportion to its weight among
+     * the questions not drawn yet. Repeats are drawn again while that is 
+     * cheap, and otherwise the rest are drawn in one pass over the weights. 
+     * The tables are never copied.
+     * 
+     * @param count the most questions to draw
+     * @param random the source of randomness
+     * @return the indexes, in the order drawn
+     */
+    int[] sample(int count, Random random) {
+        int drawn = Math.min(count, positiveCount);
+        int[] indexes = new int[drawn];
+        LongIntHashMap chosen = new LongIntHashMap(drawn);
+        double total = top.total;
+        double chosenWeight = 0;
+        int filled = 0;
+        int rejections = 0;
+        while (filled < drawn && rejections < MAX_REJECTIONS_PER_DRAW * drawn && chosenWeight * 2 < total) {
+            int index = sample(random);
+            if (chosen.putIfAbsent(index, filled)) {
+                indexes[filled++] = index;
+                chosenWeight += getWeight(index);
+            } else {
+                rejections++;
+            }
+        }
+        if (filled < drawn) {
+            drawRest(indexes, filled, chosen, random);
+        }
+        return indexes;
+    }
+    
+    /**
+     * @param index a question index
+     * @return the weight of the question, as stored
+     */
+    double getWeight(int index) {
+        return blocks[index >>> BLOCK_BITS].weights[index & BLOCK_MASK];
+    }
+    
+    /**
+     * @return the sum of the weights
+     */
+    double getTotalWeight() {
+        return top.total;
+    }
+    
+    /**
+     * @return the number of questions
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * @return the approximate number of bytes the tables take
+     */
+    long getSizeInBytes() {
+        long bytes = 32L + blocks.length * 4L + top.getSizeInBytes();
+        for (Block block : blocks) {
+            bytes += 48L + block.weights.length * 4L + block.table.getSizeInBytes();
+        }
+        return bytes;
+    }
+    
+    /*
+        Weighted sampling without replacement of the rest of the draw, with 
+        exponential keys: each question not yet chosen gets the key 
+        -ln(u) / weight, and the smallest keys win, smallest first. Keeps a 
+        heap of the rest, and sorts it by key at the end.
+    */
+    private void drawRest(int[] indexes, int filled, LongIntHashMap chosen, Random random) {
+        int rest = indexes.length - filled;
+        int[] heapIndexes = new int[rest];
+        double[] heapKeys = new double[rest];
+        int heapSize = 0;
+        for (int index = 0; index < size; index++) {
+            double weight = getWeight(index);
+            if (weight <= 0 || chosen.get(index) != LongIntHashMap.NOT_FOUND) {
+                continue;
+            }
+            double key = -Math.log(1.0 - random.nextDouble()) / weight;
+            if (heapSize < rest) {
+                heapIndexes[heapSize] = index;
+                heapKeys[heapSize] = key;
+                int slot = heapSize++;
+                while (slot > 0 && heapKeys[(slot - 1) / 2] < heapKeys[slot]) {
+                    swap(heapIndexes, heapKeys, slot, (slot - 1) / 2);
+                    slot = (slot - 1) / 2;
+                }
+            } else if (key < heapKeys[0]) {
+                heapIndexes[0] = index;
+                heapKeys[0] = key;
+                siftDown(heapIndexes, heapKeys, heapSize);
+            }
+        }
+        // Heap sort by key, smallest first, which is the order the rest were drawn in.
+        for (int end = heapSize - 1; end > 0; end--) {
+            swap(heapIndexes, heapKeys, 0, end);
+            siftDown(heapIndexes, heapKeys, end);
+        }
+        System.arraycopy(heapIndexes, 0, indexes, filled, heapSize);
+    }
+    
+    /*
+        Moves the root of a max heap of keys down to its place.
+    */
+    private static void siftDown(int[] indexes, double[] keys, int heapSize) {
+        int slot = 0;
+        while (true) {
+            int child = slot * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (keys[child] <= keys[slot]) {
+                break;
+            }
+            swap(indexes, keys, slot, child);
+            slot = child;
+        }
+    }
+    
+    private static void swap(int[] indexes, double[] keys, int a, int b) {
+        int index = indexes[a];
+        indexes[a] = indexes[b];
+        indexes[b] = index;
+        double key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+    
+    private static int blockCount(int size) {
+        return (size + BLOCK_MASK) >>> BLOCK_BITS;
+    }
+    
+    /*
+        The weights and alias table of one block of indexes.
+    */
+    private static final class Block {
+        final float[] weights;
+        final AliasTable table;
+        final double total;
+        final int positiveCount;
+        
+        private Block(float[] weights) {
+            double[] scaled = new double[weights.length];
+            int positive = 0;
+            for (int i = 0; i < weights.length; i++) {
+                scaled[i] = weights[i];
+                positive += (weights[i] > 0) ? 1 : 0;
+            }
+            this.weights = weights;
+            this.table = new AliasTable(scaled, weights.length);
+            this.total = table.total;
+            this.positiveCount = positive;
+        }
+        
+        static Block build(int block, int size, IntToDoubleFunction weights) {
+            int start = block << BLOCK_BITS;
+            float[] blockWeights = new float[Math.min(BLOCK_SIZE, size - start)];
+            for (int i = 0; i < blockWeights.length; i++) {
+                double weight = weights.applyAsDouble(start + i);
+                blockWeights[i] = (weight > 0 && weight < Float.POSITIVE_INFINITY) ? (float) weight : 0f;
+            }
+            return new Block(blockWeights);
+        }
+    }
+    
+    /*
+        Vose's alias table. Slot i is kept with its probability, and 
+        otherwise gives way to its alias.
+    */
+    private static final class AliasTable {
+        final float[] probability;
+        final int[] alias;
+        final double total;
+        
+        AliasTable(double[] weights, int length) {
+            this.probability = new float[length];
+            this.alias = new int[length];
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += weights[i];
+            }
+            this.total = sum;
+            if (sum <= 0) {
+                return;
+            }
+            
+            double[] scaled = new double[length];
+            int[] small = new int[length];
+            int[] large = new int[length];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < length; i++) {
+                scaled[i] = weights[i] * length / sum;
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = (float) scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            /* What is left over is 1 up to rounding. */
+            while (largeCount > 0) {
+                int more = large[--largeCount];
+                probability[more] = 1f;
+                alias[more] = more;
+            }
+            while (smallCount > 0) {
+                int less = small[--smallCount];
+                probability[less] = (weights[less] > 0) ? 1f : 0f;
+                alias[less] = (weights[less] > 0) ? less : firstPositive(weights, length);
+            }
+        }
+        
+        int pick(Random random) {
+            int slot = random.nextInt(probability.length);
+            return (random.nextFloat() < probability[slot]) ? slot : alias[slot];
+        }
+        
+        long getSizeInBytes() {
+            return 48L + probability.length * 8L;
+        }
+        
+        private static int firstPositive(double[] weights, int length) {
+            for (int i = 0; i < length; i++) {
+                if (weights[i] > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+}
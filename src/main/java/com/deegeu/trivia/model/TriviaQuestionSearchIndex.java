@@ -0,0 +1,463 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Full text index over the question, answers and hint of one unchanging 
+ * store. Each question is a document, numbered in the order it was added.
+ * Every term has a posting list of document numbers, in increasing order, 
+ * each followed by how often the term appears in the document. Words in the
+ * question count three times and words in the answers twice, so a match in 
+ * the question ranks above the same match in a hint. Searches are ranked 
+ * with BM25. 
+ * <p>
+ * The next generation of a store can get its index from 
+ * {@link #update(Collection, List, AbstractTriviaQuestionAccess)}, which only 
+ * tokenizes the added questions. Removed questions stay in the posting lists,
+ * marked as deleted, until more than half the documents are deleted. This 
+ * class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final class TriviaQuestionSearchIndex {
+    static final int MAX_QUERY_TERMS = 16;
+    
+    private static final int QUESTION_WEIGHT = 3;
+    private static final int ANSWER_WEIGHT = 2;
+    private static final int HINT_WEIGHT = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int[] NO_POSTINGS = new int[0];
+    
+    /*
+        Words too common in trivia questions to tell them apart.
+    */
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "an", "and", "are", "as", "at", "be", "by", "did", "do", "does", "for", "from", 
+            "how", "in", "is", "it", "its", "of", "on", "or", "that", "the", "this", "to", 
+            "was", "were", "what", "when", "where", "which", "who", "whom", "why", "with"));
+    
+    final private Map<String, int[]> postings;
+    final private long[] ids;
+    final private int[] lengths;
+    final private long[] deleted;
+    final private int liveCount;
+    final private double averageLength;
+    
+    private TriviaQuestionSearchIndex(Map<String, int[]> postings, long[] ids, int[] lengths, long[] deleted) {
+        this.postings = postings;
+        this.ids = ids;
+        this.lengths = lengths;
+        this.deleted = deleted;
+        
+        long totalLength = 0;
+        int live = 0;
+        for (int doc = 0; doc < ids.length; doc++) {
+            if (!isDeleted(deleted, doc)) {
+                totalLength += lengths[doc];
+                live++;
+            }
+        }
+        this.liveCount = live;
+        this.averageLength = (live > 0) ? Math.max((double) totalLength / live, 1.0) : 1.0;
+    }
+    
+    /**
+     * Indexes every question of a store. A repeated id is only indexed once.
+     * 
+     * @param store the store, which must not change
+     * @return the index
+     */
+    static TriviaQuestionSearchIndex build(AbstractTriviaQuestionAccess store) {
+        int size = (int) store.getQuestionListSize();
+        Documents documents = new Documents(size);
+        store.forEachQuestion((question, index) -> {
+            if (store.indexOfId(question.getId()) == index) {
+                documents.add(question);
+            }
+        });
+        return new TriviaQuestionSearchIndex(documents.toPostings(new HashMap<>()), 
+                Arrays.copyOf(documents.ids, documents.count), 
+                Arrays.copyOf(documents.lengths, documents.count), null);
+    }
+    
+    /**
+     * Makes the index of the next generation of a store. The removed 
+     * questions are marked deleted, and the added questions are appended. A
+     * changed question is both removed and added. If most documents would be
+     * deleted, the index is built again from the next store instead.
+     * 
+     * @param removedIds the ids of the questions no longer in the store, or changed
+     * @param added the questions new to the store, or changed
+     * @param next the next generation of the store
+     * @return the index of the next store
+     */
+    TriviaQuestionSearchIndex update(Collection<Long> removedIds, List<TriviaQuestion> added, 
+            AbstractTriviaQuestionAccess next) {
+        long[] nextDeleted = new long[wordCount(ids.length + added.size())];
+        int deletedCount = ids.length - liveCount;
+        if (deleted != null) {
+            System.arraycopy(deleted, 0, nextDeleted, 0, deleted.length);
+        }
+        if (!removedIds.isEmpty()) {
+            LongIntHashMap removed = new LongIntHashMap(removedIds.size());
+            for (Long id : removedIds) {
+                removed.putIfAbsent(id, 0);
+            }
+            for (int doc = 0; doc < ids.length; doc++) {
+                if (!isDeleted(nextDeleted, doc) && removed.get(ids[doc]) != LongIntHashMap.NOT_FOUND) {
+                    nextDeleted[doc >>> 6] |= 1L << doc;
+                    deletedCount++;
+                }
+            }
+        }
+        if (deletedCount * 2L > ids.length + added.size()) {
+            return build(next);
+        }
+        
+        Documents documents = new Documents(added.size());
+        for (TriviaQuestion question : added) {
+            documents.add(question);
+        }
+        long[] nextIds = Arrays.copyOf(ids, ids.length + documents.count);
+        int[] nextLengths = Arrays.copyOf(lengths, lengths.length + documents.count);
+        System.arraycopy(documents.ids, 0, nextIds, ids.length, documents.count);
+        System.arraycopy(documents.lengths, 0, nextLengths, lengths.length, documents.count);
+        documents.firstDoc = ids.length;
+        return new TriviaQuestionSearchIndex(documents.toPostings(new HashMap<>(postings)), 
+                nextIds, nextLengths, (deletedCount > 0) ? nextDeleted : null);
+    }
+    
+    /**
+     * Finds the questions that best match a query. A question matches if it 
+     * has any of the query's terms. Only the first {@link #MAX_QUERY_TERMS} 
+     * terms are used.
+     * 
+     * @param query the words to look for
+     * @param limit the most questions to return
+     * @return the ids of the matching questions, best match first
+     */
+    long[] search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, QUESTION_WEIGHT, (term, weight) -> {
+            if (terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term);
+            }
+        });
+        int[][] lists = new int[terms.size()][];
+        double[] idfs = new double[terms.size()];
+        int listCount = 0;
+        for (String term : terms) {
+            int[] list = postings.get(term);
+            if (list != null) {
+                int documentFrequency = list.length / 2;
+                idfs[listCount] = Math.log(1.0 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                lists[listCount++] = list;
+            }
+        }
+        if (listCount == 0 || limit <= 0) {
+            return new long[0];
+        }
+        
+        /*
+            Walks the posting lists together, one document at a time, and 
+            keeps the best scores in a heap of at most limit documents.
+        */
+        TopDocuments top = new TopDocuments(limit);
+        int[] positions = new int[listCount];
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int t = 0; t < listCount; t++) {
+                if (positions[t] < lists[t].length) {
+                    doc = Math.min(doc, lists[t][positions[t]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            double score = 0;
+            for (int t = 0; t < listCount; t++) {
+                int position = positions[t];
+                if (position < lists[t].length && lists[t][position] == doc) {
+                    int frequency = lists[t][position + 1];
+                    score += idfs[t] * frequency * (K1 + 1) / (frequency + norm);
+                    positions[t] = position + 2;
+                }
+            }
+            if (!isDeleted(deleted, doc)) {
+                top.offer(doc, score);
+            }
+        }
+        
+        int[] docs = top.toSortedDocs();
+        long[] found = new long[docs.length];
+        for (int i = 0; i < docs.length; i++) {
+            found[i] = ids[docs[i]];
+        }
+        return found;
+    }
+    
+    /**
+     * @return the number of questions that can be found
+     */
+    int getLiveCount() {
+        return liveCount;
+    }
+    
+    /**
+     * @return the number of documents, including deleted ones
+     */
+    int getDocumentCount() {
+        return ids.length;
+    }
+    
+    /**
+     * @return the approximate number of bytes the index takes
+     */
+    long getSizeInBytes() {
+        long bytes = ids.length * 12L + ((deleted != null) ? deleted.length * 8L : 0L);
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            bytes += 88L + entry.getKey().length() * 2L + entry.getValue().length * 4L;
+        }
+        return bytes;
+    }
+    
+    /**
+     * Splits text into lower case terms of letters and digits, with accents 
+     * removed. Stop words and single letters are skipped.
+     * 
+     * @param text the text to split
+     * @param weight passed along with each term
+     * @param terms receives each term and the weight
+     */
+    static void tokenize(String text, int weight, ObjIntConsumer<String> terms) {
+        if (text == null) {
+            return;
+        }
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                folded = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = (i < folded.length()) ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && term.length() > 0) {
+                if ((term.length() > 1 || Character.isDigit(term.charAt(0))) 
+                        && !STOP_WORDS.contains(term.toString())) {
+                    terms.accept(term.toString(), weight);
+                }
+                term.setLength(0);
+            }
+        }
+    }
+    
+    private static boolean isDeleted(long[] deleted, int doc) {
+        return deleted != null && (deleted[doc >>> 6] & (1L << doc)) != 0;
+    }
+    
+    private static int wordCount(int docs) {
+        return (docs + 63) >>> 6;
+    }
+    
+    /*
+        Collects the terms of new documents, and appends them to posting 
+        lists. Documents are numbered from firstDoc.
+    */
+    private static final class Documents {
+        private final Map<String, IndexList> terms = new HashMap<>();
+        private final Map<String, int[]> frequencies = new HashMap<>();
+        private long[] ids;
+        private int[] lengths;
+        private int count;
+        private int firstDoc;
+        
+        Documents(int expectedSize) {
+            this.ids = new long[Math.max(expectedSize, 1)];
+            this.lengths = new int[Math.max(expectedSize, 1)];
+        }
+        
+        void add(TriviaQuestion question) {
+            frequencies.clear();
+            int[] length = new int[1];
+            ObjIntConsumer<String> counter = (term, weight) -> {
+                frequencies.computeIfAbsent(term, key -> new int[1])[0] += weight;
+                length[0] += weight;
+            };
+            tokenize(question.getQuestion(), QUESTION_WEIGHT, counter);
+            tokenize(question.getAnswerA(), ANSWER_WEIGHT, counter);
+            tokenize(question.getAnswerB(), ANSWER_WEIGHT, counter);
+            tokenize(question.getAnswerC(), ANSWER_WEIGHT, counter);
+            tokenize(question.getAnswerD(), ANSWER_WEIGHT, counter);
+            tokenize(question.getHint(), HINT_WEIGHT, counter);
+            
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                IndexList list = terms.get(entry.getKey());
+                if (list == null) {
+                    list = new IndexList();
+                    terms.put(entry.getKey(), list);
+                }
+                list.add(count, entry.getValue()[0]);
+            }
+            ids[count] = question.getId();
+            lengths[count] = length[0];
+            count++;
+        }
+        
+        /*
+            Appends the new postings to the lists already in the map. Lists 
+            that don't get new postings are shared, not copied.
+        */
+        Map<String, int[]> toPostings(Map<String, int[]> postings) {
+            for (Map.Entry<String, IndexList> entry : terms.entrySet()) {
+                IndexList added = entry.getValue();
+                int[] old = postings.getOrDefault(entry.getKey(), NO_POSTINGS);
+                int[] merged = Arrays.copyOf(old, old.length + added.size);
+                for (int i = 0; i < added.size; i += 2) {
+                    merged[old.length + i] = firstDoc + added.values[i];
+                    merged[old.length + i + 1] = added.values[i + 1];
+                }
+                postings.put(entry.getKey(), merged);
+            }
+            return postings;
+        }
+    }
+    
+    private static final class IndexList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int doc, int frequency) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = doc;
+            values[size++] = frequency;
+        }
+    }
+    
+    /*
+        Min heap of the best documents so far, worst on top. Ties go to the
+        earlier document.
+    */
+    private static final class TopDocuments {
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+        
+        TopDocuments(int limit) {
+            this.docs = new int[limit];
+            this.scores = new double[limit];
+        }
+        
+        void offer(int doc, double score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(0, doc, score)) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+        
+        int[] toSortedDocs() {
+            int[] sorted = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sorted[i] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+        
+        /*
+            True if the entry at slot ranks below the given document.
+        */
+        private boolean worse(int slot, int doc, double score) {
+            return scores[slot] < score || (scores[slot] == score && docs[slot] > doc);
+        }
+        
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!worse(slot, docs[parent], scores[parent])) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+        
+        private void siftDown(int slot) {
+            while (true) {
+                int child = slot * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && worse(child + 1, docs[child], scores[child])) {
+                    child++;
+                }
+                if (!worse(child, docs[slot], scores[slot])) {
+                    break;
+                }
+                swap(slot, child);
+                slot = child;
+            }
+        }
+        
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
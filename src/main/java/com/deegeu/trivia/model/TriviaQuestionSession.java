@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A cursor over a shuffled, non-repeating sequence of question indexes. The
+ * whole session is a seed, the number of questions, a position and the 
+ * version of the questions it shuffles, so it fits in a short token the client
+ * sends back for the next question. Indexes only mean the same questions in 
+ * the same version, so a session can't go on after a reload. Nothing is kept
+ * on the server and nothing is copied per session. This class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuestionSession {
+    private static final char SEPARATOR = '.';
+    private static final int RADIX = 36;
+    
+    final private long seed;
+    final private long size;
+    final private long position;
+    final private long version;
+    
+    /**
+     * Constructor. Intentionally private. Use {@link #start(long, long)} or 
+     * {@link #parse(java.lang.String)}.
+     */
+    private TriviaQuestionSession(long seed, long size, long position, long version) {
+        this.seed = seed;
+        this.size = size;
+        this.position = position;
+        this.version = version;
+    }
+    
+    /**
+     * Starts a new session with a random order.
+     * 
+     * @param size the number of questions to shuffle
+     * @param version the version of the questions
+     * @return a session at the first question
+     */
+    public static TriviaQuestionSession start(long size, long version) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size can't be less than 0");
+        }
+        return new TriviaQuestionSession(ThreadLocalRandom.current().nextLong(), size, 0, version);
+    }
+    
+    /**
+     * Reads a session from a token made by {@link #toToken()}.
+     * 
+     * @param token the session token
+     * @return the session
+     * @throws IllegalArgumentException if the token is not a session token
+     */
+    public static TriviaQuestionSession parse(String token) {
+        int first = token.indexOf(SEPARATOR);
+        int second = token.indexOf(SEPARATOR, first + 1);
+        int third = token.indexOf(SEPARATOR, second + 1);
+        if (first < 0 || second < 0 || third < 0) {
+            throw new IllegalArgumentException("Not a session token: " + token);
+        }
+        try {
+            long seed = Long.parseUnsignedLong(token.substring(0, first), RADIX);
+            long size = Long.parseLong(token.substring(first + 1, second), RADIX);
+            long position = Long.parseLong(token.substring(second + 1, third), RADIX);
+            long version = Long.parseLong(token.substring(third + 1), RADIX);
+            if (size < 0 || position < 0 || position > size) {
+                throw new IllegalArgumentException("Not a session token: " + token);
+            }
+            return new TriviaQuestionSession(seed, size, position, version);
+        } catch (NumberFormatException ne) {
+            throw new IllegalArgumentException("Not a session token: " + token, ne);
+        }
+    }
+    
+    /**
+     * @return the token that identifies this session and position
+     */
+    public String toToken() {
+        return Long.toUnsignedString(seed, RADIX) + SEPARATOR 
+                + Long.toString(size, RADIX) + SEPARATOR 
+                + Long.toString(position, RADIX) + SEPARATOR 
+                + Long.toString(version, RADIX);
+    }
+    
+    /**
+     * @return true if there are questions left in the session
+     */
+    public boolean hasNext() {
+        return position < size;
+    }
+    
+    /**
+     * @return the question index at the current position
+     * @throws IndexOutOfBoundsException if there are no questions left
+     */
+    public long getQuestionIndex() {
+        return new RandomPermutation(size, seed).get(position);
+    }
+    
+    /**
+     * @return the session at the next position
+     */
+    public TriviaQuestionSession advance() {
+        return new TriviaQuestionSession(seed, size, Math.min(position + 1, size), version);
+    }
+    
+    /**
+     * @return the number of questions left in the session
+     */
+    public long getRemaining() {
+        return size - position;
+    }
+    
+    /**
+     * @return the number of questions in the session
+     */
+    public long getSize() {
+        return size;
+    }
+    
+    /**
+     * @return the version of the questions the session shuffles
+     */
+    public long getVersion() {
+        return version;
+    }
+}
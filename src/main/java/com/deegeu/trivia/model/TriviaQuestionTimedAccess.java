@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import com.deegeu.trivia.metrics.LatencyHistogram;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Times the lookups of another trivia question store. Each lookup is recorded 
+ * in a {@link TriviaMetrics} store operation, named after the method. Cheap 
+ * reads like the size and version aren't timed. Snapshots are timed too, and 
+ * the timed snapshot is kept until the store's snapshot changes, so reading
+ * through a snapshot doesn't allocate.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionTimedAccess implements TriviaQuestionAccessible {
+    private static final LatencyHistogram BY_INDEX = TriviaMetrics.storeOperation("getQuestionByIndex");
+    private static final LatencyHistogram BY_ID = TriviaMetrics.storeOperation("getQuestionById");
+    private static final LatencyHistogram CORRECT_ANSWER = TriviaMetrics.storeOperation("getCorrectAnswer");
+    private static final LatencyHistogram RANDOM = TriviaMetrics.storeOperation("getRandomQuestion");
+    private static final LatencyHistogram RANDOM_FILTERED = TriviaMetrics.storeOperation("getRandomQuestions");
+    private static final LatencyHistogram LIST = TriviaMetrics.storeOperation("getQuestionList");
+    private static final LatencyHistogram LIST_FILTERED = TriviaMetrics.storeOperation("getFilteredQuestionList");
+    private static final LatencyHistogram COUNT_FILTERED = TriviaMetrics.storeOperation("getFilteredQuestionListSize");
+    private static final LatencyHistogram SEARCH = TriviaMetrics.storeOperation("searchQuestions");
+    private static final LatencyHistogram PAGE = TriviaMetrics.storeOperation("getQuestionPage");
+    private static final LatencyHistogram SPECIFIED = TriviaMetrics.storeOperation("getSpecifiedQuestionList");
+    private static final LatencyHistogram BATCH = TriviaMetrics.storeOperation("getQuestionBatch");
+    
+    final private TriviaQuestionAccessible questions;
+    private volatile TriviaQuestionTimedAccess snapshot;
+    
+    /**
+     * Constructor.
+     * 
+     * @param questions the store to time
+     */
+    public TriviaQuestionTimedAccess(TriviaQuestionAccessible questions) {
+        this.questions = questions;
+    }
+    
+    @Override
+    public TriviaQuestionAccessible getSnapshot() {
+        TriviaQuestionAccessible current = questions.getSnapshot();
+        if (current == questions) {
+            return this;
+        }
+        TriviaQuestionTimedAccess timed = snapshot;
+        if (timed == null || timed.questions != current) {
+            timed = new TriviaQuestionTimedAccess(current);
+            snapshot = timed;
+        }
+        return timed;
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        long start = System.nanoTime();
+        TriviaQuestion question = questions.getQuestionByIndex(index);
+        BY_INDEX.recordSince(start);
+        return question;
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionById(long id) {
+        long start = System.nanoTime();
+        TriviaQuestion question = questions.getQuestionById(id);
+        BY_ID.recordSince(start);
+        return question;
+    }
+    
+    @Override
+    public TriviaAnswer getCorrectAnswer(long id) {
+        long start = System.nanoTime();
+        TriviaAnswer answer = questions.getCorrectAnswer(id);
+        CORRECT_ANSWER.recordSince(start);
+        return answer;
+    }
+    
+    @Override
+    public TriviaQuestion getRandomQuestion() {
+        long start = System.nanoTime();
+        TriviaQuestion question = questions.getRandomQuestion();
+        RANDOM.recordSince(start);
+        return question;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> list = questions.getRandomQuestions(filter, count);
+        RANDOM_FILTERED.recordSince(start);
+        return list;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> list = questions.getQuestionList(offset);
+        LIST.recordSince(start);
+        return list;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> list = questions.getQuestionList(offset, limit);
+        LIST.recordSince(start);
+        return list;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> list = questions.getQuestionList(filter, offset, limit);
+        LIST_FILTERED.recordSince(start);
+        return list;
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after) {
+        long start = System.nanoTime();
+        TriviaQuestionPage page = questions.getQuestionPage(after);
+        PAGE.recordSince(start);
+        return page;
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit) {
+        long start = System.nanoTime();
+        TriviaQuestionPage page = questions.getQuestionPage(after, limit);
+        PAGE.recordSince(start);
+        return page;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getSpecifiedQuestionList(long... id) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> list = questions.getSpecifiedQuestionList(id);
+        SPECIFIED.recordSince(start);
+        return list;
+    }
+    
+    @Override
+    public TriviaQuestionBatch getQuestionBatch(long... id) {
+        long start = System.nanoTime();
+        TriviaQuestionBatch batch = questions.getQuestionBatch(id);
+        BATCH.recordSince(start);
+        return batch;
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return questions.getQuestionListSize();
+    }
+    
+    @Override
+    public long getQuestionListSize(TriviaQuestionFilter filter) {
+        long start = System.nanoTime();
+        long size = questions.getQuestionListSize(filter);
+        COUNT_FILTERED.recordSince(start);
+        return size;
+    }
+    
+    @Override
+    public List<TriviaQuestion> searchQuestions(String query, int limit) {
+        long start = System.nanoTime();
+        List<TriviaQuestion> found = questions.searchQuestions(query, limit);
+        SEARCH.recordSince(start);
+        return found;
+    }
+    
+    @Override
+    public long getVersion() {
+        return questions.getVersion();
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return questions.getLastUpdated();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws the random questions of another trivia question store by weight 
+ * instead of uniformly. Every other read goes straight to the store. The 
+ * weights are kept in a {@link TriviaQuestionSampler} for the store's current
+ * snapshot, so a draw takes constant time. When the snapshot changes, the
+ * sampler is made again on the next draw. Only when both snapshots are 
+ * {@link TriviaQuestionArrayAccess} are unchanged blocks reused, and only the
+ * blocks holding a different question object weighed again. Columnar, mapped
+ * and database stores make a new object on every read, so finding their 
+ * changes would read every question anyway, and their sampler is rebuilt in
+ * full on each reload. A rebuild reads every question once, in one scan: for
+ * a database store that is a query of the whole table on the first draw 
+ * after each reload, and a weight per question in memory while it runs.
+ * Filtered draws are uniform among the matching questions.
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaQuestionWeightedAccess implements TriviaQuestionAccessible {
+    final private TriviaQuestionAccessible questions;
+    final private TriviaQuestionWeighting weighting;
+    final private TriviaQuestionWeightedAccess owner;
+    private volatile Weights weights;
+    private volatile TriviaQuestionWeightedAccess snapshot;
+    
+    /**
+     * Constructor.
+     * 
+     * @param questions the store to draw from
+     * @param weighting how likely each question is to be drawn
+     */
+    public TriviaQuestionWeightedAccess(TriviaQuestionAccessible questions, TriviaQuestionWeighting weighting) {
+        this.questions = questions;
+        this.weighting = weighting;
+        this.owner = this;
+    }
+    
+    private TriviaQuestionWeightedAccess(TriviaQuestionAccessible snapshot, TriviaQuestionWeightedAccess owner) {
+        this.questions = snapshot;
+        this.weighting = owner.weighting;
+        this.owner = owner;
+    }
+    
+    @Override
+    public TriviaQuestionAccessible getSnapshot() {
+        TriviaQuestionAccessible current = questions.getSnapshot();
+        if (current == questions) {
+            return this;
+        }
+        TriviaQuestionWeightedAccess weighted = snapshot;
+        if (weighted == null || weighted.questions != current) {
+            weighted = new TriviaQuestionWeightedAccess(current, owner);
+            snapshot = weighted;
+        }
+        return weighted;
+    }
+    
+    @Override
+    public TriviaQuestion getRandomQuestion() {
+        TriviaQuestionAccessible current = questions.getSnapshot();
+        TriviaQuestionSampler sampler = owner.samplerFor(current);
+        if (sampler == null) {
+            return current.getRandomQuestion();
+        }
+        int index = sampler.sample(ThreadLocalRandom.current());
+        return (index >= 0) ? current.getQuestionByIndex(index) : null;
+    }
+    
+    @Override
+    public List<TriviaQuestion> getRandomQuestions(TriviaQuestionFilter filter, int count) {
+        if (!filter.isAll()) {
+            return questions.getRandomQuestions(filter, count);
+        }
+        AbstractTriviaQuestionAccess.checkLimit(count);
+        TriviaQuestionAccessible current = questions.getSnapshot();
+        TriviaQuestionSampler sampler = owner.samplerFor(current);
+        if (sampler == null) {
+            return current.getRandomQuestions(filter, count);
+        }
+        int[] indexes = sampler.sample(count, ThreadLocalRandom.current());
+        List<TriviaQuestion> drawn = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            drawn.add(current.getQuestionByIndex(index));
+        }
+        return Collections.unmodifiableList(drawn);
+    }
+    
+    /**
+     * @return how likely each question is to be drawn
+     */
+    public TriviaQuestionWeighting getWeighting() {
+        return weighting;
+    }
+    
+    /*
+        Returns the sampler for a snapshot, making it if the snapshot changed.
+        Only the owner keeps one, so every snapshot view shares it. A request
+        still reading a snapshot older than the sampler's gets null, and draws
+        uniformly, rather than making the sampler go back and forth.
+    */
+    TriviaQuestionSampler samplerFor(TriviaQuestionAccessible current) {
+        Weights known = weights;
+        if (known != null && known.questions == current) {
+            return known.sampler;
+        }
+        synchronized (this) {
+            known = weights;
+            if (known != null && known.questions != current 
+                    && current.getVersion() < known.questions.getVersion()) {
+                return null;
+            }
+            if (known == null || known.questions != current) {
+                known = new Weights(current, (known != null) ? weigh(known, current) : weigh(current));
+                weights = known;
+            }
+            return known.sampler;
+        }
+    }
+    
+    /*
+        Weighs every question of a snapshot. The stores in this package are 
+        read with one scan, which doesn't go through a database store's cache,
+        instead of one read per question.
+    */
+    private TriviaQuestionSampler weigh(TriviaQuestionAccessible current) {
+        int size = (int) current.getQuestionListSize();
+        if (!(current instanceof AbstractTriviaQuestionAccess)) {
+            return TriviaQuestionSampler.build(size, 
+                    index -> weighting.weigh(current.getQuestionByIndex(index)));
+        }
+        /* Questions missing from the scan keep weight 0, so they're never drawn. */
+        double[] weights = new double[size];
+        ((AbstractTriviaQuestionAccess) current).forEachQuestion(
+                (question, index) -> weights[index] = weighting.weigh(question));
+        return TriviaQuestionSampler.build(size, index -> weights[index]);
+    }
+    
+    /*
+        Reuses the previous sampler's blocks for the indexes that still hold
+        the same question object. Only array stores keep their objects across
+        generations, so anything else is weighed from scratch.
+    */
+    private TriviaQuestionSampler weigh(Weights previous, TriviaQuestionAccessible current) {
+        if (!(previous.questions instanceof TriviaQuestionArrayAccess) 
+                || !(current instanceof TriviaQuestionArrayAccess)) {
+            return weigh(current);
+        }
+        int size = (int) current.getQuestionListSize();
+        int shared = (int) Math.min(size, previous.questions.getQuestionListSize());
+        int[] changed = new int[(shared + TriviaQuestionSampler.BLOCK_SIZE - 1) / TriviaQuestionSampler.BLOCK_SIZE];
+        int changedCount = 0;
+        for (int index = 0; index < shared; index++) {
+            if (current.getQuestionByIndex(index) != previous.questions.getQuestionByIndex(index)) {
+                changed[changedCount++] = index;
+                /* The rest of a changed block is weighed anyway. */
+                index |= TriviaQuestionSampler.BLOCK_SIZE - 1;
+            }
+        }
+        int[] indexes = new int[changedCount];
+        System.arraycopy(changed, 0, indexes, 0, changedCount);
+        return previous.sampler.update(size, indexes, 
+                index -> weighting.weigh(current.getQuestionByIndex(index)));
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionByIndex(long index) {
+        return questions.getQuestionByIndex(index);
+    }
+    
+    @Override
+    public TriviaQuestion getQuestionById(long id) {
+        return questions.getQuestionById(id);
+    }
+    
+    @Override
+    public TriviaAnswer getCorrectAnswer(long id) {
+        return questions.getCorrectAnswer(id);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset) {
+        return questions.getQuestionList(offset);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(long offset, int limit) {
+        return questions.getQuestionList(offset, limit);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getQuestionList(TriviaQuestionFilter filter, long offset, int limit) {
+        return questions.getQuestionList(filter, offset, limit);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after) {
+        return questions.getQuestionPage(after);
+    }
+    
+    @Override
+    public TriviaQuestionPage getQuestionPage(TriviaQuestionCursor after, int limit) {
+        return questions.getQuestionPage(after, limit);
+    }
+    
+    @Override
+    public List<TriviaQuestion> getSpecifiedQuestionList(long... id) {
+        return questions.getSpecifiedQuestionList(id);
+    }
+    
+    @Override
+    public TriviaQuestionBatch getQuestionBatch(long... id) {
+        return questions.getQuestionBatch(id);
+    }
+    
+    @Override
+    public long getQuestionListSize() {
+        return questions.getQuestionListSize();
+    }
+    
+    @Override
+    public long getQuestionListSize(TriviaQuestionFilter filter) {
+        return questions.getQuestionListSize(filter);
+    }
+    
+    @Override
+    public List<TriviaQuestion> searchQuestions(String query, int limit) {
+        return questions.searchQuestions(query, limit);
+    }
+    
+    @Override
+    public long getVersion() {
+        return questions.getVersion();
+    }
+    
+    @Override
+    public Date getLastUpdated() {
+        return questions.getLastUpdated();
+    }
+    
+    /*
+        The sampler made for one snapshot.
+    */
+    private static final class Weights {
+        final TriviaQuestionAccessible questions;
+        final TriviaQuestionSampler sampler;
+        
+        Weights(TriviaQuestionAccessible questions, TriviaQuestionSampler sampler) {
+            this.questions = questions;
+            this.sampler = sampler;
+        }
+    }
+}
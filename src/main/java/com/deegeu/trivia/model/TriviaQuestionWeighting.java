@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+/**
+ * How likely a {@link TriviaQuestion} is to be drawn at random, relative to 
+ * the others. Used by {@link TriviaQuestionWeightedAccess}. A question with 
+ * twice the weight is drawn twice as often, and a question with no weight is
+ * never drawn. A weighting is asked for each question's weight once per 
+ * generation of questions, so it should only depend on the question.
+ * 
+ * @author DJ Spiess
+ */
+@FunctionalInterface
+public interface TriviaQuestionWeighting {
+    
+    /**
+     * Every question is as likely as any other.
+     */
+    TriviaQuestionWeighting UNIFORM = question -> 1.0;
+    
+    /**
+     * Returns the weight of a question.
+     * 
+     * @param question the question
+     * @return the weight, zero or more
+     */
+    double weigh(TriviaQuestion question);
+    
+    /**
+     * Weighs questions by difficulty. Unrated questions weigh 1.
+     * 
+     * @param weights the weights of difficulty 1 to 5
+     * @return the weighting
+     * @throws IllegalArgumentException if there aren't five weights, or one is negative
+     */
+    static TriviaQuestionWeighting byDifficulty(double... weights) {
+        if (weights.length != TriviaQuestion.MAX_DIFFICULTY) {
+            throw new IllegalArgumentException("Expected " + TriviaQuestion.MAX_DIFFICULTY 
+                    + " difficulty weights, but got " + weights.length);
+        }
+        double[] byDifficulty = new double[TriviaQuestion.MAX_DIFFICULTY + 1];
+        byDifficulty[TriviaQuestion.UNRATED] = 1.0;
+        for (int i = 0; i < weights.length; i++) {
+            if (!(weights[i] >= 0)) {
+                throw new IllegalArgumentException("Difficulty weights can't be less than 0");
+            }
+            byDifficulty[TriviaQuestion.MIN_DIFFICULTY + i] = weights[i];
+        }
+        return question -> byDifficulty[question.getDifficulty()];
+    }
+    
+    /**
+     * Favors recently added or changed questions. A question updated just now
+     * weighs 1 + boost, and the boost halves with every half life of age, so
+     * old questions weigh about 1. Ages are measured when the weights are 
+     * computed.
+     * 
+     * @param halfLifeMillis the age at which the boost is halved, in milliseconds
+     * @param boost the extra weight of a brand new question
+     * @return the weighting
+     * @throws IllegalArgumentException if the half life isn't positive, or the boost is negative
+     */
+    static TriviaQuestionWeighting recentlyUpdated(long halfLifeMillis, double boost) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Half life must be more than 0");
+        }
+        if (!(boost >= 0)) {
+            throw new IllegalArgumentException("Boost can't be less than 0");
+        }
+        return question -> {
+            long age = Math.max(System.currentTimeMillis() - question.getLastUpdated().getTime(), 0L);
+            return 1.0 + boost * Math.pow(0.5, (double) age / halfLifeMillis);
+        };
+    }
+    
+    /**
+     * Reads a weighting from its name. The names are <code>uniform</code>, 
+     * <code>difficulty:w1,w2,w3,w4,w5</code> with the weight of each 
+     * difficulty, and <code>recent:days</code> with the half life in days, 
+     * which makes new questions up to 4 times as likely.
+     * 
+     * @param name the name of the weighting
+     * @return the weighting
+     * @throws IllegalArgumentException if the name can't be read
+     */
+    static TriviaQuestionWeighting parse(String name) {
+        String trimmed = name.trim();
+        int colon = trimmed.indexOf(':');
+        String kind = (colon < 0) ? trimmed : trimmed.substring(0, colon);
+        String argument = (colon < 0) ? "" : trimmed.substring(colon + 1).trim();
+        try {
+            if (kind.equalsIgnoreCase("uniform") && colon < 0) {
+                return UNIFORM;
+            } else if (kind.equalsIgnoreCase("difficulty")) {
+                String[] parts = argument.split(",");
+                double[] weights = new double[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    weights[i] = Double.parseDouble(parts[i].trim());
+                }
+                return byDifficulty(weights);
+            } else if (kind.equalsIgnoreCase("recent")) {
+                double days = Double.parseDouble(argument);
+                return recentlyUpdated((long) (days * 86400000L), 3.0);
+            }
+        } catch (NumberFormatException ne) {
+            throw new IllegalArgumentException("Unable to read weighting " + name, ne);
+        }
+        throw new IllegalArgumentException("Unknown weighting " + name);
+    }
+}
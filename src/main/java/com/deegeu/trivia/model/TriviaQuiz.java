@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A quiz of distinct questions in a fixed order. The quiz id is made of the 
+ * question ids, so a client can send it back to fetch or grade the same quiz 
+ * on any server, and nothing is kept on the server. This class is immutable.
+ * 
+ * @author DJ Spiess
+ */
+final public class TriviaQuiz {
+    /** The most questions in a quiz. */
+    public static final int MAX_SIZE = 100;
+    
+    private static final char SEPARATOR = '-';
+    private static final int RADIX = 36;
+    
+    final private long[] questionIds;
+    
+    /**
+     * Constructor. Intentionally private. Use {@link #of(java.util.List)} or 
+     * {@link #parse(java.lang.String)}.
+     */
+    private TriviaQuiz(long[] questionIds) {
+        this.questionIds = questionIds;
+    }
+    
+    /**
+     * Makes a quiz of questions.
+     * 
+     * @param questions the questions, in quiz order
+     * @return the quiz
+     * @throws IllegalArgumentException if there are no questions or more than {@link #MAX_SIZE}, or a question is repeated
+     */
+    public static TriviaQuiz of(List<TriviaQuestion> questions) {
+        checkSize(questions.size());
+        long[] ids = new long[questions.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = questions.get(i).getId();
+        }
+        if (hasRepeats(ids)) {
+            throw new IllegalArgumentException("A quiz can't repeat a question");
+        }
+        return new TriviaQuiz(ids);
+    }
+    
+    /**
+     * Reads a quiz from an id made by {@link #toId()}. Each quiz has one id,
+     * so ids spelled any other way, like with a sign, leading zeros or upper
+     * case digits, are rejected, as are ids that repeat a question.
+     * 
+     * @param id the quiz id
+     * @return the quiz
+     * @throws IllegalArgumentException if the id is not a quiz id
+     */
+    public static TriviaQuiz parse(String id) {
+        long[] ids = new long[MAX_SIZE];
+        int count = 0;
+        int start = 0;
+        try {
+            while (start <= id.length()) {
+                int end = id.indexOf(SEPARATOR, start);
+                if (end < 0) {
+                    end = id.length();
+                }
+                if (count == MAX_SIZE) {
+                    throw new IllegalArgumentException("Not a quiz id: " + id);
+                }
+                ids[count++] = Long.parseLong(id.substring(start, end), RADIX);
+                if (ids[count - 1] < 0) {
+                    throw new IllegalArgumentException("Not a quiz id: " + id);
+                }
+                start = end + 1;
+            }
+        } catch (NumberFormatException ne) {
+            throw new IllegalArgumentException("Not a quiz id: " + id, ne);
+        }
+        TriviaQuiz quiz = new TriviaQuiz(Arrays.copyOf(ids, count));
+        if (hasRepeats(quiz.questionIds) || !quiz.toId().equals(id)) {
+            throw new IllegalArgumentException("Not a quiz id: " + id);
+        }
+        return quiz;
+    }
+    
+    private static boolean hasRepeats(long[] ids) {
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return the id that identifies this quiz
+     */
+    public String toId() {
+        StringBuilder id = new StringBuilder(questionIds.length * 5);
+        for (long questionId : questionIds) {
+            if (id.length() > 0) {
+                id.append(SEPARATOR);
+            }
+            id.append(Long.toString(questionId, RADIX));
+        }
+        return id.toString();
+    }
+    
+    /**
+     * @return the question ids, in quiz order
+     */
+    public long[] getQuestionIds() {
+        return questionIds.clone();
+    }
+    
+    /**
+     * @param index the position in the quiz, from 0
+     * @return the id of the question at the position
+     */
+    public long getQuestionId(int index) {
+        return questionIds[index];
+    }
+    
+    /**
+     * @return the number of questions in the quiz
+     */
+    public int size() {
+        return questionIds.length;
+    }
+    
+    /**
+     * Checks the number of questions asked for in a quiz.
+     * 
+     * @param size the number of questions
+     * @throws IllegalArgumentException if the size is less than 1 or more than {@link #MAX_SIZE}
+     */
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("A quiz has 1 to " + MAX_SIZE + " questions");
+        }
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return (other instanceof TriviaQuiz) && Arrays.equals(questionIds, ((TriviaQuiz) other).questionIds);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(questionIds);
+    }
+    
+    @Override
+    public String toString() {
+        return toId();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 DJ Spiess.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of canonical strings, shared by the builders of a bulk 
+ * build. Answers and hints repeat a lot across a question bank ("True", 
+ * "False", years, country names), so handing every question the same 
+ * instance of equal text keeps one copy on the heap instead of one per 
+ * question. The pool is safe to use from several threads at once.
+ * 
+ * <p>Only short strings are pooled, and once the pool is full new strings are
+ * passed through unchanged, so a bank of unique text can't grow it without 
+ * bound. Racing threads may add a few entries past the limit.</p>
+ * 
+ * @author DJ Spiess
+ */
+public class TriviaStringPool {
+    /** The default number of strings kept. */
+    public static final int DEFAULT_MAX_ENTRIES = 65536;
+    
+    /** The default length of the longest string kept. */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+    
+    final private ConcurrentHashMap<String, String> strings;
+    final private AtomicInteger size = new AtomicInteger();
+    final private int maxEntries;
+    final private int maxLength;
+    
+    /**
+     * Constructor. Uses the default limits.
+     */
+    public TriviaStringPool() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LENGTH);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param maxEntries the number of strings kept
+     * @param maxLength the length of the longest string kept
+     */
+    public TriviaStringPool(int maxEntries, int maxLength) {
+        if (maxEntries < 0 || maxLength < 0) {
+            throw new IllegalArgumentException("Pool limits can't be less than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+        this.strings = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+    
+    /**
+     * Returns the pooled instance equal to the string. The string itself is 
+     * returned, and pooled if there is room, when there is no equal instance.
+     * 
+     * @param string the string, may be null
+     * @return an equal string
+     */
+    public String intern(String string) {
+        if (string == null || string.length() > maxLength) {
+            return string;
+        }
+        String pooled = strings.get(string);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (size.get() >= maxEntries) {
+            return string;
+        }
+        pooled = strings.putIfAbsent(string, string);
+        if (pooled != null) {
+            return pooled;
+        }
+        size.incrementAndGet();
+        return string;
+    }
+    
+    /**
+     * @return the number of strings in the pool
+     */
+    public int size() {
+        return size.get();
+    }
+}
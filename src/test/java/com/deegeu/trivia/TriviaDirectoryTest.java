@@ -0,0 +1,64 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia;
+
+import java.net.URI;
+import java.util.Date;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaDirectoryTest {
+    
+    /**
+     * Test of getLastModified method, of class TriviaDirectory.
+     */
+    @Test
+    public void testGetLastModified() {
+        TriviaDirectory instance = new TriviaDirectory("1.0.0", new Date(1234567L));
+        assertEquals(new Date(1234000L), instance.getLastModified());
+        instance.getLastModified().setTime(0L);
+        assertEquals("The date can't be changed from outside.", new Date(1234000L), instance.getLastModified());
+        assertEquals("1.0.0", instance.getBuildVersion());
+    }
+    
+    /**
+     * Test of forBaseUri method, of class TriviaDirectory.
+     */
+    @Test
+    public void testForBaseUri() {
+        TriviaDirectory instance = new TriviaDirectory("1.0.0", new Date(1234567L));
+        URI baseUri = URI.create("http://localhost:8080/trivia/");
+        TriviaDirectory.Links links = instance.forBaseUri(baseUri);
+        
+        assertEquals("<http://localhost:8080/trivia/>; rel=\"self\"; type=\"application/json\"", links.getSelf());
+        assertEquals("<http://localhost:8080/trivia/questions>; rel=\"questions\"; type=\"application/json\"", 
+                links.getQuestions());
+        assertSame(links, instance.forBaseUri(URI.create("http://localhost:8080/trivia/")));
+        
+        TriviaDirectory.Links other = instance.forBaseUri(URI.create("http://example.com/trivia/"));
+        assertNotEquals(links.getEntityTag(), other.getEntityTag());
+        
+        TriviaDirectory otherNode = new TriviaDirectory("1.0.0", new Date(1234567L));
+        assertEquals("Same build, same tag.", links.getEntityTag(), otherNode.forBaseUri(baseUri).getEntityTag());
+        assertEquals(27, links.getEntityTag().length());
+        TriviaDirectory rebuilt = new TriviaDirectory("1.0.1", new Date(1234567L));
+        assertNotEquals(links.getEntityTag(), rebuilt.forBaseUri(baseUri).getEntityTag());
+    }
+    
+    /**
+     * Test of parseBuildTime method, of class TriviaDirectory.
+     */
+    @Test
+    public void testParseBuildTime() {
+        assertEquals(new Date(1461412800000L), TriviaDirectory.parseBuildTime("23.04.2016 @ 12:00:00 UTC"));
+        assertNull(TriviaDirectory.parseBuildTime("2016-04-23T12:00:00Z"));
+        assertNull(TriviaDirectory.parseBuildTime(null));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionFileWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Moving a new file over the watched one runs the reload, and changes to 
+     * other files in the directory don't.
+     */
+    @Test
+    public void testReloadOnReplace() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("questions.jsonl");
+        Files.write(file, "first".getBytes(StandardCharsets.UTF_8));
+        Semaphore reloads = new Semaphore(0);
+
+        TriviaQuestionFileWatcher watcher = new TriviaQuestionFileWatcher(file, reloads::release, 50L);
+        try {
+            Files.write(folder.getRoot().toPath().resolve("other.txt"), "x".getBytes(StandardCharsets.UTF_8));
+            assertFalse(reloads.tryAcquire(500, TimeUnit.MILLISECONDS));
+
+            Path replacement = folder.getRoot().toPath().resolve("questions.tmp");
+            Files.write(replacement, "second".getBytes(StandardCharsets.UTF_8));
+            Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            assertTrue(reloads.tryAcquire(10, TimeUnit.SECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+}
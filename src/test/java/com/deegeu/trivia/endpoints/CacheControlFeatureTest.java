@@ -0,0 +1,37 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.endpoints;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.UriInfo;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class CacheControlFeatureTest {
+
+    /**
+     * Test of toHeaderValue method, of class CacheControlFeature.
+     */
+    @Test
+    public void testToHeaderValue() throws NoSuchMethodException {
+        assertEquals("no-store", CacheControlFeature.toHeaderValue(policyOf("getRandomQuestion", 
+                AsyncResponse.class, UriInfo.class, HttpHeaders.class, String.class, int.class, Integer.class)));
+        assertEquals("private, max-age=300", CacheControlFeature.toHeaderValue(policyOf("getSessionQuestion", 
+                AsyncResponse.class, UriInfo.class, Request.class, HttpHeaders.class, String.class)));
+        assertEquals("max-age=60", CacheControlFeature.toHeaderValue(policyOf("getQuestionCount", 
+                AsyncResponse.class, UriInfo.class, Request.class, HttpHeaders.class)));
+    }
+
+    private static CacheControlPolicy policyOf(String method, Class<?>... parameters) throws NoSuchMethodException {
+        return TriviaQuestionEndpoint.class.getMethod(method, parameters).getAnnotation(CacheControlPolicy.class);
+    }
+}
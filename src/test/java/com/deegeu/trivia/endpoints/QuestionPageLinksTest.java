@@ -0,0 +1,73 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestionFilter;
+import java.net.URI;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class QuestionPageLinksTest {
+
+    private static final URI BASE_URI = URI.create("http://localhost:8080/trivia/");
+
+    /**
+     * Test of offsetLink method, of class QuestionPageLinks.
+     */
+    @Test
+    public void testOffsetLink() {
+        QuestionPageLinks instance = QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 10);
+        assertEquals("<http://localhost:8080/trivia/questions?offset=8>; rel=\"next\"; type=\"application/json\"",
+                instance.offsetLink(8, "next"));
+    }
+
+    /**
+     * Links for pages of other than the default size carry the limit.
+     */
+    @Test
+    public void testOffsetLinkWithLimit() {
+        QuestionPageLinks instance = QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 4);
+        assertEquals("<http://localhost:8080/trivia/questions?offset=8&limit=4>; rel=\"next\"; type=\"application/json\"",
+                instance.offsetLink(8, "next"));
+        assertNotSame(instance, QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 10));
+    }
+
+    /**
+     * Test of cursorLink method, of class QuestionPageLinks.
+     */
+    @Test
+    public void testCursorLink() {
+        QuestionPageLinks instance = QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 10);
+        assertEquals("<http://localhost:8080/trivia/questions?cursor=AAAA>; rel=\"next\"; type=\"application/json\"",
+                instance.cursorLink("AAAA", "next"));
+    }
+
+    /**
+     * The links are reused until the question version changes.
+     */
+    @Test
+    public void testForBaseUriCachesByVersion() {
+        QuestionPageLinks first = QuestionPageLinks.forBaseUri(BASE_URI, 2L, 11L, 4);
+        assertSame(first, QuestionPageLinks.forBaseUri(BASE_URI, 2L, 11L, 4));
+        assertNotSame(first, QuestionPageLinks.forBaseUri(BASE_URI, 3L, 11L, 4));
+    }
+
+    /**
+     * Links for a filtered list carry the filter.
+     */
+    @Test
+    public void testOffsetLinkWithFilter() {
+        QuestionPageLinks instance = QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 10, 
+                new TriviaQuestionFilter("Ancient History", 2));
+        assertEquals("<http://localhost:8080/trivia/questions?offset=8&category=ancient+history&difficulty=2>; "
+                + "rel=\"next\"; type=\"application/json\"", instance.offsetLink(8, "next"));
+        assertNotSame(instance, QuestionPageLinks.forBaseUri(BASE_URI, 1L, 11L, 10));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuiz;
+import java.nio.charset.StandardCharsets;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaAnswerGraderTest {
+    
+    private final TriviaQuestionArrayAccess questions = new TriviaQuestionArrayAccess();
+    
+    /**
+     * Test of gradeAll method, of class TriviaAnswerGrader.
+     */
+    @Test
+    public void testGradeAll() {
+        String body = "1=" + correct(1) + ", 2=" + wrong(2) + "\n99=A,3=" + correct(3) + "\n";
+        assertEquals("{\"graded\":4,\"correct\":2,\"results\":[true,false,null,true]}", gradeAll(body));
+    }
+    
+    /**
+     * Test of gradeAll method with an empty batch.
+     */
+    @Test
+    public void testGradeAllEmpty() {
+        assertEquals("{\"graded\":0,\"correct\":0,\"results\":[]}", gradeAll(" \n"));
+    }
+    
+    /**
+     * Test of gradeAll method with pairs that can't be parsed.
+     */
+    @Test
+    public void testGradeAllMalformed() {
+        String[] bodies = {"1=E", "1=", "=A", "1B", "1=AB", "x=A", "99999999999999999999=A", "1=a"};
+        for (String body : bodies) {
+            try {
+                gradeAll(body);
+                fail("Expected " + body + " to be rejected.");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+    
+    /**
+     * Test of grade method, of class TriviaAnswerGrader.
+     */
+    @Test
+    public void testGrade() {
+        String answer = correct(2);
+        byte[] result = TriviaAnswerGrader.grade(questions, 2L, (" " + answer + "\n").getBytes(StandardCharsets.UTF_8));
+        assertEquals("{\"id\":2,\"answer\":\"" + answer + "\",\"correct\":true,\"correctAnswer\":\"" + answer + "\"}", 
+                new String(result, StandardCharsets.UTF_8));
+        
+        result = TriviaAnswerGrader.grade(questions, 2L, wrong(2).getBytes(StandardCharsets.UTF_8));
+        assertTrue(new String(result, StandardCharsets.UTF_8).contains("\"correct\":false"));
+        
+        assertNull(TriviaAnswerGrader.grade(questions, 99L, "A".getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Test of grade method with a body that isn't one answer letter.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testGradeMalformed() {
+        TriviaAnswerGrader.grade(questions, 1L, "AB".getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Test of gradeQuiz method, of class TriviaAnswerGrader.
+     */
+    @Test
+    public void testGradeQuiz() {
+        TriviaQuiz quiz = TriviaQuiz.parse("3-2-1r-1");
+        byte[] results = TriviaAnswerGrader.gradeQuiz(questions, quiz, 
+                (correct(3) + ", " + wrong(2) + "\nA").getBytes(StandardCharsets.UTF_8));
+        assertEquals("{\"graded\":3,\"correct\":1,\"results\":[true,false,null]}", 
+                new String(results, StandardCharsets.UTF_8));
+        
+        String[] bodies = {"A,B,C,D,A", "AB", "1=A", "E"};
+        for (String body : bodies) {
+            try {
+                TriviaAnswerGrader.gradeQuiz(questions, quiz, body.getBytes(StandardCharsets.UTF_8));
+                fail("Expected " + body + " to be rejected.");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+    
+    private String gradeAll(String body) {
+        return new String(TriviaAnswerGrader.gradeAll(questions, body.getBytes(StandardCharsets.UTF_8)), 
+                StandardCharsets.UTF_8);
+    }
+    
+    private String correct(long id) {
+        return questions.getQuestionById(id).getCorrectAnswer();
+    }
+    
+    private String wrong(long id) {
+        return "A".equals(correct(id)) ? "B" : "A";
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.endpoints;
+
+import com.deegeu.trivia.model.TriviaQuestion;
+import com.deegeu.trivia.model.TriviaQuestionArrayAccess;
+import com.deegeu.trivia.model.TriviaQuestionBuilder;
+import com.deegeu.trivia.model.TriviaQuiz;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionJsonCacheTest {
+
+    /**
+     * Test of encode method, of class TriviaQuestionJson.
+     */
+    @Test
+    public void testEncode() {
+        TriviaQuestion question = (new TriviaQuestionBuilder())
+                .id(3)
+                .question("Who said \"Hello\\World\"?")
+                .answerA("A")
+                .answerB("B")
+                .answerC("C")
+                .answerD("D\n")
+                .correctAnswer("A")
+                .hint("Hint")
+                .lastUpdated(new Date(1000L))
+                .build();
+        String json = new String(TriviaQuestionJson.encode(question), StandardCharsets.UTF_8);
+        assertEquals("{\"id\":3,\"question\":\"Who said \\\"Hello\\\\World\\\"?\","
+                + "\"answerA\":\"A\",\"answerB\":\"B\",\"answerC\":\"C\",\"answerD\":\"D\\n\","
+                + "\"correctAnswer\":\"A\",\"hint\":\"Hint\",\"lastUpdated\":1000}", json);
+    }
+
+    /**
+     * Test of encode method with a category and difficulty, of class TriviaQuestionJson.
+     */
+    @Test
+    public void testEncodeCategory() {
+        TriviaQuestion question = (new TriviaQuestionBuilder())
+                .id(4)
+                .question("Q")
+                .answerA("A")
+                .answerB("B")
+                .answerC("C")
+                .answerD("D")
+                .correctAnswer("B")
+                .hint("Hint")
+                .category("History")
+                .difficulty(2)
+                .lastUpdated(new Date(1000L))
+                .build();
+        String json = new String(TriviaQuestionJson.encode(question), StandardCharsets.UTF_8);
+        assertEquals("{\"id\":4,\"question\":\"Q\","
+                + "\"answerA\":\"A\",\"answerB\":\"B\",\"answerC\":\"C\",\"answerD\":\"D\","
+                + "\"correctAnswer\":\"B\",\"hint\":\"Hint\",\"category\":\"History\",\"difficulty\":2,"
+                + "\"lastUpdated\":1000}", json);
+    }
+
+    /**
+     * The same store version gets the same cache, and a new version a new one.
+     */
+    /**
+     * A quiz is one object that reuses the encoded quiz questions, which 
+     * don't give away the answers.
+     */
+    @Test
+    public void testGetQuiz() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        TriviaQuestionJsonCache cache = TriviaQuestionJsonCache.forStore(store);
+        List<TriviaQuestion> questions = store.getSpecifiedQuestionList(2L, 5L);
+        String json = new String(cache.getQuiz(TriviaQuiz.of(questions), questions).getBytes(), StandardCharsets.UTF_8);
+        
+        assertEquals("{\"id\":\"2-5\",\"size\":2,\"questions\":["
+                + new String(cache.getQuizQuestion(questions.get(0)).getBytes(), StandardCharsets.UTF_8) + ","
+                + new String(cache.getQuizQuestion(questions.get(1)).getBytes(), StandardCharsets.UTF_8) + "]}", json);
+        assertFalse(json.contains("correctAnswer"));
+        assertTrue(json.contains("\"answerA\""));
+    }
+    
+    /**
+     * A question missing from the store is null, so the others keep their
+     * positions.
+     */
+    @Test
+    public void testGetQuizWithMissingQuestion() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        TriviaQuestionJsonCache cache = TriviaQuestionJsonCache.forStore(store);
+        List<TriviaQuestion> questions = store.getSpecifiedQuestionList(2L, 5L);
+        TriviaQuiz quiz = TriviaQuiz.of(questions);
+        String json = new String(cache.getQuiz(quiz, Arrays.asList(null, questions.get(1))).getBytes(), 
+                StandardCharsets.UTF_8);
+        
+        assertEquals("{\"id\":\"2-5\",\"size\":2,\"questions\":[null,"
+                + new String(cache.getQuizQuestion(questions.get(1)).getBytes(), StandardCharsets.UTF_8) + "]}", json);
+    }
+    
+    /**
+     * The cache is replaced when the store version changes.
+     */
+    @Test
+    public void testForStoreFollowsVersion() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        TriviaQuestionJsonCache cache = TriviaQuestionJsonCache.forStore(store);
+        SerializedEntity question = cache.getQuestion(store.getQuestionById(1L));
+        assertSame(question, TriviaQuestionJsonCache.forStore(store).getQuestion(store.getQuestionById(1L)));
+        
+        TriviaQuestionArrayAccess reloaded = new TriviaQuestionArrayAccess();
+        assertNotSame(cache, TriviaQuestionJsonCache.forStore(reloaded));
+    }
+
+    /**
+     * Test of getPage method, of class TriviaQuestionJsonCache.
+     */
+    @Test
+    public void testGetPage() throws IOException {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        JsonEntity page = TriviaQuestionJsonCache.forStore(store).getPage(8L, 10, store.getQuestionList(8L));
+        String json = new String(write(page, false), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{\"id\":8,"));
+        assertTrue(json.endsWith("}]"));
+        assertArrayEquals(write(page, false), gunzip(write(page, true)));
+    }
+
+    /**
+     * A list longer than a page is streamed, with the same bytes and entity 
+     * tag as the buffered array.
+     */
+    @Test
+    public void testStreamedList() throws IOException {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        TriviaQuestionJsonCache cache = TriviaQuestionJsonCache.forStore(store);
+        JsonEntity streamed = cache.getQuestions(store.getQuestionList(0L, 11));
+        assertTrue(streamed instanceof StreamedJsonArray);
+        
+        List<byte[]> encoded = new ArrayList<>();
+        for (TriviaQuestion question : store.getQuestionList(0L, 11)) {
+            encoded.add(TriviaQuestionJson.encode(question));
+        }
+        SerializedEntity buffered = new SerializedEntity(TriviaQuestionJson.encodeArray(encoded));
+        assertArrayEquals(buffered.getBytes(), write(streamed, false));
+        assertArrayEquals(buffered.getBytes(), gunzip(write(streamed, true)));
+        assertEquals(buffered.getEntityTag(false), streamed.getEntityTag(false));
+        assertEquals(buffered.getEntityTag(true), streamed.getEntityTag(true));
+    }
+
+    /**
+     * Test of getEntityTag method, of class SerializedEntity.
+     */
+    @Test
+    public void testEntityTagFollowsContent() {
+        byte[] json = "[1,2,3]".getBytes(StandardCharsets.UTF_8);
+        SerializedEntity entity = new SerializedEntity(json);
+        assertEquals(entity.getEntityTag(false), new SerializedEntity(json.clone()).getEntityTag(false));
+        assertNotEquals(entity.getEntityTag(false), entity.getEntityTag(true));
+        assertNotEquals(entity.getEntityTag(false), 
+                new SerializedEntity("[1,2,4]".getBytes(StandardCharsets.UTF_8)).getEntityTag(false));
+    }
+
+    /**
+     * Test of acceptsGzip method, of class TriviaQuestionEndpoint.
+     */
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue(TriviaQuestionEndpoint.acceptsGzip("gzip, deflate"));
+        assertTrue(TriviaQuestionEndpoint.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(TriviaQuestionEndpoint.acceptsGzip("gzip;q=0"));
+        assertFalse(TriviaQuestionEndpoint.acceptsGzip("identity"));
+        assertFalse(TriviaQuestionEndpoint.acceptsGzip(null));
+    }
+
+    /**
+     * Test of toPageSize method, of class TriviaQuestionEndpoint.
+     */
+    @Test
+    public void testToPageSize() {
+        assertEquals(10, TriviaQuestionEndpoint.toPageSize(10));
+        assertEquals(1, TriviaQuestionEndpoint.toPageSize(0));
+        assertEquals(500, TriviaQuestionEndpoint.toPageSize(100000));
+    }
+
+    private static byte[] write(JsonEntity entity, boolean compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.toStreamingOutput(compressed).write(out);
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}
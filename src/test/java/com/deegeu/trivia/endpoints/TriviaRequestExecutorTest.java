@@ -0,0 +1,95 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.endpoints;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaRequestExecutorTest {
+    
+    private TriviaRequestExecutor instance;
+    
+    @After
+    public void tearDown() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+    
+    /**
+     * Test of execute method, of class TriviaRequestExecutor.
+     */
+    @Test
+    public void testExecute() throws InterruptedException {
+        instance = new TriviaRequestExecutor(2, 4, 1000L);
+        CountDownLatch done = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(instance.execute(done::countDown));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1000L, instance.getTimeoutMillis());
+    }
+    
+    /**
+     * Test that tasks are turned away once every thread is busy and the queue
+     * is full.
+     */
+    @Test
+    public void testExecuteQueueFull() throws InterruptedException {
+        instance = new TriviaRequestExecutor(1, 2, 1000L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        assertTrue(instance.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            ran.incrementAndGet();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        assertTrue(instance.execute(ran::incrementAndGet));
+        assertTrue(instance.execute(ran::incrementAndGet));
+        assertEquals(2, instance.getQueuedCount());
+        assertFalse("A full queue should turn the task away.", instance.execute(ran::incrementAndGet));
+        
+        release.countDown();
+        instance.shutdown();
+        
+        assertTrue(waitForCount(ran, 3));
+        assertEquals(3, ran.get());
+    }
+    
+    /**
+     * Test of the constructor with a queue that can't hold anything.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoQueueFails() {
+        new TriviaRequestExecutor(1, 0, 1000L);
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static boolean waitForCount(AtomicInteger count, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return count.get() >= expected;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class LatencyHistogramTest {
+    
+    /**
+     * Test of the bucket bounds, of class LatencyHistogram.
+     */
+    @Test
+    public void testBucketBounds() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            long lowest = LatencyHistogram.lowestValueAt(i);
+            long highest = LatencyHistogram.highestValueAt(i);
+            assertTrue(lowest <= highest);
+            assertEquals(i, LatencyHistogram.indexOf(lowest));
+            assertEquals(i, LatencyHistogram.indexOf(highest));
+            assertEquals(highest + 1, LatencyHistogram.lowestValueAt(i + 1));
+        }
+        assertEquals(0, LatencyHistogram.indexOf(-5L));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+    
+    /**
+     * Test that quantiles are within the bucket error, of class LatencyHistogram.
+     */
+    @Test
+    public void testGetValuesAtQuantiles() {
+        LatencyHistogram instance = new LatencyHistogram();
+        assertArrayEquals(new long[] { 0L, 0L }, instance.getValuesAtQuantiles(0.5, 0.99));
+        
+        for (long nanos = 1; nanos <= 1000000; nanos++) {
+            instance.record(nanos * 1000);
+        }
+        long[] values = instance.getValuesAtQuantiles(0.5, 0.99, 0.999);
+        assertEquals(500000000.0, values[0], 500000000.0 / 16);
+        assertEquals(990000000.0, values[1], 990000000.0 / 16);
+        assertEquals(999000000.0, values[2], 999000000.0 / 16);
+        assertTrue(values[0] >= 500000000L);
+        assertEquals(1000000L, instance.getCount());
+        assertEquals(500000500000L * 1000, instance.getSumNanos());
+    }
+    
+    /**
+     * Test that old durations leave the window, of class LatencyHistogram.
+     */
+    @Test
+    public void testWindow() throws Exception {
+        LatencyHistogram instance = new LatencyHistogram(1000000L);
+        instance.record(1000000000L);
+        Thread.sleep(5);
+        assertEquals(1000000000.0, instance.getValuesAtQuantiles(0.5)[0], 1000000000.0 / 16);
+        Thread.sleep(5);
+        assertEquals(0L, instance.getValuesAtQuantiles(0.5)[0]);
+        assertEquals(1L, instance.getCount());
+    }
+    
+    /**
+     * Test of recording from many threads, of class LatencyHistogram.
+     */
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        LatencyHistogram instance = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    instance.record(ThreadLocalRandom.current().nextLong(1000000L));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(800000L, instance.getCount());
+        long[] values = instance.getValuesAtQuantiles(0.5, 1.0);
+        assertEquals(500000.0, values[0], 500000.0 / 8);
+        assertTrue(values[1] >= 900000L);
+    }
+}
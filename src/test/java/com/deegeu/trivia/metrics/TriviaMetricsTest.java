@@ -0,0 +1,60 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.metrics;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaMetricsTest {
+    
+    /**
+     * Test that registering twice returns the same recorder, of class TriviaMetrics.
+     */
+    @Test
+    public void testRegister() {
+        assertSame(TriviaMetrics.route("TestResource.same"), TriviaMetrics.route("TestResource.same"));
+        assertSame(TriviaMetrics.storeOperation("same"), TriviaMetrics.storeOperation("same"));
+        assertSame(TriviaMetrics.cache("same"), TriviaMetrics.cache("same"));
+    }
+    
+    /**
+     * Test of toPrometheus method, of class TriviaMetrics.
+     */
+    @Test
+    public void testToPrometheus() {
+        RouteMetrics route = TriviaMetrics.route("TestResource.get");
+        long now = System.nanoTime();
+        route.record(200, now - 2000000L);
+        route.record(200, now - 2000000L);
+        route.record(404, now - 2000000L);
+        TriviaMetrics.storeOperation("testLookup").record(1000L);
+        CacheCounter cache = TriviaMetrics.cache("test_cache");
+        cache.hit();
+        cache.hit();
+        cache.hit();
+        cache.miss();
+        
+        String result = TriviaMetrics.toPrometheus();
+        assertTrue(result.contains("# TYPE trivia_request_duration_seconds summary\n"));
+        assertTrue(result.contains("trivia_request_duration_seconds{route=\"TestResource.get\",quantile=\"0.5\"} 0.002"));
+        assertTrue(result.contains("trivia_request_duration_seconds{route=\"TestResource.get\",quantile=\"0.999\"} "));
+        assertTrue(result.contains("trivia_request_duration_seconds_count{route=\"TestResource.get\"} 3\n"));
+        assertTrue(result.contains("trivia_requests_total{route=\"TestResource.get\",status=\"2xx\"} 2\n"));
+        assertTrue(result.contains("trivia_requests_total{route=\"TestResource.get\",status=\"4xx\"} 1\n"));
+        assertFalse(result.contains("trivia_requests_total{route=\"TestResource.get\",status=\"5xx\"}"));
+        assertTrue(result.contains("trivia_store_duration_seconds_count{operation=\"testLookup\"} 1\n"));
+        assertTrue(result.contains("trivia_cache_requests_total{cache=\"test_cache\",result=\"hit\"} 3\n"));
+        assertTrue(result.contains("trivia_cache_requests_total{cache=\"test_cache\",result=\"miss\"} 1\n"));
+        assertTrue(result.contains("trivia_cache_hit_ratio{cache=\"test_cache\"} 0.75\n"));
+        for (String line : result.split("\n")) {
+            assertTrue(line, line.startsWith("# ") || line.matches("trivia_[a-z_]+\\{[^}]*\\} [0-9.E-]+"));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class LongIntHashMapTest {
+
+    /**
+     * Test of get method, of class LongIntHashMap.
+     */
+    @Test
+    public void testGet() {
+        LongIntHashMap instance = new LongIntHashMap(3);
+        assertTrue(instance.putIfAbsent(0L, 10));
+        assertTrue(instance.putIfAbsent(42L, 11));
+        assertTrue(instance.putIfAbsent(Long.MAX_VALUE, 12));
+        assertEquals(10, instance.get(0L));
+        assertEquals(11, instance.get(42L));
+        assertEquals(12, instance.get(Long.MAX_VALUE));
+        assertEquals(LongIntHashMap.NOT_FOUND, instance.get(7L));
+        assertEquals(LongIntHashMap.NOT_FOUND, instance.get(-1L));
+    }
+
+    /**
+     * Test of putIfAbsent method, of class LongIntHashMap.
+     */
+    @Test
+    public void testPutIfAbsentKeepsFirstValue() {
+        LongIntHashMap instance = new LongIntHashMap(1);
+        assertTrue(instance.putIfAbsent(5L, 1));
+        assertFalse(instance.putIfAbsent(5L, 2));
+        assertEquals(1, instance.get(5L));
+        assertEquals(1, instance.size());
+    }
+
+    /**
+     * The map grows past the expected size without losing keys.
+     */
+    @Test
+    public void testGrowsPastExpectedSize() {
+        LongIntHashMap instance = new LongIntHashMap(1);
+        for (int i = 0; i < 10000; i++) {
+            instance.putIfAbsent(i * 31L, i);
+        }
+        assertEquals(10000, instance.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, instance.get(i * 31L));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutNegativeKeyFails() {
+        new LongIntHashMap(1).putIfAbsent(-1L, 0);
+    }
+}
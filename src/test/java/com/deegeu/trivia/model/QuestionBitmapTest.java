@@ -0,0 +1,92 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class QuestionBitmapTest {
+
+    private static final int UNIVERSE = 10000;
+
+    private static QuestionBitmap every(int step, int from) {
+        int[] sorted = IntStream.iterate(from, i -> i + step).limit((UNIVERSE - from + step - 1) / step).toArray();
+        return QuestionBitmap.of(UNIVERSE, sorted, sorted.length);
+    }
+
+    /**
+     * Sparse sets are kept as indexes, dense sets as bitmaps.
+     */
+    @Test
+    public void testOf() {
+        QuestionBitmap sparse = every(100, 3);
+        assertFalse(sparse.isDense());
+        assertEquals(100, sparse.getCardinality());
+        assertTrue(sparse.contains(303));
+        assertFalse(sparse.contains(304));
+        assertFalse(sparse.contains(-1));
+
+        QuestionBitmap dense = every(3, 1);
+        assertTrue(dense.isDense());
+        assertEquals(3333, dense.getCardinality());
+        assertTrue(dense.contains(9997));
+        assertFalse(dense.contains(9998));
+        assertFalse(dense.contains(UNIVERSE));
+    }
+
+    /**
+     * Test of and method, of class QuestionBitmap, for each pair of forms.
+     */
+    @Test
+    public void testAnd() {
+        QuestionBitmap[] sets = { every(100, 0), every(70, 0), every(2, 0), every(3, 0) };
+        for (QuestionBitmap first : sets) {
+            for (QuestionBitmap second : sets) {
+                QuestionBitmap both = first.and(second);
+                int expected = 0;
+                for (int index = 0; index < UNIVERSE; index++) {
+                    boolean inBoth = first.contains(index) && second.contains(index);
+                    assertEquals(inBoth, both.contains(index));
+                    expected += inBoth ? 1 : 0;
+                }
+                assertEquals(expected, both.getCardinality());
+            }
+        }
+        assertFalse(every(2, 0).and(every(50, 0)).isDense());
+        assertFalse(every(2, 0).and(every(3, 1)).and(every(5, 0)).and(every(7, 0)).isDense());
+    }
+
+    /**
+     * Test of select and selectRanks methods, of class QuestionBitmap.
+     */
+    @Test
+    public void testSelect() {
+        for (QuestionBitmap set : new QuestionBitmap[] { every(100, 5), every(3, 2) }) {
+            int[] all = set.select(0, UNIVERSE);
+            assertEquals(set.getCardinality(), all.length);
+            for (int i = 1; i < all.length; i++) {
+                assertTrue(all[i - 1] < all[i]);
+                assertTrue(set.contains(all[i]));
+            }
+            assertArrayEquals(Arrays.copyOfRange(all, 40, 50), set.select(40, 10));
+            assertEquals(5, set.select(all.length - 5, 10).length);
+            assertEquals(0, set.select(all.length + 5, 10).length);
+
+            int[] ranks = new Random(7).ints(0, all.length).distinct().limit(20).sorted().toArray();
+            int[] selected = set.selectRanks(ranks);
+            for (int i = 0; i < ranks.length; i++) {
+                assertEquals(all[ranks[i]], selected[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class QuestionClockCacheTest {
+
+    /**
+     * Questions read again survive a stream of questions read once, and the
+     * cache never holds more than its capacity.
+     */
+    @Test
+    public void testHotQuestionsStay() {
+        QuestionClockCache instance = new QuestionClockCache(10);
+        TriviaQuestion hot = TestQuestions.question(1000L);
+        instance.put(hot);
+        for (long id = 0; id < 500; id++) {
+            assertSame(hot, instance.get(1000L));
+            instance.put(TestQuestions.question(id));
+            assertTrue(instance.size() <= 10);
+        }
+        assertEquals(10, instance.size());
+        assertNotNull(instance.get(499L));
+        assertNull(instance.get(0L));
+    }
+
+    /**
+     * A cache of size 0 keeps nothing.
+     */
+    @Test
+    public void testEmptyCache() {
+        QuestionClockCache instance = new QuestionClockCache(0);
+        instance.put(TestQuestions.question(1L));
+        assertNull(instance.get(1L));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Date;
+
+/**
+ * Builds questions for the tests. Every field a question needs is filled in,
+ * so a test only sets the ones it checks.
+ *
+ * @author dspiess
+ */
+final class TestQuestions {
+
+    private TestQuestions() {
+    }
+
+    /**
+     * Returns a builder for a question with answers A to D, answer A correct,
+     * and a last updated date of one second after the epoch.
+     *
+     * @param id the question id
+     * @return a builder that can still be changed
+     */
+    static TriviaQuestionBuilder builder(long id) {
+        return (new TriviaQuestionBuilder())
+                .id(id)
+                .question("Question " + id)
+                .answerA("A")
+                .answerB("B")
+                .answerC("C")
+                .answerD("D")
+                .correctAnswer("A")
+                .hint("Hint")
+                .lastUpdated(new Date(1000L));
+    }
+
+    /**
+     * @param id the question id
+     * @return the question {@link #builder(long)} builds
+     */
+    static TriviaQuestion question(long id) {
+        return builder(id).build();
+    }
+}
@@ -7,6 +7,7 @@ package com.deegeu.trivia.model;
 
 import org.junit.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -43,6 +44,15 @@ public class TriviaQuestionArrayAccessTest {
         assertEquals("Trivia questions 1 do not match in ::getQuestion().", expResult.getId(), result.getId());
     }
 
+    /**
+     * Test of getQuestionById method for an id that isn't in the list.
+     */
+    @Test
+    public void testGetQuestionByMissingId() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+        assertNull("Missing id should return null in ::getQuestionById().", instance.getQuestionById(11L));
+    }
+
     /**
      * Test of getRandomQuestion method, of class TriviaQuestionArrayAccess.
      */
@@ -96,4 +106,91 @@ public class TriviaQuestionArrayAccessTest {
 
     }
 
+    /**
+     * Test of getQuestionBatch method, of class TriviaQuestionArrayAccess.
+     */
+    @Test
+    public void testGetQuestionBatch() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+
+        TriviaQuestionBatch batch = instance.getQuestionBatch(7L, 2L, 99L, 7L, 5L);
+
+        List<Long> actual = batch.getQuestions().stream()
+                                 .map(TriviaQuestion::getId)
+                                 .collect(Collectors.toList());
+        assertEquals("Batch should keep request order.", Arrays.asList(7L, 2L, 5L), actual);
+        assertArrayEquals(new long[] {99L}, batch.getMissingIds());
+        assertArrayEquals(new long[] {7L}, batch.getDuplicateIds());
+    }
+
+    /**
+     * The store is shared between requests, so the lists it hands out must be 
+     * read only.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQuestionListIsUnmodifiable() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+        instance.getQuestionList(0L).clear();
+    }
+
+    /**
+     * Following the cursors visits every question once, in list order.
+     */
+    @Test
+    public void testGetQuestionPage() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+
+        List<Long> visited = new ArrayList<>();
+        TriviaQuestionPage page = instance.getQuestionPage(null);
+        visited.addAll(page.getQuestions().stream().map(TriviaQuestion::getId).collect(Collectors.toList()));
+        assertEquals(10, page.getQuestions().size());
+        assertNotNull(page.getNextCursor());
+
+        TriviaQuestionCursor cursor = TriviaQuestionCursor.parse(page.getNextCursor().toToken());
+        page = instance.getQuestionPage(cursor);
+        visited.addAll(page.getQuestions().stream().map(TriviaQuestion::getId).collect(Collectors.toList()));
+        assertNull(page.getNextCursor());
+        assertEquals(instance.getVersion(), page.getVersion());
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), visited);
+    }
+
+    /**
+     * A cursor whose last question is gone has no page.
+     */
+    @Test
+    public void testGetQuestionPageMissingCursor() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+        assertNull(instance.getQuestionPage(new TriviaQuestionCursor(99L, instance.getVersion())));
+    }
+
+    /**
+     * Cursor pages are copies, so they stay read only.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetQuestionPageIsUnmodifiable() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+        instance.getQuestionPage(null).getQuestions().clear();
+    }
+
+    /**
+     * Test of parse method, of class TriviaQuestionCursor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBadCursor() {
+        TriviaQuestionCursor.parse("not a cursor");
+    }
+
+    /**
+     * Test of getQuestionList method with a limit, of class TriviaQuestionArrayAccess.
+     */
+    @Test
+    public void testGetQuestionListWithLimit() {
+        TriviaQuestionArrayAccess instance = new TriviaQuestionArrayAccess();
+        assertEquals(3, instance.getQuestionList(2L, 3).size());
+        assertEquals(2L, instance.getQuestionList(2L, 3).get(0).getId());
+        assertEquals(11, instance.getQuestionList(0L, 500).size());
+        assertEquals(0, instance.getQuestionList(0L, 0).size());
+        assertEquals(4, instance.getQuestionPage(null, 4).getQuestions().size());
+    }
+
 }
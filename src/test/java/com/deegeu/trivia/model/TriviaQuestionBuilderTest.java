@@ -136,4 +136,68 @@ public class TriviaQuestionBuilderTest {
             .lastUpdated(null)
             .build();
     }
+    
+    /**
+     * Test of correctAnswer method with a letter that isn't an answer.
+     */
+    @Test(expected = IllegalArgumentException.class) 
+    public void testBuildCorrectAnswerLetterFail() {
+        (new TriviaQuestionBuilder())
+            .correctAnswer("E");
+    }
+    
+    /**
+     * Test that questions built with the same pool share equal answers and hints.
+     */
+    @Test
+    public void testBuildPooled() {
+        TriviaStringPool strings = new TriviaStringPool();
+        TriviaQuestion first = pooledQuestion(strings, 1);
+        TriviaQuestion second = pooledQuestion(strings, 2);
+        
+        assertSame(first.getAnswerA(), second.getAnswerA());
+        assertSame(first.getAnswerD(), second.getAnswerD());
+        assertSame(first.getHint(), second.getHint());
+        assertSame("B", first.getCorrectAnswer());
+        assertNotSame(first.getQuestion(), second.getQuestion());
+        assertEquals(first.getQuestion(), second.getQuestion());
+    }
+    
+    private static TriviaQuestion pooledQuestion(TriviaStringPool strings, long id) {
+        return (new TriviaQuestionBuilder(strings))
+            .id(id)
+            .question(new String("What was the first toy advertised on television, and why was it such a hit?"))
+            .answerA(new String("The Rubix Cube"))
+            .answerB(new String("Mr. Potato Head"))
+            .answerC(new String("Barbie"))
+            .answerD(new String("A hula hoop"))
+            .correctAnswer(new String("B"))
+            .hint(new String("Use your head on this one"))
+            .lastUpdated(new Date())
+            .build();
+    }
+    
+    /**
+     * Test that the correct answer is kept as a choice.
+     */
+    @Test
+    public void testCorrectChoice() {
+        TriviaQuestion question = pooledQuestion(null, 1);
+        assertSame(TriviaAnswer.B, question.getCorrectChoice());
+        assertEquals(1, TriviaAnswer.B.getCode());
+        assertTrue(question.isCorrect(TriviaAnswer.forLetter('B')));
+        assertFalse(question.isCorrect(TriviaAnswer.forCode(0)));
+        assertNull(TriviaAnswer.forLetter('b'));
+        assertNull(TriviaAnswer.forString("BB"));
+    }
+    
+    /**
+     * Test of build method, of class TriviaQuestionBuilder.
+     */
+    @Test(expected = IllegalArgumentException.class) 
+    public void testBuildDifficultyFail() {
+        (new TriviaQuestionBuilder())
+            .difficulty(TriviaQuestion.MAX_DIFFICULTY + 1)
+            .build();
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionColumnarAccessTest {
+
+    private static TriviaQuestion question(long id, String text, String correctAnswer, String hint) {
+        return TestQuestions.builder(id)
+                .question(text)
+                .answerA("Yes")
+                .answerB("No")
+                .answerC("Maybe")
+                .answerD("\u00c7a d\u00e9pend")
+                .correctAnswer(correctAnswer)
+                .hint(hint)
+                .lastUpdated(new Date(1451606400000L + id))
+                .build();
+    }
+
+    /**
+     * Test that every question of the sample bank survives the columnar layout.
+     */
+    @Test
+    public void testRoundTrip() {
+        TriviaQuestionArrayAccess array = new TriviaQuestionArrayAccess();
+        List<TriviaQuestion> expected = array.getQuestionList(0, (int) array.getQuestionListSize());
+        TriviaQuestionColumnarAccess instance = TriviaQuestionColumnarAccess.of(expected);
+
+        assertEquals(array.getQuestionListSize(), instance.getQuestionListSize());
+        for (TriviaQuestion question : expected) {
+            TriviaQuestion result = instance.getQuestionById(question.getId());
+            assertEquals(question, result);
+            assertEquals(question.getQuestion(), result.getQuestion());
+            assertEquals(question.getHint(), result.getHint());
+            assertEquals(question.getLastUpdated(), result.getLastUpdated());
+            assertSame(question.getCorrectChoice(), instance.getCorrectAnswer(question.getId()));
+        }
+        assertNull(instance.getQuestionById(-1L));
+        assertNull(instance.getCorrectAnswer(-1L));
+    }
+
+    /**
+     * Test that long, non-ASCII and shared text come back unchanged.
+     */
+    @Test
+    public void testTextEncoding() {
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            longText.append("\u00dcn\u00efc\u00f8d\u00e9 \u2713 ").append(i).append(' ');
+        }
+        List<TriviaQuestion> questions = new ArrayList<>();
+        questions.add(question(3, longText.toString(), "D", "Think \u65e5\u672c\u8a9e"));
+        questions.add(question(1, "Short?", "A", "Think \u65e5\u672c\u8a9e"));
+        questions.add(question(2, "Another short one?", "C", "Guess"));
+
+        TriviaQuestionColumnarAccess instance = TriviaQuestionColumnarAccess.of(questions);
+
+        for (int i = 0; i < questions.size(); i++) {
+            TriviaQuestion expected = questions.get(i);
+            TriviaQuestion result = instance.getQuestionByIndex(i);
+            assertEquals(expected.getId(), result.getId());
+            assertEquals(expected.getQuestion(), result.getQuestion());
+            assertEquals(expected.getAnswerA(), result.getAnswerA());
+            assertEquals(expected.getAnswerD(), result.getAnswerD());
+            assertEquals(expected.getCorrectAnswer(), result.getCorrectAnswer());
+            assertEquals(expected.getHint(), result.getHint());
+        }
+        assertEquals("Another short one?", instance.getQuestionById(2L).getQuestion());
+    }
+
+    /**
+     * Test that the builder counts what it was given.
+     */
+    @Test
+    public void testBuilderCount() {
+        TriviaQuestionColumnarAccess.Builder builder = new TriviaQuestionColumnarAccess.Builder();
+        builder.add(question(1, "One?", "A", "Guess")).add(question(2, "Two?", "B", "Guess"));
+        assertEquals(2, builder.getCount());
+        assertEquals(2L, builder.build().getQuestionListSize());
+    }
+}
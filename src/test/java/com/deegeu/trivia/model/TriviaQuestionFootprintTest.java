@@ -0,0 +1,80 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.junit.*;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the retained heap of the ways questions can be kept.
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionFootprintTest {
+    private static final int QUESTIONS = 100000;
+
+    /**
+     * Test that the columnar store keeps less than half the heap of the array store.
+     */
+    @Test
+    public void testColumnarFootprint() {
+        List<TriviaQuestion> questions = questions(null);
+        TriviaQuestionArrayAccess array = new TriviaQuestionArrayAccess(questions);
+        TriviaQuestionColumnarAccess columnar = TriviaQuestionColumnarAccess.of(questions);
+        long arrayBytes = GraphLayout.parseInstance(array).totalSize();
+        long columnarBytes = GraphLayout.parseInstance(columnar).totalSize();
+        System.out.println("array store: " + (arrayBytes / QUESTIONS) + " bytes/question, columnar store: "
+                + (columnarBytes / QUESTIONS) + " bytes/question");
+
+        assertTrue("Columnar store should retain less than half the heap of the array store.",
+                columnarBytes * 2 < arrayBytes);
+    }
+    
+    /**
+     * Test that pooling the answers and hints shrinks the questions.
+     */
+    @Test
+    public void testPooledFootprint() {
+        long plainBytes = GraphLayout.parseInstance(questions(null)).totalSize();
+        long pooledBytes = GraphLayout.parseInstance(questions(new TriviaStringPool())).totalSize();
+        System.out.println("unpooled: " + (plainBytes / QUESTIONS) + " bytes/question, pooled: "
+                + (pooledBytes / QUESTIONS) + " bytes/question");
+        
+        assertTrue("Pooled questions should retain less heap than unpooled ones.", 
+                pooledBytes < plainBytes);
+    }
+    
+    /*
+        Synthetic questions with unique question text and a few repeated 
+        answers and hints. Every string is a new instance, as it would be 
+        when parsed from a dump.
+    */
+    private static List<TriviaQuestion> questions(TriviaStringPool strings) {
+        String[] answers = {"Paris", "London", "Madrid", "Berlin", "Rome", "Vienna", "Oslo", "Lisbon"};
+        String[] hints = {"Think about Europe", "It's a capital", "Not Asia", "Look at a map"};
+        List<TriviaQuestion> questions = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            questions.add((new TriviaQuestionBuilder(strings))
+                    .id(i + 1)
+                    .question("Which city is the capital of country number " + i + "?")
+                    .answerA(new String(answers[i % answers.length]))
+                    .answerB(new String(answers[(i + 1) % answers.length]))
+                    .answerC(new String(answers[(i + 2) % answers.length]))
+                    .answerD(new String(answers[(i + 3) % answers.length]))
+                    .correctAnswer("ABCD".substring(i % 4, i % 4 + 1))
+                    .hint(new String(hints[i % hints.length]))
+                    .lastUpdated(new Date(1451606400000L + i))
+                    .build());
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionImporterTest {
+
+    private static final String JSON_QUESTION = "{\"id\": %d, \"question\": \"Question %d\", "
+            + "\"answerA\": \"A\", \"answerB\": \"B\", \"answerC\": \"C\", \"answerD\": \"D\", "
+            + "\"correctAnswer\": \"B\", \"hint\": \"Hint\", \"lastUpdated\": 1461369600000}";
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUpClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        pool.shutdown();
+    }
+
+    private TriviaQuestionImportReport importQuestions(String dump, TriviaQuestionImporter.Format format, 
+            int chunkSize, List<TriviaQuestion> questions) throws IOException {
+        TriviaQuestionImporter importer = new TriviaQuestionImporter(pool, chunkSize);
+        return importer.importQuestions(new BufferedReader(new StringReader(dump)), format, questions::add);
+    }
+
+    /**
+     * Bad JSON lines are rejected with their line numbers, and the rest are 
+     * imported.
+     */
+    @Test
+    public void testImportJsonLines() throws IOException {
+        String dump = String.format(JSON_QUESTION, 1, 1) + "\n"
+                + "{\"id\": 2, \"question\": \"Missing answers\"}\n"
+                + "\n"
+                + "not json\n"
+                + "{\"id\": 3, \"question\": \"Escaped \\\"quote\\\"\", \"answerA\": \"A\", \"answerB\": \"B\", "
+                + "\"answerC\": \"C\", \"answerD\": \"D\", \"correctAnswer\": \"D\", \"hint\": \"Hint\"}\n";
+        List<TriviaQuestion> questions = new ArrayList<>();
+        TriviaQuestionImportReport report = importQuestions(dump, TriviaQuestionImporter.Format.JSON_LINES, 2, questions);
+
+        assertEquals(2, report.getAcceptedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals(2, report.getRejections().get(0).getLineNumber());
+        assertEquals(4, report.getRejections().get(1).getLineNumber());
+        assertEquals(1L, questions.get(0).getId());
+        assertEquals(new Date(1461369600000L), questions.get(0).getLastUpdated());
+        assertEquals("Escaped \"quote\"", questions.get(1).getQuestion());
+        assertEquals("D", questions.get(1).getCorrectAnswer());
+    }
+
+    /**
+     * Importing a dump again hands back the current question for records 
+     * with the same id and last updated date, and builds the rest.
+     */
+    @Test
+    public void testImportAgainKeepsUnchangedQuestions() throws IOException {
+        StringBuilder dump = new StringBuilder();
+        for (int id = 1; id <= 10; id++) {
+            dump.append(String.format(JSON_QUESTION, id, id)).append('\n');
+        }
+        List<TriviaQuestion> first = new ArrayList<>();
+        importQuestions(dump.toString(), TriviaQuestionImporter.Format.JSON_LINES, 3, first);
+        TriviaQuestionArrayAccess current = new TriviaQuestionArrayAccess(first);
+        
+        String question4 = String.format(JSON_QUESTION, 4, 4);
+        String edited = question4.replace("Question 4", "Edited").replace("1461369600000", "1461369700000");
+        String changed = dump.toString().replace(question4, edited) + String.format(JSON_QUESTION, 11, 11) + "\n";
+        List<TriviaQuestion> second = new ArrayList<>();
+        TriviaQuestionImporter importer = new TriviaQuestionImporter(pool, 3);
+        TriviaQuestionImportReport report = importer.importQuestions(new BufferedReader(new StringReader(changed)), 
+                TriviaQuestionImporter.Format.JSON_LINES, current, second::add);
+        
+        assertEquals(11, report.getAcceptedCount());
+        for (int i = 0; i < 10; i++) {
+            if (i == 3) {
+                assertNotSame(first.get(i), second.get(i));
+                assertEquals("Edited", second.get(i).getQuestion());
+            } else {
+                assertSame(first.get(i), second.get(i));
+            }
+        }
+        assertEquals(11L, second.get(10).getId());
+    }
+
+    /**
+     * Quoted CSV fields may hold commas, quotes and line breaks.
+     */
+    @Test
+    public void testImportCsv() throws IOException {
+        String dump = "id,question,answerA,answerB,answerC,answerD,correctAnswer,hint,lastUpdated\n"
+                + "1,\"Which, if any?\",A,B,C,D,A,Hint,2016-04-23T00:00:00Z\n"
+                + "2,\"Two\nlines with \"\"quotes\"\"\",A,B,C,D,C,Hint,\n"
+                + "3,Bad answer,A,B,C,D,E,Hint,\n"
+                + "4,Short row\n";
+        List<TriviaQuestion> questions = new ArrayList<>();
+        TriviaQuestionImportReport report = importQuestions(dump, TriviaQuestionImporter.Format.CSV, 8192, questions);
+
+        assertEquals(2, report.getAcceptedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals(5, report.getRejections().get(0).getLineNumber());
+        assertEquals(6, report.getRejections().get(1).getLineNumber());
+        assertEquals("Which, if any?", questions.get(0).getQuestion());
+        assertEquals(new Date(1461369600000L), questions.get(0).getLastUpdated());
+        assertEquals("Two\nlines with \"quotes\"", questions.get(1).getQuestion());
+    }
+
+    /**
+     * A stray quote only rejects its own row. The rows after it are parsed 
+     * again and imported, whether the file ends first or the record grows 
+     * past the line limit.
+     */
+    @Test
+    public void testImportCsvStrayQuote() throws IOException {
+        for (int rows : new int[] {5, TriviaQuestionImporter.MAX_RECORD_LINES * 3}) {
+            StringBuilder dump = new StringBuilder("id,question,answerA,answerB,answerC,answerD,correctAnswer,hint,lastUpdated\n");
+            dump.append("1,\"Stray quote,A,B,C,D,A,Hint,\n");
+            for (int id = 2; id <= rows + 1; id++) {
+                dump.append(id).append(",Question ").append(id).append(",A,B,C,D,B,Hint,\n");
+            }
+            List<TriviaQuestion> questions = new ArrayList<>();
+            TriviaQuestionImportReport report = importQuestions(dump.toString(), 
+                    TriviaQuestionImporter.Format.CSV, 64, questions);
+
+            assertEquals(rows, report.getAcceptedCount());
+            assertEquals(1, report.getRejectedCount());
+            assertEquals(2, report.getRejections().get(0).getLineNumber());
+            for (int i = 0; i < rows; i++) {
+                assertEquals(i + 2, questions.get(i).getId());
+            }
+        }
+    }
+
+    /**
+     * The optional category and difficulty columns are read when present, and
+     * a difficulty that isn't a rating rejects the row.
+     */
+    @Test
+    public void testImportCategories() throws IOException {
+        String dump = "id,question,answerA,answerB,answerC,answerD,correctAnswer,hint,lastUpdated,category,difficulty\n"
+                + "1,One,A,B,C,D,A,Hint,,History,2\n"
+                + "2,Two,A,B,C,D,A,Hint,,,\n"
+                + "3,Three,A,B,C,D,A,Hint,,Science,hard\n"
+                + "4,Four,A,B,C,D,A,Hint,,Science,9\n";
+        List<TriviaQuestion> questions = new ArrayList<>();
+        TriviaQuestionImportReport report = importQuestions(dump, TriviaQuestionImporter.Format.CSV, 8192, questions);
+
+        assertEquals(2, report.getAcceptedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals("History", questions.get(0).getCategory());
+        assertEquals(2, questions.get(0).getDifficulty());
+        assertNull(questions.get(1).getCategory());
+        assertEquals(TriviaQuestion.UNRATED, questions.get(1).getDifficulty());
+    }
+
+    /**
+     * A CSV header must name every required column.
+     */
+    @Test(expected = IOException.class)
+    public void testImportCsvMissingColumn() throws IOException {
+        importQuestions("id,question\n1,Question\n", TriviaQuestionImporter.Format.CSV, 10, new ArrayList<>());
+    }
+
+    /**
+     * Questions come out in file order even when many chunks are parsed at 
+     * once.
+     */
+    @Test
+    public void testImportKeepsFileOrder() throws IOException {
+        StringBuilder dump = new StringBuilder();
+        for (int id = 0; id < 5000; id++) {
+            dump.append(String.format(JSON_QUESTION, id, id)).append('\n');
+        }
+        List<TriviaQuestion> questions = new ArrayList<>();
+        TriviaQuestionImportReport report = importQuestions(dump.toString(), 
+                TriviaQuestionImporter.Format.JSON_LINES, 7, questions);
+
+        assertEquals(5000, report.getAcceptedCount());
+        assertEquals(0, report.getRejectedCount());
+        for (int id = 0; id < 5000; id++) {
+            assertEquals(id, questions.get(id).getId());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionIndexTest {
+
+    private static final String[] CATEGORIES = { "History", "Science", "Sports" };
+
+    private static TriviaQuestionColumnarAccess instance;
+
+    @BeforeClass
+    public static void setUpClass() {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long id = 0; id < 3000; id++) {
+            TriviaQuestionBuilder builder = (new TriviaQuestionBuilder())
+                    .id(id)
+                    .question("Question " + id)
+                    .answerA("A")
+                    .answerB("B")
+                    .answerC("C")
+                    .answerD("D")
+                    .correctAnswer("A")
+                    .hint("Hint")
+                    .lastUpdated(new Date(1451606400000L));
+            if (id % 10 != 0) {
+                builder.category(CATEGORIES[(int) (id % 3)]).difficulty((int) (id % 5) + 1);
+            }
+            questions.add(builder.build());
+        }
+        instance = TriviaQuestionColumnarAccess.of(questions);
+    }
+
+    private static boolean matches(TriviaQuestion question, TriviaQuestionFilter filter) {
+        return (filter.getCategory() == null || filter.getCategory().equalsIgnoreCase(question.getCategory()))
+                && (filter.getDifficulty() == TriviaQuestion.UNRATED || filter.getDifficulty() == question.getDifficulty());
+    }
+
+    /**
+     * Filtered pages hold only matching questions, in store order.
+     */
+    @Test
+    public void testGetQuestionList() {
+        TriviaQuestionFilter filter = new TriviaQuestionFilter("history", 2);
+        List<TriviaQuestion> expected = new ArrayList<>();
+        for (long index = 0; index < instance.getQuestionListSize(); index++) {
+            TriviaQuestion question = instance.getQuestionByIndex(index);
+            if (matches(question, filter)) {
+                expected.add(question);
+            }
+        }
+        assertEquals(expected.size(), instance.getQuestionListSize(filter));
+        assertEquals(expected.subList(10, 30), instance.getQuestionList(filter, 10, 20));
+        assertEquals(expected.subList(expected.size() - 3, expected.size()), 
+                instance.getQuestionList(filter, expected.size() - 3, 20));
+        assertTrue(instance.getQuestionList(filter, expected.size(), 20).isEmpty());
+
+        assertEquals(900, instance.getQuestionListSize(new TriviaQuestionFilter("SCIENCE", TriviaQuestion.UNRATED)));
+        assertEquals(600, instance.getQuestionListSize(new TriviaQuestionFilter(null, 4)));
+        assertEquals(0, instance.getQuestionListSize(new TriviaQuestionFilter("Geography", 1)));
+        assertEquals(instance.getQuestionListSize(), instance.getQuestionListSize(TriviaQuestionFilter.ALL));
+    }
+
+    /**
+     * Random draws are distinct, match the filter, and stop at the number 
+     * of matching questions.
+     */
+    @Test
+    public void testGetRandomQuestions() {
+        TriviaQuestionFilter filter = new TriviaQuestionFilter("Sports", 3);
+        List<TriviaQuestion> drawn = instance.getRandomQuestions(filter, 20);
+        assertEquals(20, drawn.size());
+        Set<Long> ids = new HashSet<>();
+        for (TriviaQuestion question : drawn) {
+            assertTrue(matches(question, filter));
+            assertTrue(ids.add(question.getId()));
+        }
+
+        int matching = (int) instance.getQuestionListSize(filter);
+        assertEquals(matching, instance.getRandomQuestions(filter, matching + 50).size());
+        assertTrue(instance.getRandomQuestions(new TriviaQuestionFilter("Geography", 0), 5).isEmpty());
+        assertEquals(5, instance.getRandomQuestions(TriviaQuestionFilter.ALL, 5).size());
+    }
+
+    /**
+     * Test of the TriviaQuestionFilter constructor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testFilterRejectsDifficulty() {
+        new TriviaQuestionFilter(null, 6);
+    }
+}
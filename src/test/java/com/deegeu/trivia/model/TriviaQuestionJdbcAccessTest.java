@@ -0,0 +1,398 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionJdbcAccessTest {
+    private static final String[] CATEGORIES = {"History", "Science", "Sports"};
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    
+    private AtomicInteger connections;
+    private List<TriviaQuestion> questions;
+    private CountingDataSource dataSource;
+    private TriviaQuestionJdbcAccess instance;
+    
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new CountingDataSource();
+        connections = dataSource.connections;
+        dataSource.setURL("jdbc:h2:mem:trivia" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        questions = new ArrayList<>();
+        // Ids go up by 3, and are inserted out of order, so gaps and ordering both count.
+        for (int i = 199; i >= 0; i--) {
+            TriviaQuestionBuilder builder = (new TriviaQuestionBuilder())
+                    .id(i * 3L)
+                    .question("Question " + i + " about " + CATEGORIES[i % 3] + "?")
+                    .answerA("A" + i)
+                    .answerB("B" + i)
+                    .answerC("C" + i)
+                    .answerD("\u00c7a d\u00e9pend")
+                    .correctAnswer(String.valueOf((char) ('A' + i % 4)))
+                    .hint("Hint " + i)
+                    .difficulty(1 + i % 5)
+                    .lastUpdated(new Date(1451606400000L + i * 1000L));
+            if (i % 7 != 0) {
+                builder.category(CATEGORIES[i % 3]);
+            }
+            questions.add(builder.build());
+        }
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE trivia_question (id BIGINT PRIMARY KEY, "
+                    + "question VARCHAR(1000) NOT NULL, answer_a VARCHAR(500), answer_b VARCHAR(500), "
+                    + "answer_c VARCHAR(500), answer_d VARCHAR(500), correct_answer CHAR(1) NOT NULL, "
+                    + "hint VARCHAR(1000), category VARCHAR(100), difficulty INT, last_updated TIMESTAMP NOT NULL)");
+            for (TriviaQuestion question : questions) {
+                insert(connection, question);
+            }
+        }
+        connections.set(0);
+        instance = new TriviaQuestionJdbcAccess(dataSource, 50);
+    }
+    
+    @After
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        instance.close();
+    }
+    
+    /**
+     * Test that every question comes back from the table unchanged.
+     */
+    @Test
+    public void testRoundTrip() {
+        assertEquals(200L, instance.getQuestionListSize());
+        assertEquals(new Date(1451606400000L + 199 * 1000L), instance.getLastUpdated());
+        for (TriviaQuestion question : questions) {
+            TriviaQuestion result = instance.getQuestionById(question.getId());
+            assertEquals(question, result);
+            assertEquals(question.getQuestion(), result.getQuestion());
+            assertEquals(question.getAnswerD(), result.getAnswerD());
+            assertEquals(question.getHint(), result.getHint());
+            assertEquals(question.getCategory(), result.getCategory());
+            assertEquals(question.getDifficulty(), result.getDifficulty());
+            assertEquals(question.getLastUpdated(), result.getLastUpdated());
+            assertSame(question.getCorrectChoice(), instance.getCorrectAnswer(question.getId()));
+        }
+        assertNull(instance.getQuestionById(1L));
+        assertNull(instance.getCorrectAnswer(1L));
+        assertEquals(3L, instance.getQuestionByIndex(1).getId());
+    }
+    
+    /**
+     * Test that lists, pages and filtered lists match a store in memory with 
+     * the same questions in id order.
+     */
+    @Test
+    public void testListsMatchArrayStore() {
+        List<TriviaQuestion> sorted = new ArrayList<>(questions);
+        sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        TriviaQuestionArrayAccess expected = new TriviaQuestionArrayAccess(sorted);
+        
+        assertEquals(expected.getQuestionList(35, 20), instance.getQuestionList(35, 20));
+        assertEquals(expected.getQuestionList(190, 20), instance.getQuestionList(190, 20));
+        assertTrue(instance.getQuestionList(500, 20).isEmpty());
+        
+        List<TriviaQuestion> walked = new ArrayList<>();
+        TriviaQuestionPage page = instance.getQuestionPage(null, 30);
+        while (true) {
+            walked.addAll(page.getQuestions());
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = instance.getQuestionPage(page.getNextCursor(), 30);
+        }
+        assertEquals(sorted, walked);
+        assertNull(instance.getQuestionPage(new TriviaQuestionCursor(1L, 0L), 30));
+        
+        TriviaQuestionFilter[] filters = {
+            new TriviaQuestionFilter(" history ", TriviaQuestion.UNRATED),
+            new TriviaQuestionFilter(null, 3),
+            new TriviaQuestionFilter("Science", 5)
+        };
+        for (TriviaQuestionFilter filter : filters) {
+            assertEquals(expected.getQuestionListSize(filter), instance.getQuestionListSize(filter));
+            assertEquals(expected.getQuestionList(filter, 5, 10), instance.getQuestionList(filter, 5, 10));
+        }
+    }
+    
+    /**
+     * Test that deep filtered pages, which seek past several marked ids, match
+     * a store in memory.
+     */
+    @Test
+    public void testDeepFilteredPages() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (int i = 0; i < 400; i++) {
+                TriviaQuestion question = (new TriviaQuestionBuilder())
+                        .id(1000L + i * 2)
+                        .question("Extra " + i + "?")
+                        .answerA("A").answerB("B").answerC("C").answerD("D")
+                        .correctAnswer("A")
+                        .hint("Hint")
+                        .category("Science")
+                        .difficulty(5)
+                        .lastUpdated(new Date(0L))
+                        .build();
+                insert(connection, question);
+                questions.add(question);
+            }
+        }
+        TriviaQuestionJdbcAccess reloaded = instance.reload();
+        List<TriviaQuestion> sorted = new ArrayList<>(questions);
+        sorted.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        TriviaQuestionArrayAccess expected = new TriviaQuestionArrayAccess(sorted);
+        
+        TriviaQuestionFilter filter = new TriviaQuestionFilter("science", 5);
+        assertEquals(expected.getQuestionListSize(filter), reloaded.getQuestionListSize(filter));
+        for (long offset : new long[] {0, 120, 127, 128, 255, 256, 300, 395, 500}) {
+            assertEquals(expected.getQuestionList(filter, offset, 10), reloaded.getQuestionList(filter, offset, 10));
+        }
+    }
+    
+    /**
+     * Test that a batch keeps request order and reports missing and repeated
+     * ids, including batches split over several queries.
+     */
+    @Test
+    public void testGetQuestionBatch() {
+        TriviaQuestionBatch batch = instance.getQuestionBatch(9L, 1L, 0L, 9L, 597L);
+        assertEquals(3, batch.getQuestions().size());
+        assertEquals(9L, batch.getQuestions().get(0).getId());
+        assertEquals(0L, batch.getQuestions().get(1).getId());
+        assertEquals(597L, batch.getQuestions().get(2).getId());
+        assertArrayEquals(new long[] {1L}, batch.getMissingIds());
+        assertArrayEquals(new long[] {9L}, batch.getDuplicateIds());
+        
+        long[] ids = new long[150];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (200 - i) * 3L;
+        }
+        List<TriviaQuestion> found = instance.getSpecifiedQuestionList(ids);
+        assertEquals(149, found.size());
+        for (int i = 0; i < found.size(); i++) {
+            assertEquals(ids[i + 1], found.get(i).getId());
+        }
+    }
+    
+    /**
+     * Test that cached questions are served without the database, and that 
+     * a reload sees the rows as they are now.
+     */
+    @Test
+    public void testReadThroughCache() throws SQLException {
+        TriviaQuestion cached = instance.getQuestionById(42L);
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM trivia_question WHERE id IN (42, 45)");
+        }
+        assertSame(cached, instance.getQuestionById(42L));
+        assertNull(instance.getQuestionById(45L));
+        assertArrayEquals(new long[] {45L}, instance.getQuestionBatch(45L, 42L).getMissingIds());
+        
+        TriviaQuestionJdbcAccess reloaded = instance.reload();
+        assertEquals(198L, reloaded.getQuestionListSize());
+        assertNull(reloaded.getQuestionById(42L));
+        assertTrue(reloaded.getVersion() > instance.getVersion());
+    }
+    
+    /**
+     * Test that updated and deleted rows are noticed without a reload.
+     */
+    @Test
+    public void testIsChanged() throws SQLException {
+        assertFalse(instance.isChanged());
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE trivia_question SET hint = 'New', "
+                    + "last_updated = TIMESTAMP '2017-01-01 00:00:00' WHERE id = 42");
+        }
+        assertTrue(instance.isChanged());
+        
+        TriviaQuestionJdbcAccess reloaded = instance.reload();
+        assertFalse(reloaded.isChanged());
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM trivia_question WHERE id = 45");
+        }
+        assertTrue(reloaded.isChanged());
+    }
+    
+    /**
+     * Test that rows added after the store was opened stay out of its lists,
+     * and that a difficulty out of range is read as unrated.
+     */
+    @Test
+    public void testAddedRowsWaitForReload() throws SQLException {
+        TriviaQuestion added = (new TriviaQuestionBuilder())
+                .id(43L)
+                .question("Question added about Sports?")
+                .answerA("A")
+                .answerB("B")
+                .answerC("C")
+                .answerD("D")
+                .correctAnswer("A")
+                .hint("Hint")
+                .category("Sports")
+                .difficulty(2)
+                .lastUpdated(new Date(1483228800000L))
+                .build();
+        TriviaQuestionFilter sports = new TriviaQuestionFilter("Sports", TriviaQuestion.UNRATED);
+        long sportsCount = instance.getQuestionListSize(sports);
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            insert(connection, added);
+            statement.execute("UPDATE trivia_question SET difficulty = 9 WHERE id = 43");
+        }
+        
+        List<TriviaQuestion> list = instance.getQuestionList(0, 200);
+        assertEquals(200, list.size());
+        for (TriviaQuestion question : list) {
+            assertNotEquals(43L, question.getId());
+        }
+        assertNull(instance.getQuestionById(43L));
+        assertEquals(sportsCount, instance.getQuestionListSize(sports));
+        for (TriviaQuestion question : instance.getQuestionList(sports, 0, 200)) {
+            assertNotEquals(43L, question.getId());
+        }
+        
+        TriviaQuestionJdbcAccess reloaded = instance.reload();
+        assertEquals(201L, reloaded.getQuestionListSize());
+        assertEquals(TriviaQuestion.UNRATED, reloaded.getQuestionById(43L).getDifficulty());
+        TriviaQuestionWeightedAccess weighted = new TriviaQuestionWeightedAccess(
+                reloaded, TriviaQuestionWeighting.byDifficulty(1.0, 2.0, 3.0, 4.0, 5.0));
+        assertNotNull(weighted.getRandomQuestion());
+    }
+    
+    /**
+     * Test that a database store is weighed from a scan of the table, and 
+     * that a row deleted since the ids were read is never drawn.
+     */
+    @Test
+    public void testWeighedFromScan() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM trivia_question WHERE id = 12");
+        }
+        TriviaQuestionWeightedAccess weighted = new TriviaQuestionWeightedAccess(
+                instance, TriviaQuestionWeighting.byDifficulty(0.0, 0.0, 0.0, 0.0, 1.0));
+        for (int i = 0; i < 50; i++) {
+            TriviaQuestion drawn = weighted.getRandomQuestion();
+            assertEquals(5, drawn.getDifficulty());
+            assertNotEquals(12L, drawn.getId());
+        }
+    }
+    
+    /**
+     * Test that reading a page larger than the cache, and many questions read
+     * once, doesn't evict a question that keeps being read.
+     */
+    @Test
+    public void testScanKeepsHotQuestions() throws SQLException {
+        TriviaQuestion hot = instance.getQuestionById(42L);
+        try (Connection connection = dataSource.getConnection(); 
+                Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM trivia_question WHERE id = 42");
+        }
+        assertEquals(199, instance.getQuestionList(0, 200).size());
+        for (int i = 0; i < 200; i++) {
+            assertSame(hot, instance.getQuestionById(42L));
+            instance.getQuestionById(i * 3L);
+        }
+        assertSame(hot, instance.getQuestionById(42L));
+    }
+    
+    /**
+     * Test that queries reuse one pooled connection.
+     */
+    @Test
+    public void testConnectionsArePooled() {
+        for (int i = 0; i < 100; i++) {
+            instance.getQuestionById(i * 3L);
+            instance.getQuestionList(i, 10);
+        }
+        assertEquals(1, connections.get());
+    }
+    
+    /**
+     * Test random draws and searches.
+     */
+    @Test
+    public void testRandomAndSearch() {
+        TriviaQuestionFilter filter = new TriviaQuestionFilter("Sports", 2);
+        long matches = instance.getQuestionListSize(filter);
+        List<TriviaQuestion> drawn = instance.getRandomQuestions(filter, 100);
+        assertEquals(matches, drawn.size());
+        Set<Long> ids = new HashSet<>();
+        for (TriviaQuestion question : drawn) {
+            assertEquals("Sports", question.getCategory());
+            assertEquals(2, question.getDifficulty());
+            assertTrue(ids.add(question.getId()));
+        }
+        assertEquals(3, instance.getRandomQuestions(filter, 3).size());
+        assertEquals(200, new HashSet<>(instance.getRandomQuestions(TriviaQuestionFilter.ALL, 500)).size());
+        assertNotNull(instance.getRandomQuestion());
+        
+        List<TriviaQuestion> found = instance.searchQuestions("question 117", 5);
+        assertEquals(351L, found.get(0).getId());
+    }
+    
+    private static void insert(Connection connection, TriviaQuestion question) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO trivia_question VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            statement.setLong(1, question.getId());
+            statement.setString(2, question.getQuestion());
+            statement.setString(3, question.getAnswerA());
+            statement.setString(4, question.getAnswerB());
+            statement.setString(5, question.getAnswerC());
+            statement.setString(6, question.getAnswerD());
+            statement.setString(7, question.getCorrectAnswer());
+            statement.setString(8, question.getHint());
+            statement.setString(9, question.getCategory());
+            statement.setInt(10, question.getDifficulty());
+            statement.setTimestamp(11, new Timestamp(question.getLastUpdated().getTime()));
+            statement.executeUpdate();
+        }
+    }
+    
+    /*
+        Counts the connections opened through it.
+    */
+    private static class CountingDataSource extends JdbcDataSource {
+        private static final long serialVersionUID = 1L;
+        
+        final private AtomicInteger connections = new AtomicInteger();
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionMappedAccessTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TriviaQuestionArrayAccess sample;
+    private TriviaQuestionMappedAccess instance;
+
+    @Before
+    public void setUp() throws IOException {
+        sample = new TriviaQuestionArrayAccess();
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long index = 0; index < sample.getQuestionListSize(); index++) {
+            questions.add(sample.getQuestionByIndex(index));
+        }
+        Path bankFile = folder.getRoot().toPath().resolve("sample.bank");
+        TriviaQuestionBankWriter.write(questions, bankFile);
+        instance = new TriviaQuestionMappedAccess(bankFile);
+    }
+
+    /**
+     * Every question reads back the same as it was written.
+     */
+    @Test
+    public void testQuestionsRoundTrip() {
+        assertEquals(sample.getQuestionListSize(), instance.getQuestionListSize());
+        for (long index = 0; index < sample.getQuestionListSize(); index++) {
+            assertEquals(sample.getQuestionByIndex(index), instance.getQuestionByIndex(index));
+        }
+    }
+
+    /**
+     * Test of getQuestionById method, of class TriviaQuestionMappedAccess.
+     */
+    @Test
+    public void testGetQuestionById() {
+        assertEquals(sample.getQuestionById(7L), instance.getQuestionById(7L));
+        assertNull(instance.getQuestionById(11L));
+        assertNull(instance.getQuestionById(-1L));
+    }
+
+    /**
+     * Test of getQuestionList method, of class TriviaQuestionMappedAccess.
+     */
+    @Test
+    public void testGetQuestionList() {
+        assertEquals(sample.getQuestionList(8L), instance.getQuestionList(8L));
+        assertEquals(10, instance.getQuestionList(0L).size());
+    }
+
+    /**
+     * Test of getCorrectAnswer method, read straight from the bank.
+     */
+    @Test
+    public void testGetCorrectAnswer() {
+        for (long index = 0; index < sample.getQuestionListSize(); index++) {
+            TriviaQuestion question = sample.getQuestionByIndex(index);
+            assertSame(question.getCorrectChoice(), instance.getCorrectAnswer(question.getId()));
+        }
+        assertNull(instance.getCorrectAnswer(11L));
+    }
+
+    /**
+     * Categories and difficulties survive the bank, and can be filtered on.
+     */
+    @Test
+    public void testCategoriesRoundTrip() throws IOException {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long index = 0; index < sample.getQuestionListSize(); index++) {
+            TriviaQuestion question = sample.getQuestionByIndex(index);
+            TriviaQuestionBuilder builder = (new TriviaQuestionBuilder())
+                    .id(question.getId())
+                    .question(question.getQuestion())
+                    .answerA(question.getAnswerA())
+                    .answerB(question.getAnswerB())
+                    .answerC(question.getAnswerC())
+                    .answerD(question.getAnswerD())
+                    .correctAnswer(question.getCorrectAnswer())
+                    .hint(question.getHint())
+                    .lastUpdated(question.getLastUpdated());
+            if (index % 2 == 0) {
+                builder.category("History").difficulty(2);
+            }
+            questions.add(builder.build());
+        }
+        Path bankFile = folder.getRoot().toPath().resolve("categories.bank");
+        TriviaQuestionBankWriter.write(questions, bankFile);
+        TriviaQuestionMappedAccess categorized = new TriviaQuestionMappedAccess(bankFile);
+
+        for (TriviaQuestion question : questions) {
+            TriviaQuestion result = categorized.getQuestionById(question.getId());
+            assertEquals(question, result);
+            assertEquals(question.getCategory(), result.getCategory());
+            assertEquals(question.getDifficulty(), result.getDifficulty());
+        }
+        TriviaQuestionFilter filter = new TriviaQuestionFilter("history", 2);
+        assertEquals((questions.size() + 1) / 2, categorized.getQuestionListSize(filter));
+        assertEquals(questions.get(2), categorized.getQuestionList(filter, 1, 1).get(0));
+    }
+
+    /**
+     * A bank larger than the writer's record buffer reads back whole, and the
+     * writer leaves no temporary files behind.
+     */
+    @Test
+    public void testLargeBankRoundTrip() throws IOException {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            TriviaQuestion question = sample.getQuestionByIndex(i % sample.getQuestionListSize());
+            questions.add((new TriviaQuestionBuilder())
+                    .id(i)
+                    .question(question.getQuestion() + " " + i)
+                    .answerA(question.getAnswerA())
+                    .answerB(question.getAnswerB())
+                    .answerC(question.getAnswerC())
+                    .answerD(question.getAnswerD())
+                    .correctAnswer(question.getCorrectAnswer())
+                    .hint(question.getHint())
+                    .difficulty(1 + i % 5)
+                    .lastUpdated(question.getLastUpdated())
+                    .build());
+        }
+        Path directory = folder.newFolder("large").toPath();
+        Path bankFile = directory.resolve("large.bank");
+        TriviaQuestionBankWriter.write(questions, bankFile);
+        TriviaQuestionMappedAccess large = new TriviaQuestionMappedAccess(bankFile);
+
+        assertEquals(5000L, large.getQuestionListSize());
+        for (TriviaQuestion question : questions) {
+            TriviaQuestion result = large.getQuestionById(question.getId());
+            assertEquals(question.getQuestion(), result.getQuestion());
+            assertEquals(question.getDifficulty(), result.getDifficulty());
+            assertEquals(question.getLastUpdated(), result.getLastUpdated());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1L, files.count());
+        }
+    }
+
+    /**
+     * A writer that isn't committed leaves the old bank in place, and a 
+     * committed one keeps the old bank's permissions.
+     */
+    @Test
+    public void testUncommittedWriteKeepsBank() throws IOException {
+        Path directory = folder.newFolder("keep").toPath();
+        Path bankFile = directory.resolve("keep.bank");
+        TriviaQuestionBankWriter.write(sample.getQuestionList(0, 3), bankFile);
+        byte[] before = Files.readAllBytes(bankFile);
+        
+        try (TriviaQuestionBankWriter writer = new TriviaQuestionBankWriter(bankFile)) {
+            writer.add(sample.getQuestionByIndex(5));
+            assertFalse(writer.isCommitted());
+        }
+        assertArrayEquals(before, Files.readAllBytes(bankFile));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1L, files.count());
+        }
+        
+        try {
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+            Files.setPosixFilePermissions(bankFile, permissions);
+            TriviaQuestionBankWriter.write(sample.getQuestionList(0, 5), bankFile);
+            assertEquals(permissions, Files.getPosixFilePermissions(bankFile));
+        } catch (UnsupportedOperationException ue) {
+            // No permissions to keep on this file system.
+        }
+        assertEquals(5L, new TriviaQuestionMappedAccess(bankFile).getQuestionListSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenNonBankFails() throws IOException {
+        Path file = folder.newFile("not.bank").toPath();
+        Files.write(file, new byte[64]);
+        new TriviaQuestionMappedAccess(file);
+    }
+}
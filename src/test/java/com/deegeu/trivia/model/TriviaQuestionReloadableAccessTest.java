@@ -0,0 +1,175 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionReloadableAccessTest {
+
+    private static final int READERS = 8;
+    private static final int GENERATIONS = 200;
+
+    /**
+     * Test of putQuestions method, of class TriviaQuestionReloadableAccess.
+     */
+    @Test
+    public void testPutQuestions() {
+        TriviaQuestionArrayAccess sample = new TriviaQuestionArrayAccess();
+        TriviaQuestionReloadableAccess instance = new TriviaQuestionReloadableAccess(sample);
+        TriviaQuestionAccessible before = instance.getSnapshot();
+
+        instance.putQuestions(Arrays.asList(question(3L, "changed"), question(42L, "new")));
+
+        assertEquals(12L, instance.getQuestionListSize());
+        assertEquals("changed", instance.getQuestionByIndex(3L).getHint());
+        assertEquals(42L, instance.getQuestionByIndex(11L).getId());
+        assertNotEquals(before.getVersion(), instance.getVersion());
+        assertEquals("The old snapshot doesn't change.", sample.getQuestionById(3L), before.getQuestionById(3L));
+    }
+
+    /**
+     * Test of applyChanges method, of class TriviaQuestionReloadableAccess.
+     */
+    @Test
+    public void testApplyChanges() {
+        TriviaQuestionReloadableAccess instance = new TriviaQuestionReloadableAccess(generation(3));
+        TriviaQuestionAccessible before = instance.getSnapshot();
+
+        List<TriviaQuestion> source = new ArrayList<>();
+        source.add(generation(3).getQuestionById(0L));
+        source.add(question(1L, "edited", new Date(2000L)));
+        source.add(generation(3).getQuestionById(3L));
+        source.add(question(9L, "new", new Date(1000L)));
+        TriviaQuestionReloadableAccess.Changes changes = instance.applyChanges(new TriviaQuestionArrayAccess(source));
+
+        assertEquals(1L, changes.getAdded());
+        assertEquals(1L, changes.getChanged());
+        assertEquals(1L, changes.getRemoved());
+        assertSame("Unchanged questions are kept.", before.getQuestionById(0L), instance.getQuestionById(0L));
+        assertSame(before.getQuestionById(3L), instance.getQuestionById(3L));
+        assertEquals("edited", instance.getQuestionById(1L).getHint());
+        assertNull(instance.getQuestionById(2L));
+        assertEquals(9L, instance.getQuestionByIndex(3L).getId());
+    }
+
+    /**
+     * A reload updates the search index of the current generation instead of
+     * leaving it to be built again.
+     */
+    @Test
+    public void testApplyChangesUpdatesSearchIndex() {
+        TriviaQuestionReloadableAccess instance = new TriviaQuestionReloadableAccess(generation(3));
+        assertEquals(4, instance.searchQuestions("generation", 10).size());
+
+        List<TriviaQuestion> source = new ArrayList<>();
+        source.add(generation(3).getQuestionById(0L));
+        source.add(question(1L, "edited", new Date(2000L)));
+        source.add(question(9L, "new", new Date(1000L)));
+        instance.applyChanges(new TriviaQuestionArrayAccess(source));
+
+        TriviaQuestionSearchIndex index = ((AbstractTriviaQuestionAccess) instance.getSnapshot()).peekSearchIndex();
+        assertNotNull(index);
+        assertEquals(3, index.getLiveCount());
+        assertEquals(1, instance.searchQuestions("generation", 10).size());
+        assertEquals(1L, instance.searchQuestions("edited", 10).get(0).getId());
+        assertEquals(9L, instance.searchQuestions("new", 10).get(0).getId());
+    }
+
+    /**
+     * A reload without differences keeps the generation and its version.
+     */
+    @Test
+    public void testApplyNoChanges() {
+        TriviaQuestionReloadableAccess instance = new TriviaQuestionReloadableAccess(generation(5));
+        long version = instance.getVersion();
+
+        assertTrue(instance.applyChanges(generation(5)).isEmpty());
+        assertEquals(version, instance.getVersion());
+    }
+
+    /**
+     * Readers asking for random questions never see a half swapped generation,
+     * while the questions are replaced as fast as possible. This is what the
+     * /questions/random route does for each request.
+     */
+    @Test
+    public void testReadersDuringReloads() throws Exception {
+        TriviaQuestionReloadableAccess instance = new TriviaQuestionReloadableAccess(generation(0));
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch started = new CountDownLatch(READERS);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+
+        for (int i = 0; i < READERS; i++) {
+            readers.execute(() -> {
+                started.countDown();
+                try {
+                    while (reloading.get()) {
+                        TriviaQuestionAccessible snapshot = instance.getSnapshot();
+                        TriviaQuestion question = snapshot.getRandomQuestion();
+                        String expectedHint = "generation " + (snapshot.getQuestionListSize() - 1);
+                        assertEquals(expectedHint, question.getHint());
+                        assertSame(question, snapshot.getQuestionById(question.getId()));
+                        assertNotNull(instance.getRandomQuestion());
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+        }
+
+        started.await();
+        int generation = 0;
+        while (++generation < GENERATIONS || reads.get() < 10000) {
+            instance.replace(generation(generation % GENERATIONS));
+        }
+        reloading.set(false);
+        readers.shutdown();
+        assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+
+        if (failure.get() != null) {
+            throw new AssertionError("Reader saw an inconsistent generation", failure.get());
+        }
+        assertEquals((generation - 1) % GENERATIONS + 1, instance.getQuestionListSize());
+    }
+
+    /*
+        Generation n has n + 1 questions, all with the hint "generation n".
+    */
+    private static TriviaQuestionArrayAccess generation(int generation) {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long id = 0; id <= generation; id++) {
+            questions.add(question(id, "generation " + generation));
+        }
+        return new TriviaQuestionArrayAccess(questions);
+    }
+
+    private static TriviaQuestion question(long id, String hint) {
+        return question(id, hint, new Date(1000L));
+    }
+
+    private static TriviaQuestion question(long id, String hint, Date lastUpdated) {
+        return TestQuestions.builder(id).hint(hint).lastUpdated(lastUpdated).build();
+    }
+}
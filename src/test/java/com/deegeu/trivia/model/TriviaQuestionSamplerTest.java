@@ -0,0 +1,110 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionSamplerTest {
+
+    private static final int SIZE = TriviaQuestionSampler.BLOCK_SIZE * 2 + 100;
+
+    /**
+     * Indexes are drawn in proportion to their weights, and indexes with no
+     * weight are never drawn.
+     */
+    @Test
+    public void testSample() {
+        TriviaQuestionSampler instance = TriviaQuestionSampler.build(SIZE, 
+                index -> (index % 3 == 0) ? 0.0 : (index % 3));
+        Random random = new Random(42);
+        int draws = 300000;
+        int twos = 0;
+        for (int i = 0; i < draws; i++) {
+            int index = instance.sample(random);
+            assertTrue(index >= 0 && index < SIZE);
+            assertNotEquals(0, index % 3);
+            twos += (index % 3 == 2) ? 1 : 0;
+        }
+        assertEquals(2.0 / 3.0, (double) twos / draws, 0.01);
+        assertEquals(-1, TriviaQuestionSampler.build(10, index -> 0.0).sample(random));
+        assertEquals(-1, TriviaQuestionSampler.build(0, index -> 1.0).sample(random));
+    }
+
+    /**
+     * Draws without replacement are distinct and skip questions with no 
+     * weight, even when a few questions hold nearly all the weight.
+     */
+    @Test
+    public void testSampleWithoutReplacement() {
+        Random random = new Random(7);
+        TriviaQuestionSampler uniform = TriviaQuestionSampler.build(SIZE, index -> 1.0);
+        assertDistinct(uniform.sample(500, random), 500);
+
+        TriviaQuestionSampler skewed = TriviaQuestionSampler.build(SIZE, 
+                index -> (index < 3) ? 1e9 : (index % 2 == 0) ? 1.0 : 0.0);
+        int[] drawn = skewed.sample(50, random);
+        assertDistinct(drawn, 50);
+        for (int index : drawn) {
+            assertTrue(index < 3 || index % 2 == 0);
+        }
+
+        TriviaQuestionSampler few = TriviaQuestionSampler.build(SIZE, index -> (index == 5 || index == 8000) ? 1.0 : 0.0);
+        assertDistinct(few.sample(10, random), 2);
+    }
+
+    /**
+     * The questions drawn in one pass over the weights come back in the order
+     * they were drawn, so heavier questions tend to come first.
+     */
+    @Test
+    public void testSampleRestInDrawOrder() {
+        // The first draw takes over half the weight, so the rest are drawn in one pass.
+        TriviaQuestionSampler instance = TriviaQuestionSampler.build(50, 
+                index -> (index == 0) ? 1e7 : (index == 1) ? 1e5 : (index == 2) ? 1e3 : 1.0);
+        for (int seed = 0; seed < 20; seed++) {
+            int[] drawn = instance.sample(5, new Random(seed));
+            assertEquals(0, drawn[0]);
+            assertEquals(1, drawn[1]);
+            assertEquals(2, drawn[2]);
+        }
+    }
+
+    /**
+     * Test of update method, of class TriviaQuestionSampler.
+     */
+    @Test
+    public void testUpdate() {
+        TriviaQuestionSampler instance = TriviaQuestionSampler.build(SIZE, index -> 1.0);
+        TriviaQuestionSampler updated = instance.update(SIZE + 10, new int[] { 7 }, 
+                index -> (index == 7 || index >= SIZE) ? 5.0 : 2.0);
+
+        assertEquals(5.0, updated.getWeight(7), 0.0);
+        assertEquals("Blocks that didn't change aren't weighed again.", 1.0, updated.getWeight(SIZE - 200), 0.0);
+        assertEquals(5.0, updated.getWeight(SIZE + 9), 0.0);
+        assertEquals(SIZE + 10, updated.size());
+        assertEquals(1.0, instance.getWeight(7), 0.0);
+
+        TriviaQuestionSampler shrunk = updated.update(100, new int[0], index -> 3.0);
+        assertEquals(100, shrunk.size());
+        assertEquals(300.0, shrunk.getTotalWeight(), 0.001);
+    }
+
+    private static void assertDistinct(int[] indexes, int expectedCount) {
+        assertEquals(expectedCount, indexes.length);
+        Set<Integer> seen = new HashSet<>();
+        for (int index : indexes) {
+            assertTrue(seen.add(index));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionSearchIndexTest {
+
+    private static TriviaQuestion question(long id, String text, String answer, String hint) {
+        return TestQuestions.builder(id)
+                .question(text)
+                .answerA(answer)
+                .answerB("Paris")
+                .answerC("Rome")
+                .answerD("Madrid")
+                .hint(hint)
+                .build();
+    }
+
+    private static long[] search(TriviaQuestionAccessible store, String query) {
+        return store.searchQuestions(query, 10).stream().mapToLong(TriviaQuestion::getId).toArray();
+    }
+
+    /**
+     * Test of tokenize method, of class TriviaQuestionSearchIndex.
+     */
+    @Test
+    public void testTokenize() {
+        List<String> terms = new ArrayList<>();
+        TriviaQuestionSearchIndex.tokenize("What is the capital of \u00c7a-D\u00e9pend, in 1984? A Mr. X's", 1, 
+                (term, weight) -> terms.add(term));
+        assertEquals(Arrays.asList("capital", "ca", "depend", "1984", "mr"), terms);
+    }
+
+    /**
+     * Questions with more of the query's words rank higher, and a short 
+     * question ranks above a long one with the same words.
+     */
+    @Test
+    public void testSearchRanking() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess(Arrays.asList(
+                question(1, "Which city hosted the 1900 games?", "London", "Think of the Eiffel Tower"),
+                question(2, "Where is the Eiffel Tower?", "Berlin", "It's in France"),
+                question(3, "Who designed the Eiffel Tower in Paris?", "Gustave Eiffel", "Bridges too"),
+                question(4, "What is the largest planet?", "Jupiter", "It's a gas giant")));
+
+        assertArrayEquals(new long[] { 2, 3, 1 }, search(store, "eiffel tower"));
+        assertArrayEquals(new long[] { 4 }, search(store, "JUPITER"));
+        assertArrayEquals(new long[0], search(store, "the"));
+        assertArrayEquals(new long[0], search(store, "saturn"));
+        assertEquals(1, store.searchQuestions("tower", 1).size());
+    }
+
+    /**
+     * Test of update method, of class TriviaQuestionSearchIndex.
+     */
+    @Test
+    public void testUpdate() {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long id = 0; id < 10; id++) {
+            questions.add(question(id, "Question about topic" + id, "Answer", "Hint"));
+        }
+        TriviaQuestionArrayAccess first = new TriviaQuestionArrayAccess(questions);
+        TriviaQuestionSearchIndex index = first.getSearchIndex();
+
+        questions.set(2, question(2, "Question about comets", "Answer", "Hint"));
+        questions.remove(5);
+        questions.add(question(10, "Question about comets and topic5", "Answer", "Hint"));
+        TriviaQuestionArrayAccess second = new TriviaQuestionArrayAccess(questions);
+        TriviaQuestionSearchIndex updated = index.update(Arrays.asList(2L, 5L), 
+                Arrays.asList(questions.get(2), questions.get(9)), second);
+        second.setSearchIndex(updated);
+
+        assertEquals(12, updated.getDocumentCount());
+        assertEquals(10, updated.getLiveCount());
+        assertArrayEquals(new long[0], search(second, "topic2"));
+        assertArrayEquals(new long[] { 10 }, search(second, "topic5"));
+        assertArrayEquals(new long[] { 2, 10 }, search(second, "comets"));
+        assertArrayEquals("The old index doesn't change.", new long[] { 2 }, index.search("topic2", 10));
+
+        List<Long> removed = new ArrayList<>();
+        for (long id = 0; id < 9; id++) {
+            removed.add(id);
+        }
+        TriviaQuestionArrayAccess third = new TriviaQuestionArrayAccess(
+                Collections.singletonList(question(9, "Question about topic9", "Answer", "Hint")));
+        TriviaQuestionSearchIndex rebuilt = updated.update(removed, Collections.emptyList(), third);
+        assertEquals("Mostly deleted indexes are built again.", 1, rebuilt.getDocumentCount());
+        assertArrayEquals(new long[] { 9L }, rebuilt.search("question", 10));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionSessionTest {
+
+    /**
+     * A session visits every question index exactly once.
+     */
+    @Test
+    public void testSessionVisitsEveryIndexOnce() {
+        for (long size : new long[] {0, 1, 2, 3, 11, 64, 1000, 1025}) {
+            boolean[] seen = new boolean[(int) size];
+            TriviaQuestionSession session = TriviaQuestionSession.start(size, 1L);
+            int count = 0;
+            while (session.hasNext()) {
+                int index = (int) session.getQuestionIndex();
+                assertFalse("Index " + index + " repeated for size " + size, seen[index]);
+                seen[index] = true;
+                session = session.advance();
+                count++;
+            }
+            assertEquals(size, count);
+        }
+    }
+
+    /**
+     * Test of toToken and parse methods, of class TriviaQuestionSession.
+     */
+    @Test
+    public void testTokenRoundTrip() {
+        TriviaQuestionSession session = TriviaQuestionSession.start(11, 42L).advance().advance();
+        TriviaQuestionSession parsed = TriviaQuestionSession.parse(session.toToken());
+        assertEquals(session.toToken(), parsed.toToken());
+        assertEquals(session.getQuestionIndex(), parsed.getQuestionIndex());
+        assertEquals(9, parsed.getRemaining());
+        assertEquals(42L, parsed.getVersion());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseBadTokenFails() {
+        TriviaQuestionSession.parse("not-a-session");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParsePositionPastEndFails() {
+        TriviaQuestionSession.parse("abc.b.c.1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseTokenWithoutVersionFails() {
+        TriviaQuestionSession.parse("abc.c.b");
+    }
+}
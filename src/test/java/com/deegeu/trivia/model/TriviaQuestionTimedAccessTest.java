@@ -0,0 +1,64 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import com.deegeu.trivia.metrics.LatencyHistogram;
+import com.deegeu.trivia.metrics.TriviaMetrics;
+import java.util.Arrays;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionTimedAccessTest {
+
+    /**
+     * Test that lookups are passed through and timed, of class TriviaQuestionTimedAccess.
+     */
+    @Test
+    public void testTimedLookups() {
+        TriviaQuestionArrayAccess sample = new TriviaQuestionArrayAccess();
+        TriviaQuestionTimedAccess instance = new TriviaQuestionTimedAccess(sample);
+        LatencyHistogram byId = TriviaMetrics.storeOperation("getQuestionById");
+        LatencyHistogram batch = TriviaMetrics.storeOperation("getQuestionBatch");
+        long byIdBefore = byId.getCount();
+        long batchBefore = batch.getCount();
+
+        assertSame(sample.getQuestionById(3L), instance.getQuestionById(3L));
+        assertNull(instance.getQuestionById(-1L));
+        assertArrayEquals(new long[] { -5L }, instance.getQuestionBatch(2L, -5L).getMissingIds());
+        assertEquals(sample.getCorrectAnswer(4L), instance.getCorrectAnswer(4L));
+        assertEquals(sample.getQuestionListSize(), instance.getQuestionListSize());
+        assertEquals(sample.getVersion(), instance.getVersion());
+
+        assertEquals(byIdBefore + 2, byId.getCount());
+        assertEquals(batchBefore + 1, batch.getCount());
+    }
+
+    /**
+     * Test of getSnapshot method, of class TriviaQuestionTimedAccess.
+     */
+    @Test
+    public void testGetSnapshot() {
+        TriviaQuestionArrayAccess sample = new TriviaQuestionArrayAccess();
+        TriviaQuestionTimedAccess unchanging = new TriviaQuestionTimedAccess(sample);
+        assertSame(unchanging, unchanging.getSnapshot());
+
+        TriviaQuestionReloadableAccess reloadable = new TriviaQuestionReloadableAccess(sample);
+        TriviaQuestionTimedAccess instance = new TriviaQuestionTimedAccess(reloadable);
+        TriviaQuestionAccessible first = instance.getSnapshot();
+        assertNotSame(instance, first);
+        assertSame("The timed snapshot is kept.", first, instance.getSnapshot());
+
+        reloadable.putQuestions(Arrays.asList(sample.getQuestionById(1L)));
+        TriviaQuestionAccessible second = instance.getSnapshot();
+        assertNotSame(first, second);
+        assertEquals(reloadable.getVersion(), second.getVersion());
+        assertNotEquals(first.getVersion(), second.getVersion());
+    }
+}
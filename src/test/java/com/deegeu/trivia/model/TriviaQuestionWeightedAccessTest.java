@@ -0,0 +1,87 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuestionWeightedAccessTest {
+
+    private static TriviaQuestion question(long id, int difficulty) {
+        return TestQuestions.builder(id).difficulty(difficulty).build();
+    }
+
+    private static List<TriviaQuestion> questions(int size) {
+        List<TriviaQuestion> questions = new ArrayList<>();
+        for (long id = 0; id < size; id++) {
+            questions.add(question(id, (int) (id % 5) + 1));
+        }
+        return questions;
+    }
+
+    /**
+     * Random questions come only from the difficulties with weight.
+     */
+    @Test
+    public void testGetRandomQuestion() {
+        TriviaQuestionWeightedAccess instance = new TriviaQuestionWeightedAccess(
+                new TriviaQuestionArrayAccess(questions(100)), TriviaQuestionWeighting.byDifficulty(0, 0, 1, 0, 0));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(3, instance.getRandomQuestion().getDifficulty());
+        }
+        List<TriviaQuestion> drawn = instance.getRandomQuestions(TriviaQuestionFilter.ALL, 50);
+        assertEquals(20, drawn.size());
+        assertEquals(20, drawn.stream().mapToLong(TriviaQuestion::getId).distinct().count());
+        assertEquals(5, instance.getRandomQuestions(new TriviaQuestionFilter(null, 1), 5).size());
+    }
+
+    /**
+     * The weights follow the questions when the store is reloaded.
+     */
+    @Test
+    public void testReload() {
+        List<TriviaQuestion> questions = questions(10000);
+        TriviaQuestionReloadableAccess store = new TriviaQuestionReloadableAccess(new TriviaQuestionArrayAccess(questions));
+        TriviaQuestionWeightedAccess instance = new TriviaQuestionWeightedAccess(store, 
+                TriviaQuestionWeighting.byDifficulty(0, 0, 0, 0, 1));
+        assertEquals(5, instance.getRandomQuestion().getDifficulty());
+
+        List<TriviaQuestion> changed = new ArrayList<>();
+        for (long id = 0; id < 10000; id++) {
+            changed.add(question(id, 1));
+        }
+        changed.set(9000, question(9000, 5));
+        store.putQuestions(changed.subList(0, 9500));
+        for (int i = 0; i < 20; i++) {
+            TriviaQuestion question = instance.getSnapshot().getRandomQuestion();
+            assertEquals(5, question.getDifficulty());
+            assertTrue(question.getId() == 9000 || question.getId() >= 9500);
+        }
+    }
+
+    /**
+     * Test of parse method, of interface TriviaQuestionWeighting.
+     */
+    @Test
+    public void testParseWeighting() {
+        assertSame(TriviaQuestionWeighting.UNIFORM, TriviaQuestionWeighting.parse(" uniform "));
+        assertEquals(4.0, TriviaQuestionWeighting.parse("difficulty:1, 2, 3, 4, 5").weigh(question(1, 4)), 0.0);
+        TriviaQuestionWeighting recent = TriviaQuestionWeighting.parse("recent:30");
+        assertEquals(1.0, recent.weigh(question(1, 1)), 0.001);
+        try {
+            TriviaQuestionWeighting.parse("difficulty:1,2");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException ie) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.Collections;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaQuizTest {
+
+    /**
+     * A quiz read back from its id has the same questions in the same order.
+     */
+    @Test
+    public void testIdRoundTrip() {
+        TriviaQuestionArrayAccess store = new TriviaQuestionArrayAccess();
+        TriviaQuiz quiz = TriviaQuiz.of(store.getSpecifiedQuestionList(7L, 0L, 10L, 3L));
+        assertEquals("7-0-a-3", quiz.toId());
+        assertEquals(quiz, TriviaQuiz.parse(quiz.toId()));
+        assertArrayEquals(new long[] { 7L, 0L, 10L, 3L }, TriviaQuiz.parse("7-0-a-3").getQuestionIds());
+        assertEquals(Long.MAX_VALUE, TriviaQuiz.parse(Long.toString(Long.MAX_VALUE, 36)).getQuestionId(0));
+    }
+
+    /**
+     * Test of parse method with ids that aren't quiz ids.
+     */
+    @Test
+    public void testParseMalformed() {
+        StringBuilder tooLong = new StringBuilder("1");
+        for (int i = 0; i < TriviaQuiz.MAX_SIZE; i++) {
+            tooLong.append("-1");
+        }
+        String[] ids = {"", "-", "1-", "-1", "1--2", "1.2", "zzzzzzzzzzzzzzzz", tooLong.toString(), 
+            "+a", "0a", "A", "a-b-a", "3-3"};
+        for (String id : ids) {
+            try {
+                TriviaQuiz.parse(id);
+                fail("Expected " + id + " to be rejected.");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * A quiz needs at least one question.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyQuiz() {
+        TriviaQuiz.of(Collections.emptyList());
+    }
+}
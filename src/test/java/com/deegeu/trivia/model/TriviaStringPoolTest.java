@@ -0,0 +1,83 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package com.deegeu.trivia.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author dspiess
+ */
+public class TriviaStringPoolTest {
+    
+    /**
+     * Test of intern method, of class TriviaStringPool.
+     */
+    @Test
+    public void testIntern() {
+        TriviaStringPool instance = new TriviaStringPool();
+        String first = new String("True");
+        assertSame(first, instance.intern(first));
+        assertSame(first, instance.intern(new String("True")));
+        assertNull(instance.intern(null));
+        assertEquals(1, instance.size());
+    }
+    
+    /**
+     * Test that the pool stops growing at its limits.
+     */
+    @Test
+    public void testLimits() {
+        TriviaStringPool instance = new TriviaStringPool(2, 5);
+        String longText = new String("Too long");
+        assertSame(longText, instance.intern(longText));
+        assertNotSame(longText, instance.intern(new String("Too long")));
+        
+        instance.intern("One");
+        instance.intern("Two");
+        String three = new String("Three");
+        assertSame(three, instance.intern(three));
+        assertNotSame(three, instance.intern(new String("Three")));
+        assertEquals(2, instance.size());
+    }
+    
+    /**
+     * Test that threads racing on the same text get the same instance.
+     */
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        TriviaStringPool instance = new TriviaStringPool();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    String[] pooled = new String[1000];
+                    for (int i = 0; i < pooled.length; i++) {
+                        pooled[i] = instance.intern(String.valueOf(i));
+                    }
+                    return pooled;
+                }));
+            }
+            String[] expected = results.get(0).get();
+            for (Future<String[]> result : results) {
+                String[] pooled = result.get();
+                for (int i = 0; i < pooled.length; i++) {
+                    assertSame(expected[i], pooled[i]);
+                }
+            }
+            assertEquals(1000, instance.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}